@@ -0,0 +1,50 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of adding class, method and package to an event: by hand, with {@link Logbook#caller()}
+ * and from an exception stack trace. Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=CallerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CallerBenchmark {
+    private final Logger logger = NOPLogger.NOP_LOGGER;
+
+    @Benchmark
+    public Logbook manual() {
+        return Logbook.instance(logger)
+                .javaClass(CallerBenchmark.class)
+                .javaMethod("manual")
+                .javaPackage(CallerBenchmark.class)
+                .info();
+    }
+
+    @Benchmark
+    public Logbook stackWalker() {
+        return Logbook.instance(logger)
+                .caller()
+                .info();
+    }
+
+    @Benchmark
+    public Logbook exception() {
+        StackTraceElement caller = new Throwable().getStackTrace()[0];
+        String className = caller.getClassName();
+        return Logbook.instance(logger)
+                .javaClass(className)
+                .javaMethod(caller.getMethodName())
+                .javaPackage(className.substring(0, className.lastIndexOf('.')))
+                .info();
+    }
+}
@@ -0,0 +1,94 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write-path latency of the file sinks ({@code write}) and end-to-end cost including the background
+ * writer and compressor ({@code writeAndFlush}). CPU is reported with the stack or perf profilers:
+ * {@code ./gradlew :logbook:jmh -Pjmh.includes=FileSinkBenchmark -Pjmh.profilers=stack}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileSinkBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({"channel", "rolling", "rollingCompressedActive"})
+    public String sink;
+
+    private Path directory;
+    private QueueSink queueSink;
+    private LogbookRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logbook-sink");
+        Path file = directory.resolve("app.log");
+        switch (sink) {
+            case "channel":
+                queueSink = ChannelSink.file(file, org.slf4j.event.Level.INFO);
+                break;
+            case "rolling":
+                queueSink = RollingFileSink.builder(file).maxBytes(16L * 1024 * 1024).build();
+                break;
+            default:
+                queueSink = RollingFileSink.builder(file).maxBytes(16L * 1024 * 1024).compressActive(true).build();
+        }
+
+        record = new LogbookRecord(NOPLogger.NOP_LOGGER, org.slf4j.event.Level.INFO, List.of(
+                new Pair("message", "Order placed"),
+                new Pair("endpoint", "/orders"),
+                new Pair("httpStatus", 201),
+                new Pair("duration", 12.5),
+                new Pair("request", "5f0c2a1e-8c5b-4d9e-9f7a-3b1f2c4d5e6f")), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        queueSink.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void write() {
+        queueSink.write(record);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OperationsPerInvocation(BATCH)
+    public void writeAndFlush() {
+        for (int i = 0; i < BATCH; i++) {
+            queueSink.write(record);
+        }
+        queueSink.flush();
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropped() {
+        if (queueSink.dropped() > 0) {
+            System.out.println("dropped lines: " + queueSink.dropped());
+        }
+    }
+}
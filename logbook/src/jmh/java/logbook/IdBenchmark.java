@@ -0,0 +1,50 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation under contention (64 threads) and rendering of ids.
+ * Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=IdBenchmark -Pjmh.profilers=gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IdBenchmark {
+
+    @State(Scope.Thread)
+    public static class Output {
+        final StringBuilder builder = new StringBuilder(64);
+        final UUID id = UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UUID randomUUID() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UUID logbookIds() {
+        return LogbookIds.next();
+    }
+
+    @Benchmark
+    public String uuidToString(Output output) {
+        return output.id.toString();
+    }
+
+    @Benchmark
+    public StringBuilder appendTo(Output output) {
+        output.builder.setLength(0);
+        return LogbookIds.appendTo(output.builder, output.id);
+    }
+}
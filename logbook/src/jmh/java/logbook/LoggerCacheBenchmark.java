@@ -0,0 +1,119 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Logger lookup for many classes through {@link Logbook#logger(Class)} against
+ * {@link LoggerFactory#getLogger(Class)}, with logback as backend. {@code firstLookup} runs in fresh
+ * JVMs, so it measures the lookups made while an application starts; the others measure steady state.
+ * Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=LoggerCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+public class LoggerCacheBenchmark {
+    private static final int CLASSES = 2000;
+
+    private Class<?>[] classes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> names;
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        try (Stream<Path> files = Files.walk(jrt.getPath("/modules/java.base/java"))) {
+            names = files.map(Path::toString)
+                    .filter(name -> name.endsWith(".class") && !name.contains("$"))
+                    .map(name -> name.substring("/modules/java.base/".length(), name.length() - ".class".length()).replace('/', '.'))
+                    .sorted()
+                    .limit(CLASSES)
+                    .collect(Collectors.toList());
+        }
+
+        List<Class<?>> loaded = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                loaded.add(Class.forName(name, false, null));
+            } catch (ClassNotFoundException e) {
+                // not every file is a loadable class
+            }
+        }
+        classes = loaded.toArray(new Class<?>[0]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void firstLookupLogbook(Blackhole blackhole) {
+        for (Class<?> type : classes) {
+            blackhole.consume(Logbook.logger(type));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void firstLookupLoggerFactory(Blackhole blackhole) {
+        for (Class<?> type : classes) {
+            blackhole.consume(LoggerFactory.getLogger(type));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(CLASSES)
+    public void lookupLogbook(Blackhole blackhole) {
+        for (Class<?> type : classes) {
+            blackhole.consume(Logbook.logger(type));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(CLASSES)
+    public void lookupLoggerFactory(Blackhole blackhole) {
+        for (Class<?> type : classes) {
+            blackhole.consume(LoggerFactory.getLogger(type));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(CLASSES)
+    public void instanceLogbook(Blackhole blackhole) {
+        for (Class<?> type : classes) {
+            blackhole.consume(Logbook.instance(type));
+        }
+    }
+}
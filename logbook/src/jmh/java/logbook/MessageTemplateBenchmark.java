@@ -0,0 +1,34 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a {@code message(format, values)} value with SLF4J's formatter and with a cached template.
+ * Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=MessageTemplateBenchmark -Pjmh.profilers=gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageTemplateBenchmark {
+    private static final String FORMAT = "Order {} placed by customer {} with {} items in {}";
+    private static final List<String> VALUES = List.of("A-1042", "c-77", "3", "eu-west");
+
+    @Benchmark
+    public String messageFormatter() {
+        return MessageFormatter.arrayFormat(FORMAT, VALUES.toArray()).getMessage();
+    }
+
+    @Benchmark
+    public String template() {
+        return MessageTemplate.of(FORMAT).render(VALUES);
+    }
+}
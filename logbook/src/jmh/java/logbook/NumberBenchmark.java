@@ -0,0 +1,78 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of durations: shortest and 3 decimal doubles against the JDK, and long digits.
+ * Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=NumberBenchmark -Pjmh.profilers=gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumberBenchmark {
+
+    @State(Scope.Thread)
+    public static class Output {
+        final StringBuilder builder = new StringBuilder(64);
+        final double[] durations = new double[1024];
+        final long[] counts = new long[1024];
+        int next;
+
+        @Setup
+        public void setUp() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < durations.length; i++) {
+                durations[i] = random.nextInt(10_000_000) / 1000.0;
+                counts[i] = random.nextLong(1_000_000_000L);
+            }
+        }
+
+        int index() {
+            builder.setLength(0);
+            return next++ & 1023;
+        }
+    }
+
+    @Benchmark
+    public String doubleToString(Output output) {
+        return Double.toString(output.durations[output.index()]);
+    }
+
+    @Benchmark
+    public StringBuilder appendDouble(Output output) {
+        return output.builder.append(output.durations[output.index()]);
+    }
+
+    @Benchmark
+    public StringBuilder appendShortest(Output output) {
+        return LogbookNumbers.appendTo(output.builder, output.durations[output.index()]);
+    }
+
+    @Benchmark
+    public String formatFixed(Output output) {
+        return String.format("%.3f", output.durations[output.index()]);
+    }
+
+    @Benchmark
+    public StringBuilder appendFixed(Output output) {
+        return LogbookNumbers.appendFixed(output.builder, output.durations[output.index()], 3);
+    }
+
+    @Benchmark
+    public String longToString(Output output) {
+        return Long.toString(output.counts[output.index()]);
+    }
+
+    @Benchmark
+    public StringBuilder appendLong(Output output) {
+        return LogbookNumbers.appendTo(output.builder, output.counts[output.index()]);
+    }
+}
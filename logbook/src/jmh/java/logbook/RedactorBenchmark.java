@@ -0,0 +1,67 @@
+package logbook;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the redaction scanner against the list of {@code replaceAll} scrubbers used in the appender.
+ * Run with {@code ./gradlew :logbook:jmh -Pjmh.includes=RedactorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedactorBenchmark {
+    private static final List<Pattern> SCRUBBERS = List.of(
+            Pattern.compile("\\b(?:\\d[ -]?){12,18}\\d\\b"),
+            Pattern.compile("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9-]+(?:\\.[a-zA-Z0-9-]+)+"),
+            Pattern.compile("(?i)(?<=bearer )[a-zA-Z0-9._~+/-]+=*"));
+
+    @Param({"clean", "sensitive"})
+    public String input;
+
+    private String value;
+    private Redactor redactor;
+
+    @Setup
+    public void setUp() {
+        value = input.equals("clean")
+                ? "Order 20211003 for customer 5f0c2a1e placed from the web checkout with 3 items and express shipping"
+                : "Order for john.doe@example.com paid with 4111 1111 1111 1111 using header Bearer eyJhbGciOi.JIUzI1NiJ9==";
+        redactor = Redactor.builder()
+                .cards()
+                .emails()
+                .bearerTokens()
+                .build();
+    }
+
+    @Benchmark
+    public String redactor() {
+        return redactor.redact(value);
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        String output = value;
+        for (Pattern scrubber : SCRUBBERS) {
+            output = scrubber.matcher(output).replaceAll(Redactor.DEFAULT_REPLACEMENT);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public String stringReplaceAll() {
+        return value.replaceAll("\\b(?:\\d[ -]?){12,18}\\d\\b", Redactor.DEFAULT_REPLACEMENT)
+                .replaceAll("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9-]+(?:\\.[a-zA-Z0-9-]+)+", Redactor.DEFAULT_REPLACEMENT)
+                .replaceAll("(?i)(?<=bearer )[a-zA-Z0-9._~+/-]+=*", Redactor.DEFAULT_REPLACEMENT);
+    }
+}
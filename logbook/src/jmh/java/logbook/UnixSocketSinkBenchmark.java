@@ -0,0 +1,119 @@
+package logbook;
+
+import logbook.testutil.UnixServerSockets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The Unix domain socket sink against the file sink: write-path latency ({@code write}) and
+ * end-to-end cost until a local agent thread took the lines or they reached the file
+ * ({@code writeAndFlush}). Needs Java 16 or later:
+ * {@code ./gradlew :logbook:jmh -Pjmh.includes=UnixSocketSinkBenchmark}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnixSocketSinkBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({"socket", "file"})
+    public String sink;
+
+    private Path directory;
+    private ServerSocketChannel server;
+    private Thread agent;
+    private QueueSink queueSink;
+    private LogbookRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logbook-socket");
+        if (sink.equals("socket")) {
+            Path socket = directory.resolve("agent.sock");
+            server = UnixServerSockets.open();
+            server.bind(UnixSockets.address(socket));
+            agent = new Thread(this::discard, "agent");
+            agent.setDaemon(true);
+            agent.start();
+            queueSink = UnixSocketSink.builder(socket).build();
+        } else {
+            queueSink = ChannelSink.file(directory.resolve("app.log"), org.slf4j.event.Level.INFO);
+        }
+
+        record = new LogbookRecord(NOPLogger.NOP_LOGGER, org.slf4j.event.Level.INFO, List.of(
+                new Pair("message", "Order placed"),
+                new Pair("endpoint", "/orders"),
+                new Pair("httpStatus", 201),
+                new Pair("duration", 12.5),
+                new Pair("request", "5f0c2a1e-8c5b-4d9e-9f7a-3b1f2c4d5e6f")), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        queueSink.close();
+        if (server != null) {
+            server.close();
+            agent.join();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void write() {
+        queueSink.write(record);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OperationsPerInvocation(BATCH)
+    public void writeAndFlush() {
+        for (int i = 0; i < BATCH; i++) {
+            queueSink.write(record);
+        }
+        queueSink.flush();
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropped() {
+        if (queueSink.dropped() > 0) {
+            System.out.println("dropped lines: " + queueSink.dropped());
+        }
+    }
+
+    /**
+     * Stand-in for the local agent: reads and discards until the sink disconnects.
+     */
+    private void discard() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        try (SocketChannel channel = server.accept()) {
+            while (channel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // server closed
+        }
+    }
+}
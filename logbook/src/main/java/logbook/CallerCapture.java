@@ -0,0 +1,107 @@
+package logbook;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Finds the code that called Logbook with a {@link StackWalker} that skips the Logbook frames,
+ * however many there are, and caches the class, method and package pairs per call site (class, method and bytecode index),
+ * so repeated calls from the same line only pay for the short walk.
+ * <p>
+ * {@link #enable()} adds them to every event that has no {@code class} key;
+ * {@link Logbook#caller()} adds them to one event.
+ */
+public final class CallerCapture {
+    /**
+     * Frames fetched by the first batch of a walk, enough for the Logbook frames and the caller.
+     */
+    static final int ESTIMATED_DEPTH = 16;
+
+    private static final StackWalker WALKER = StackWalker.getInstance(Set.of(StackWalker.Option.RETAIN_CLASS_REFERENCE), ESTIMATED_DEPTH);
+    private static final ClassValue<Map<Long, Caller>> CALLERS = new ClassValue<>() {
+        @Override
+        protected Map<Long, Caller> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private CallerCapture() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void enable() {
+        LogbookSettings.update(settings -> settings.callerCapture(true));
+    }
+
+    public static void disable() {
+        LogbookSettings.update(settings -> settings.callerCapture(false));
+    }
+
+    public static boolean isEnabled() {
+        return LogbookSettings.current().callerCapture();
+    }
+
+    /**
+     * The caller pairs of the first frame outside Logbook.
+     */
+    static List<Pair> capture() {
+        return capture(Logbook.class);
+    }
+
+    /**
+     * The caller pairs of the first frame outside Logbook and the given class, which is the
+     * generated class for {@link LogbookEventType}.
+     */
+    static List<Pair> capture(Class<?> skipped) {
+        Optional<Caller> caller = WALKER.walk(frames -> caller(frames, skipped));
+        return caller.map(found -> found.pairs).orElse(List.of());
+    }
+
+    static boolean hasCaller(List<Pair> pairs) {
+        for (Pair pair : pairs) {
+            if (pair.getKey() == LogbookKey.CLASS.id()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<Caller> caller(Stream<StackWalker.StackFrame> frames, Class<?> skipped) {
+        return frames.dropWhile(frame -> isLogbook(frame.getDeclaringClass()) || frame.getDeclaringClass() == skipped)
+                .findFirst()
+                .map(CallerCapture::cached);
+    }
+
+    private static boolean isLogbook(Class<?> type) {
+        return type == Logbook.class || type == CallerCapture.class || type == LogbookEventType.class;
+    }
+
+    private static Caller cached(StackWalker.StackFrame frame) {
+        String method = frame.getMethodName();
+        long site = (long) method.hashCode() << 32 | frame.getByteCodeIndex() & 0xffffffffL;
+        Map<Long, Caller> callers = CALLERS.get(frame.getDeclaringClass());
+        Caller caller = callers.get(site);
+        if (caller == null || !caller.method.equals(method)) {
+            caller = new Caller(frame.getDeclaringClass(), method);
+            callers.putIfAbsent(site, caller);
+        }
+        return caller;
+    }
+
+    private static final class Caller {
+        private final String method;
+        private final List<Pair> pairs;
+
+        private Caller(Class<?> type, String method) {
+            this.method = method;
+            this.pairs = List.of(
+                    new Pair(LogbookKey.CLASS.id(), null, new Object[]{type.getName()}),
+                    new Pair(LogbookKey.METHOD.id(), null, new Object[]{method}),
+                    new Pair(LogbookKey.PACKAGE.id(), null, new Object[]{type.getPackageName()}));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package logbook;
+
+import org.slf4j.event.Level;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes events as text lines to stdout or a file without going through SLF4J,
+ * with one gathering write per batch of queued lines.
+ */
+public final class ChannelSink extends QueueSink {
+    private final FileChannel channel;
+    private final boolean closeChannel;
+
+    ChannelSink(FileChannel channel, boolean closeChannel, Level minimumLevel, int queueCapacity, int batchSize) {
+        this(channel, closeChannel, minimumLevel, queueCapacity, batchSize, false);
+    }
+
+    ChannelSink(FileChannel channel, boolean closeChannel, Level minimumLevel, int queueCapacity, int batchSize, boolean renderOnWriter) {
+        super("logbook-channel-sink", minimumLevel, queueCapacity, batchSize, renderOnWriter);
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        start();
+    }
+
+    public static ChannelSink stdout(Level minimumLevel) {
+        return stdout(minimumLevel, false);
+    }
+
+    /**
+     * With {@code renderOnWriter}, events are rendered by the writer thread, lazy values included.
+     */
+    public static ChannelSink stdout(Level minimumLevel, boolean renderOnWriter) {
+        FileChannel channel = new FileOutputStream(FileDescriptor.out).getChannel();
+        return new ChannelSink(channel, false, minimumLevel, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, renderOnWriter);
+    }
+
+    public static ChannelSink file(Path file, Level minimumLevel) throws IOException {
+        return file(file, minimumLevel, false);
+    }
+
+    /**
+     * With {@code renderOnWriter}, events are rendered by the writer thread, lazy values included.
+     */
+    public static ChannelSink file(Path file, Level minimumLevel, boolean renderOnWriter) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new ChannelSink(channel, true, minimumLevel, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, renderOnWriter);
+    }
+
+    @Override
+    void writeBatch(ByteBuffer[] buffers, int count) throws IOException {
+        writeFully(channel, buffers, count);
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+
+    static long writeFully(FileChannel channel, ByteBuffer[] buffers, int count) throws IOException {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += buffers[i].remaining();
+        }
+
+        long remaining = total;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers, 0, count);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,270 @@
+package logbook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders stack traces in the layout of {@link Throwable#printStackTrace()}, but compact: frames
+ * of excluded packages are collapsed into {@code ... n filtered}, every exception shows at most
+ * {@link Builder#maxFrames(int)} frames, causes and suppressed exceptions stop at
+ * {@link Builder#maxCauses(int)} levels, and frames shared with the enclosing trace are elided as
+ * {@code ... n more}. The first frame is always kept, so the throwing method stays visible.
+ * <p>
+ * Once installed, {@link Logbook#exceptionWithStackTrace(Throwable)} is rendered with it: file
+ * sinks write it after the line and the SLF4J sink appends it to the message instead of passing
+ * the exception to the backend.
+ */
+public final class ExceptionRenderer {
+    /**
+     * Every frame; used by file sinks while no renderer is installed.
+     */
+    public static final ExceptionRenderer FULL = builder().build();
+    static final int MAX_CACHED_FRAMES = 4096;
+
+    private static final ConcurrentMap<StackTraceElement, Frame> FRAMES = new ConcurrentHashMap<>();
+    private static final Frame[] CLOCK = new Frame[MAX_CACHED_FRAMES];
+    private static int hand;
+    private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
+    private final String[] excluded;
+    private final int maxFrames;
+    private final int maxCauses;
+
+    private ExceptionRenderer(Builder builder) {
+        this.excluded = builder.excluded.toArray(new String[0]);
+        this.maxFrames = builder.maxFrames;
+        this.maxCauses = builder.maxCauses;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static void install(ExceptionRenderer renderer) {
+        LogbookSettings.update(settings -> settings.exceptionRenderer(renderer));
+    }
+
+    public static void uninstall() {
+        install(null);
+    }
+
+    /**
+     * The installed renderer, or null.
+     */
+    static ExceptionRenderer active() {
+        return LogbookSettings.current().exceptionRenderer();
+    }
+
+    /**
+     * Appends the trace with a line break after every line.
+     */
+    public StringBuilder appendTo(StringBuilder builder, Throwable exception) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        append(builder, exception, NO_FRAMES, "", "", seen, 0);
+        return builder;
+    }
+
+    /**
+     * The trace without the final line break.
+     */
+    public String render(Throwable exception) {
+        StringBuilder builder = appendTo(new StringBuilder(256), exception);
+        builder.setLength(builder.length() - 1);
+        return builder.toString();
+    }
+
+    static int cachedFrames() {
+        return FRAMES.size();
+    }
+
+    static synchronized void clearCache() {
+        FRAMES.clear();
+        Arrays.fill(CLOCK, null);
+        hand = 0;
+    }
+
+    private void append(StringBuilder builder, Throwable exception, StackTraceElement[] enclosing,
+                        String caption, String indent, Set<Throwable> seen, int depth) {
+        if (!seen.add(exception)) {
+            builder.append(indent).append(caption).append("[CIRCULAR REFERENCE: ").append(exception).append("]\n");
+            return;
+        }
+
+        builder.append(indent).append(caption).append(exception).append('\n');
+        StackTraceElement[] frames = exception.getStackTrace();
+        int unique = frames.length - commonFrames(frames, enclosing);
+        appendFrames(builder, frames, unique, indent);
+        if (unique < frames.length) {
+            builder.append(indent).append("\t... ").append(frames.length - unique).append(" more\n");
+        }
+
+        Throwable[] suppressed = exception.getSuppressed();
+        Throwable cause = exception.getCause();
+        if (depth >= maxCauses) {
+            int skipped = suppressed.length + (cause == null ? 0 : 1);
+            if (skipped > 0) {
+                builder.append(indent).append("\t... ").append(skipped).append(" causes omitted\n");
+            }
+            return;
+        }
+        for (Throwable each : suppressed) {
+            append(builder, each, frames, "Suppressed: ", indent + '\t', seen, depth + 1);
+        }
+        if (cause != null) {
+            append(builder, cause, frames, "Caused by: ", indent, seen, depth + 1);
+        }
+    }
+
+    private void appendFrames(StringBuilder builder, StackTraceElement[] frames, int unique, String indent) {
+        int shown = 0;
+        int filtered = 0;
+        int index = 0;
+        for (; index < unique && shown < maxFrames; index++) {
+            if (index > 0 && isExcluded(frames[index].getClassName())) {
+                filtered++;
+                continue;
+            }
+            if (filtered > 0) {
+                builder.append(indent).append("\t... ").append(filtered).append(" filtered\n");
+                filtered = 0;
+            }
+            builder.append(indent).append("\tat ").append(frame(frames[index])).append('\n');
+            shown++;
+        }
+
+        if (index < unique) {
+            builder.append(indent).append("\t... ").append(filtered + unique - index).append(" frames omitted\n");
+        } else if (filtered > 0) {
+            builder.append(indent).append("\t... ").append(filtered).append(" filtered\n");
+        }
+    }
+
+    private boolean isExcluded(String className) {
+        for (String prefix : excluded) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int commonFrames(StackTraceElement[] frames, StackTraceElement[] enclosing) {
+        int m = frames.length - 1;
+        int n = enclosing.length - 1;
+        while (m >= 0 && n >= 0 && frames[m].equals(enclosing[n])) {
+            m--;
+            n--;
+        }
+        return frames.length - 1 - m;
+    }
+
+    /**
+     * {@code class.method(File.java:42)}, cached per frame up to {@link #MAX_CACHED_FRAMES}
+     * frames and evicted with the clock algorithm like {@link MessageTemplate}.
+     */
+    static String frame(StackTraceElement element) {
+        Frame cached = FRAMES.get(element);
+        if (cached != null) {
+            if (!cached.used) {
+                cached.used = true;
+            }
+            return cached.text;
+        }
+
+        StringBuilder builder = new StringBuilder(96)
+                .append(element.getClassName()).append('.').append(element.getMethodName()).append('(');
+        if (element.isNativeMethod()) {
+            builder.append("Native Method");
+        } else if (element.getFileName() == null) {
+            builder.append("Unknown Source");
+        } else {
+            builder.append(element.getFileName());
+            if (element.getLineNumber() >= 0) {
+                builder.append(':').append(element.getLineNumber());
+            }
+        }
+        return cache(new Frame(element, builder.append(')').toString())).text;
+    }
+
+    private static synchronized Frame cache(Frame frame) {
+        Frame cached = FRAMES.get(frame.element);
+        if (cached != null) {
+            return cached;
+        }
+
+        while (CLOCK[hand] != null && CLOCK[hand].used) {
+            CLOCK[hand].used = false;
+            hand = (hand + 1) % MAX_CACHED_FRAMES;
+        }
+        if (CLOCK[hand] != null) {
+            FRAMES.remove(CLOCK[hand].element);
+        }
+        CLOCK[hand] = frame;
+        hand = (hand + 1) % MAX_CACHED_FRAMES;
+        FRAMES.put(frame.element, frame);
+        return frame;
+    }
+
+    private static final class Frame {
+        private final StackTraceElement element;
+        private final String text;
+        private volatile boolean used;
+
+        private Frame(StackTraceElement element, String text) {
+            this.element = element;
+            this.text = text;
+        }
+    }
+
+    public static final class Builder {
+        private final List<String> excluded = new ArrayList<>();
+        private int maxFrames = Integer.MAX_VALUE;
+        private int maxCauses = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * Collapses frames of classes starting with the prefix, e.g. {@code org.springframework.}.
+         */
+        public Builder exclude(String packagePrefix) {
+            if (packagePrefix == null || packagePrefix.isEmpty()) {
+                throw new IllegalArgumentException("Package prefix must not be empty");
+            }
+            excluded.add(packagePrefix);
+            return this;
+        }
+
+        /**
+         * Frames shown per exception, not counting filtered ones.
+         */
+        public Builder maxFrames(int maxFrames) {
+            if (maxFrames < 1) {
+                throw new IllegalArgumentException("Max frames must be positive");
+            }
+            this.maxFrames = maxFrames;
+            return this;
+        }
+
+        /**
+         * Levels of causes and suppressed exceptions shown below the exception.
+         */
+        public Builder maxCauses(int maxCauses) {
+            if (maxCauses < 0) {
+                throw new IllegalArgumentException("Max causes must not be negative");
+            }
+            this.maxCauses = maxCauses;
+            return this;
+        }
+
+        public ExceptionRenderer build() {
+            return new ExceptionRenderer(this);
+        }
+    }
+}
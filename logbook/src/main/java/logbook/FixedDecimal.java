@@ -0,0 +1,24 @@
+package logbook;
+
+/**
+ * A double rendered with a fixed number of decimals. Sinks append it without creating a string.
+ */
+final class FixedDecimal {
+    private final double value;
+    private final int decimals;
+
+    FixedDecimal(double value, int decimals) {
+        LogbookNumbers.checkDecimals(decimals);
+        this.value = value;
+        this.decimals = decimals;
+    }
+
+    StringBuilder appendTo(StringBuilder builder) {
+        return LogbookNumbers.appendFixed(builder, value, decimals);
+    }
+
+    @Override
+    public String toString() {
+        return LogbookNumbers.toFixedString(value, decimals);
+    }
+}
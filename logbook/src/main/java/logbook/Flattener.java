@@ -0,0 +1,217 @@
+package logbook;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Walks the values passed to {@link Logbook#flatten(String, Object)}: maps, iterables, arrays,
+ * primitive arrays included, and types with a registered {@link Accessor} become dotted keys such
+ * as {@code user.id} or {@code items.0.sku}. The walk reuses one key buffer and hands each leaf to the renderer as it is
+ * reached. It stops at {@link #maxDepth()} levels and {@link #maxFields()} leaves of the current
+ * {@link LogbookSettings} and then adds a {@code truncated="true"} field.
+ * <p>
+ * Map keys are counted against {@link KeyGuard#maxMapKeys()}, apart from added keys. Once that
+ * limit is reached, a new map key and the path below it are folded into an {@code extra} segment
+ * and written in front of the value, e.g. {@code attributes.extra="user4711.id=42"}.
+ */
+public final class Flattener {
+    public static final int DEFAULT_MAX_DEPTH = 4;
+    public static final int DEFAULT_MAX_FIELDS = 64;
+    static final String TRUNCATED = "truncated";
+
+    private static final ConcurrentMap<Class<?>, Accessor<?>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private Flattener() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Lists the fields of a bean or record, e.g. {@code (user, fields) -> fields.field("id", user.getId())}.
+     */
+    @FunctionalInterface
+    public interface Accessor<T> {
+        void fields(T value, Fields fields);
+    }
+
+    public interface Fields {
+        void field(String name, Object value);
+    }
+
+    /**
+     * Receives the leaves of a walk; {@code path} and {@code folded}, the path below a folded
+     * map key or null, are only valid during the call.
+     */
+    interface Visitor {
+        void leaf(CharSequence path, CharSequence folded, String name, Object value);
+    }
+
+    /**
+     * Used for the type and its subclasses that have no accessor of their own.
+     */
+    public static <T> void register(Class<T> type, Accessor<? super T> accessor) {
+        ACCESSORS.put(type, accessor);
+    }
+
+    public static void unregister(Class<?> type) {
+        ACCESSORS.remove(type);
+    }
+
+    public static void limits(int maxDepth, int maxFields) {
+        LogbookSettings.update(settings -> settings.flattenLimits(maxDepth, maxFields));
+    }
+
+    public static int maxDepth() {
+        return LogbookSettings.current().flattenMaxDepth();
+    }
+
+    public static int maxFields() {
+        return LogbookSettings.current().flattenMaxFields();
+    }
+
+    /**
+     * Visits the leaves of {@code value} below {@code key}; a value that is not nested is one leaf.
+     */
+    static void walk(String key, Object value, LogbookSettings settings, Visitor visitor) {
+        Walk walk = new Walk(visitor, settings);
+        KeySymbols.appendClean(walk.path, key);
+        walk.value(null, value);
+        if (walk.truncated) {
+            walk.path.setLength(0);
+            KeySymbols.appendClean(walk.path, key).append('.').append(TRUNCATED);
+            visitor.leaf(walk.path, null, TRUNCATED, Boolean.TRUE);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Accessor<Object> accessor(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            Accessor<?> accessor = ACCESSORS.get(current);
+            if (accessor != null) {
+                return (Accessor<Object>) accessor;
+            }
+        }
+        return null;
+    }
+
+    private static final class Walk implements Fields {
+        private final StringBuilder path = new StringBuilder(64);
+        private final StringBuilder folded = new StringBuilder();
+        private final Visitor visitor;
+        private final LogbookSettings settings;
+        private final int maxDepth;
+        private final int maxFields;
+        private int depth;
+        private int fields;
+        private boolean folding;
+        private boolean truncated;
+
+        private Walk(Visitor visitor, LogbookSettings settings) {
+            this.visitor = visitor;
+            this.settings = settings;
+            this.maxDepth = settings.flattenMaxDepth();
+            this.maxFields = settings.flattenMaxFields();
+        }
+
+        @Override
+        public void field(String name, Object value) {
+            field(name, value, false);
+        }
+
+        /**
+         * A guarded name is a map key, which may be as dynamic as an added key.
+         */
+        private void field(String name, Object value, boolean guarded) {
+            if (fields >= maxFields) {
+                truncated = true;
+                return;
+            }
+
+            int length = path.length();
+            int foldedLength = folded.length();
+            boolean folds = !folding && guarded && !KeyGuard.registerMapKey(name, settings);
+            if (folds) {
+                folding = true;
+                path.append('.').append(KeySymbols.name(KeyGuard.EXTRA));
+                KeySymbols.appendClean(folded, name);
+            } else {
+                KeySymbols.appendClean(segments().append('.'), name);
+            }
+            value(name, value);
+            path.setLength(length);
+            folded.setLength(foldedLength);
+            if (folds) {
+                folding = false;
+            }
+        }
+
+        private StringBuilder segments() {
+            return folding ? folded : path;
+        }
+
+        private void value(String name, Object value) {
+            Accessor<Object> accessor = value == null ? null : accessor(value.getClass());
+            boolean nested = value instanceof Map || value instanceof Iterable || value != null && value.getClass().isArray() || accessor != null;
+            if (!nested) {
+                fields++;
+                visitor.leaf(path, folding ? folded : null, name, value);
+                return;
+            }
+            if (depth >= maxDepth) {
+                truncated = true;
+                return;
+            }
+
+            depth++;
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (fields >= maxFields) {
+                        truncated = true;
+                        break;
+                    }
+                    field(String.valueOf(entry.getKey()), entry.getValue(), true);
+                }
+            } else if (value instanceof Iterable) {
+                Iterator<?> iterator = ((Iterable<?>) value).iterator();
+                for (int i = 0; iterator.hasNext(); i++) {
+                    if (fields >= maxFields) {
+                        truncated = true;
+                        break;
+                    }
+                    index(i, iterator.next());
+                }
+            } else if (value instanceof Object[]) {
+                Object[] array = (Object[]) value;
+                for (int i = 0; i < array.length; i++) {
+                    if (fields >= maxFields) {
+                        truncated = true;
+                        break;
+                    }
+                    index(i, array[i]);
+                }
+            } else if (value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                for (int i = 0; i < length; i++) {
+                    if (fields >= maxFields) {
+                        truncated = true;
+                        break;
+                    }
+                    index(i, Array.get(value, i));
+                }
+            } else {
+                accessor.fields(value, this);
+            }
+            depth--;
+        }
+
+        private void index(int index, Object value) {
+            StringBuilder segments = segments();
+            int length = segments.length();
+            segments.append('.').append(index);
+            value(null, value);
+            segments.setLength(length);
+        }
+    }
+}
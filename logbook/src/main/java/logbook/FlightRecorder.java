@@ -0,0 +1,203 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps the last events that were below the logger level in a preallocated ring per thread,
+ * without rendering them. The ring of the current thread is written out before an
+ * {@link Logbook#error()} event, or on demand with {@link #dump(Level)}.
+ */
+public final class FlightRecorder {
+    private static volatile FlightRecorder active;
+
+    private final int capacity;
+    private final Level minimumLevel;
+    private final ThreadLocal<Ring> rings;
+    private final Queue<WeakReference<Ring>> allRings = new ConcurrentLinkedQueue<>();
+
+    private FlightRecorder(int capacity, Level minimumLevel) {
+        this.capacity = capacity;
+        this.minimumLevel = minimumLevel;
+        this.rings = ThreadLocal.withInitial(this::newRing);
+    }
+
+    public static void start(int capacity) {
+        start(capacity, Level.DEBUG);
+    }
+
+    public static void start(int capacity, Level minimumLevel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        active = new FlightRecorder(capacity, minimumLevel);
+    }
+
+    public static void stop() {
+        active = null;
+    }
+
+    public static boolean isStarted() {
+        return active != null;
+    }
+
+    /**
+     * Writes and clears the events recorded by the current thread.
+     */
+    public static void dump(Level level) {
+        FlightRecorder recorder = active;
+        if (recorder != null) {
+            recorder.dumpCurrentThread(level);
+        }
+    }
+
+    /**
+     * Writes the events recorded by every thread ordered by time, leaving the rings untouched.
+     */
+    public static void dumpAll(Level level) {
+        FlightRecorder recorder = active;
+        if (recorder != null) {
+            recorder.dumpAllThreads(level);
+        }
+    }
+
+    static FlightRecorder active() {
+        return active;
+    }
+
+    boolean captures(Level level) {
+        return level.toInt() >= minimumLevel.toInt();
+    }
+
+    void record(Logger logger, Level level, List<Pair> pairs, Throwable exception) {
+        rings.get().record(logger, level, pairs, exception);
+    }
+
+    void dumpCurrentThread(Level level) {
+        Ring ring = rings.get();
+        List<RecordedEvent> recorded = ring.snapshot();
+        ring.clear();
+        write(recorded, level);
+    }
+
+    private void dumpAllThreads(Level level) {
+        List<RecordedEvent> recorded = new ArrayList<>();
+        Iterator<WeakReference<Ring>> iterator = allRings.iterator();
+        while (iterator.hasNext()) {
+            Ring ring = iterator.next().get();
+            if (ring == null) {
+                iterator.remove();
+            } else {
+                recorded.addAll(ring.snapshot());
+            }
+        }
+
+        recorded.sort(Comparator.comparingLong(event -> event.timestamp));
+        write(recorded, level);
+    }
+
+    private static void write(List<RecordedEvent> recorded, Level level) {
+        for (RecordedEvent event : recorded) {
+            event.write(level);
+        }
+    }
+
+    private Ring newRing() {
+        Ring ring = new Ring(capacity);
+        allRings.add(new WeakReference<>(ring));
+        return ring;
+    }
+
+    /**
+     * Written only by its owner thread. The slot version is odd while a slot is being
+     * written, so that {@link #dumpAll(Level)} can skip slots that change under it. The
+     * release fence after the odd version keeps the plain field stores from moving above it.
+     */
+    private static final class Ring {
+        private final Slot[] slots;
+        private volatile long next;
+
+        private Ring(int capacity) {
+            slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        private void record(Logger logger, Level level, List<Pair> pairs, Throwable exception) {
+            long sequence = next;
+            Slot slot = slots[(int) (sequence % slots.length)];
+            slot.version++;
+            VarHandle.releaseFence();
+            slot.logger = logger;
+            slot.level = level;
+            slot.timestamp = System.currentTimeMillis();
+            slot.exception = exception;
+            slot.size = pairs.size();
+            if (slot.pairs.length < slot.size) {
+                slot.pairs = new Pair[Math.max(slot.size, slot.pairs.length * 2)];
+            }
+            for (int i = 0; i < slot.size; i++) {
+                slot.pairs[i] = pairs.get(i);
+            }
+            Arrays.fill(slot.pairs, slot.size, slot.pairs.length, null);
+            slot.version++;
+            next = sequence + 1;
+        }
+
+        private List<RecordedEvent> snapshot() {
+            long end = next;
+            long start = Math.max(0, end - slots.length);
+            List<RecordedEvent> recorded = new ArrayList<>((int) (end - start));
+            for (long sequence = start; sequence < end; sequence++) {
+                Slot slot = slots[(int) (sequence % slots.length)];
+                long version = slot.version;
+                if ((version & 1) != 0) {
+                    continue;
+                }
+
+                Pair[] pairs = Arrays.copyOf(slot.pairs, Math.min(slot.size, slot.pairs.length));
+                RecordedEvent event = new RecordedEvent(slot.logger, slot.level, slot.timestamp, Arrays.asList(pairs), slot.exception);
+                VarHandle.acquireFence();
+                if (slot.version == version && event.logger != null) {
+                    recorded.add(event);
+                }
+            }
+            return recorded;
+        }
+
+        private void clear() {
+            for (Slot slot : slots) {
+                slot.version++;
+                VarHandle.releaseFence();
+                slot.logger = null;
+                slot.exception = null;
+                Arrays.fill(slot.pairs, null);
+                slot.size = 0;
+                slot.version++;
+            }
+            next = 0;
+        }
+    }
+
+    private static final class Slot {
+        private volatile long version;
+        private Logger logger;
+        private Level level;
+        private long timestamp;
+        private Throwable exception;
+        private Pair[] pairs = new Pair[16];
+        private int size;
+    }
+}
@@ -0,0 +1,80 @@
+package logbook;
+
+import jdk.jfr.EventType;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.List;
+
+/**
+ * Emits Logbook events as {@code logbook.Event} in Java Flight Recorder, regardless of the logger
+ * level. Common keys get typed fields, the others are kept in {@code fields}. Nothing is rendered
+ * unless a recording has the event enabled at the event's level ({@code minimumLevel} setting),
+ * and values added with {@link Logbook#addLazy(String, java.util.function.Supplier)} are left out,
+ * so a recording never calls their suppliers.
+ */
+final class JfrSink {
+    private static final EventType TYPE = EventType.getEventType(LogbookJfrEvent.class);
+
+    private JfrSink() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static boolean isEnabled() {
+        return TYPE.isEnabled();
+    }
+
+    static void emit(Logger logger, Level level, List<Pair> pairs, LogbookSettings settings) {
+        LogbookJfrEvent event = new LogbookJfrEvent();
+        event.levelValue = level.toInt();
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        StringBuilder fields = new StringBuilder();
+        event.logger = logger.getName();
+        event.level = level.name();
+        for (Pair pair : pairs) {
+            if (!pair.isValid() || !pair.isPrimitive() && pair.getValue() instanceof LazyValue) {
+                continue;
+            }
+
+            String value = LogbookRecord.render(pair, settings);
+            int key = pair.getKey();
+            double number = key == LogbookKey.DURATION.id() || key == LogbookKey.HTTP_STATUS.id() ? number(value) : Double.NaN;
+            if (key == LogbookKey.MESSAGE.id()) {
+                event.message = value;
+            } else if (key == LogbookKey.ENDPOINT.id()) {
+                event.endpoint = value;
+            } else if (key == LogbookKey.SERVICE.id()) {
+                event.service = value;
+            } else if (key == LogbookKey.REQUEST.id()) {
+                event.request = value;
+            } else if (key == LogbookKey.DURATION.id() && !Double.isNaN(number)) {
+                event.durationValue = number;
+            } else if (key == LogbookKey.HTTP_STATUS.id() && !Double.isNaN(number)) {
+                event.httpStatus = (int) number;
+            } else if (!pair.isPrimitive() && pair.getValue() instanceof NestedValue) {
+                if (!value.isEmpty()) {
+                    appendSeparator(fields).append(value);
+                }
+            } else {
+                appendSeparator(fields).append(pair.getSymbol().cleanName()).append("=\"").append(value).append('"');
+            }
+        }
+        event.fields = fields.toString();
+        event.commit();
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder fields) {
+        return fields.length() > 0 ? fields.append(' ') : fields;
+    }
+
+    private static double number(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package logbook;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of distinct keys passed to {@link Logbook#add(String, Object)}, once a limit
+ * is set with {@link #maxKeys(int)}; there is no limit by default. Once {@link #maxKeys()} keys
+ * are known, built-in keys included, a new key is not registered and its field is written as
+ * {@code extra="key=value"}, so dynamic keys such as user ids cannot grow the key table or the
+ * field count of an indexer. Folded keys are counted in a fixed size HyperLogLog sketch, and a
+ * warning with the counts is logged at most once a minute while keys are folded. The warning is
+ * logged after the event that folded a key is written, never while an event is being built.
+ * <p>
+ * Map keys of values added with {@link Logbook#flatten(String, Object)} have a budget of their
+ * own, set with {@link #maxMapKeys(int)}, so one map keyed by data cannot use up the key limit.
+ * Past it a map key and the path below it are written below {@code extra}.
+ */
+public final class KeyGuard {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    public static final int DEFAULT_MAX_KEYS = UNLIMITED;
+    public static final int DEFAULT_MAX_MAP_KEYS = UNLIMITED;
+    static final long WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    /** Also registers the built-in keys before any key is guarded. */
+    static final int EXTRA = LogbookKey.EXTRA.id();
+
+    private static final int PRECISION = 10;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final AtomicIntegerArray REGISTERS = new AtomicIntegerArray(REGISTER_COUNT);
+    private static final LongAdder FOLDED_EVENTS = new LongAdder();
+    private static final AtomicLong LAST_WARNING = new AtomicLong();
+    private static final AtomicBoolean PENDING_WARNING = new AtomicBoolean();
+    /** Map keys seen while {@link #maxMapKeys()} is limited; not filled without a limit. */
+    private static final Set<String> MAP_KEYS = ConcurrentHashMap.newKeySet();
+    private static volatile boolean warned;
+
+    private KeyGuard() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void maxKeys(int maxKeys) {
+        LogbookSettings.update(settings -> settings.maxKeys(maxKeys));
+    }
+
+    public static int maxKeys() {
+        return LogbookSettings.current().maxKeys();
+    }
+
+    public static void maxMapKeys(int maxMapKeys) {
+        LogbookSettings.update(settings -> settings.maxMapKeys(maxMapKeys));
+    }
+
+    public static int maxMapKeys() {
+        return LogbookSettings.current().maxMapKeys();
+    }
+
+    /**
+     * Estimated number of distinct keys folded into {@code extra}, within a few percent.
+     */
+    public static long foldedKeys() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            int rank = REGISTERS.get(i);
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = 0.7213 / (1 + 1.079 / REGISTER_COUNT) * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Number of fields folded into {@code extra}.
+     */
+    public static long foldedEvents() {
+        return FOLDED_EVENTS.sum();
+    }
+
+    /**
+     * The id of the key, or -1 when it was folded or not interned.
+     */
+    static int register(String key) {
+        KeySymbols.Symbol symbol = symbol(key);
+        return symbol == null ? -1 : symbol.id();
+    }
+
+    /**
+     * The symbol of a key passed at runtime, or null when it was folded. Known keys cost one map
+     * lookup. Without a key limit the key is interned as far as {@link KeySymbols} has room.
+     */
+    static KeySymbols.Symbol symbol(String key) {
+        int id = KeySymbols.find(key);
+        if (id >= 0) {
+            return KeySymbols.symbol(id);
+        }
+
+        int maxKeys = maxKeys();
+        if (maxKeys == UNLIMITED) {
+            return KeySymbols.intern(key);
+        }
+        id = KeySymbols.register(key, maxKeys);
+        if (id < 0) {
+            fold(key);
+            return null;
+        }
+        return KeySymbols.symbol(id);
+    }
+
+    /**
+     * Whether a map key of a flattened value is kept, false when it was folded. Map keys are
+     * never registered as keys and are only remembered while {@link #maxMapKeys()} is limited.
+     */
+    static boolean registerMapKey(String key, LogbookSettings settings) {
+        int maxMapKeys = settings.maxMapKeys();
+        if (maxMapKeys == UNLIMITED || MAP_KEYS.contains(key)) {
+            return true;
+        }
+        if (addMapKey(key, maxMapKeys)) {
+            return true;
+        }
+        fold(key);
+        return false;
+    }
+
+    private static synchronized boolean addMapKey(String key, int maxMapKeys) {
+        if (MAP_KEYS.contains(key)) {
+            return true;
+        }
+        if (MAP_KEYS.size() >= maxMapKeys) {
+            return false;
+        }
+        return MAP_KEYS.add(key);
+    }
+
+    /**
+     * Logs the warning of a key folded by an event, called by the pipeline once the event is written.
+     */
+    static void warnIfPending() {
+        if (PENDING_WARNING.get() && PENDING_WARNING.compareAndSet(true, false)) {
+            Logbook.instance(KeyGuard.class)
+                    .message("Key limit reached, new keys are folded into extra")
+                    .add(LogbookKey.MAX_KEYS.toString(), maxKeys())
+                    .add(LogbookKey.KEYS.toString(), KeySymbols.size())
+                    .add(LogbookKey.MAX_MAP_KEYS.toString(), maxMapKeys())
+                    .add(LogbookKey.FOLDED_KEYS.toString(), foldedKeys())
+                    .add(LogbookKey.FOLDED_EVENTS.toString(), foldedEvents())
+                    .warn();
+        }
+    }
+
+    /**
+     * The name a folded key is written with inside {@code extra}.
+     */
+    static String foldedKey(String key) {
+        return KeySymbols.appendClean(new StringBuilder(key.length()), key).toString();
+    }
+
+    static void reset() {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            REGISTERS.set(i, 0);
+        }
+        FOLDED_EVENTS.reset();
+        MAP_KEYS.clear();
+        PENDING_WARNING.set(false);
+        warned = false;
+    }
+
+    private static void fold(String key) {
+        long hash = hash(key);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Long.numberOfLeadingZeros(hash << PRECISION | 1L << (PRECISION - 1)) + 1;
+        int current = REGISTERS.get(index);
+        while (current < rank && !REGISTERS.compareAndSet(index, current, rank)) {
+            current = REGISTERS.get(index);
+        }
+        FOLDED_EVENTS.increment();
+
+        if (shouldWarn()) {
+            PENDING_WARNING.set(true);
+        }
+    }
+
+    private static boolean shouldWarn() {
+        long now = System.nanoTime();
+        long last = LAST_WARNING.get();
+        if (warned && now - last < WARNING_INTERVAL_NANOS || !LAST_WARNING.compareAndSet(last, now)) {
+            return false;
+        }
+        warned = true;
+        return true;
+    }
+
+    /**
+     * FNV-1a over the characters, mixed with the MurmurHash3 finalizer so the high bits are spread.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,161 @@
+package logbook;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns keys as compact int ids with their clean name and default SLF4J key format, so built-in
+ * and repeated keys are sanitized once. Keys defined in code, such as {@link LogbookKey} constants,
+ * redaction rules and generated event keys, are always registered. Keys passed at runtime are
+ * interned only until the table holds {@link #MAX_INTERNED} keys; past it, they get a symbol of
+ * their own per field with id {@link #UNINTERNED}, so keys built from data cannot grow the table
+ * forever. Events still keep their fields as a list of {@link Pair}; only the key is interned.
+ */
+final class KeySymbols {
+    static final int MAX_INTERNED = 4096;
+    static final int UNINTERNED = -1;
+
+    private static final String KEY_FORMAT_SUFFIX = "=\"{}\"";
+    private static final ConcurrentMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile Symbol[] symbols = new Symbol[64];
+    private static volatile int size;
+
+    private KeySymbols() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Registers a key defined in code without a limit.
+     */
+    static int register(String key) {
+        return register(key, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Registers the key unless {@code maxKeys} keys exist already, returns -1 then.
+     */
+    static int register(String key, int maxKeys) {
+        Integer id = IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (size >= maxKeys) {
+            return -1;
+        }
+
+        return registerNew(key, maxKeys);
+    }
+
+    /**
+     * The symbol of a key passed at runtime: the registered one, a new one while the table has
+     * room, or an uninterned symbol once it holds {@link #MAX_INTERNED} keys.
+     */
+    static Symbol intern(String key) {
+        return intern(key, MAX_INTERNED);
+    }
+
+    static Symbol intern(String key, int maxInterned) {
+        int id = register(key, maxInterned);
+        return id >= 0 ? symbols[id] : new Symbol(UNINTERNED, key);
+    }
+
+    /**
+     * The table grows by doubling; a symbol is stored before its id is published through
+     * {@link #IDS} and {@link #size}, so readers never see an empty slot for a known id.
+     */
+    private static synchronized int registerNew(String key, int maxKeys) {
+        Integer id = IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        int next = size;
+        if (next >= maxKeys) {
+            return -1;
+        }
+        Symbol[] current = symbols;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, next * 2);
+            symbols = current;
+        }
+        current[next] = new Symbol(next, key);
+        size = next + 1;
+        IDS.put(key, next);
+        return next;
+    }
+
+    /**
+     * The id of a registered key, or -1 without registering it.
+     */
+    static int find(String key) {
+        Integer id = IDS.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Appends the characters a key keeps in the output: letters, digits, {@code _} and {@code .}.
+     */
+    static StringBuilder appendClean(StringBuilder builder, CharSequence name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '.') {
+                builder.append(c);
+            }
+        }
+        return builder;
+    }
+
+    static int size() {
+        return size;
+    }
+
+    static Symbol symbol(int id) {
+        return symbols[id];
+    }
+
+    static String name(int id) {
+        return symbols[id].name;
+    }
+
+    static String cleanName(int id) {
+        return symbols[id].cleanName;
+    }
+
+    static String defaultKeyFormat(int id) {
+        return symbols[id].defaultKeyFormat;
+    }
+
+    static final class Symbol {
+        private final int id;
+        private final String name;
+        private final String cleanName;
+        private final String defaultKeyFormat;
+
+        private Symbol(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.cleanName = appendClean(new StringBuilder(name.length()), name).toString();
+            this.defaultKeyFormat = cleanName + KEY_FORMAT_SUFFIX;
+        }
+
+        /**
+         * The registered id, or {@link #UNINTERNED}.
+         */
+        int id() {
+            return id;
+        }
+
+        String name() {
+            return name;
+        }
+
+        String cleanName() {
+            return cleanName;
+        }
+
+        String defaultKeyFormat() {
+            return defaultKeyFormat;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package logbook;
+
+import java.util.function.Supplier;
+
+/**
+ * A value computed by its supplier the first time it is rendered. As a logger argument it is
+ * only turned into a string by the logging backend, after the level was checked.
+ */
+final class LazyValue {
+    private final Supplier<?> supplier;
+    private Object value;
+    private boolean evaluated;
+
+    LazyValue(Supplier<?> supplier) {
+        this.supplier = supplier;
+    }
+
+    synchronized Object get() {
+        if (!evaluated) {
+            value = supplier.get();
+            evaluated = true;
+        }
+        return value;
+    }
+
+    Object argument(int key, Redactor redactor) {
+        return new Argument(this, key, redactor);
+    }
+
+    @Override
+    public String toString() {
+        return LogbookValues.toString(get());
+    }
+
+    private static final class Argument {
+        private final LazyValue value;
+        private final int key;
+        private final Redactor redactor;
+        private String rendered;
+
+        private Argument(LazyValue value, int key, Redactor redactor) {
+            this.value = value;
+            this.key = key;
+            this.redactor = redactor;
+        }
+
+        @Override
+        public String toString() {
+            if (rendered == null) {
+                String string = value.toString();
+                rendered = redactor == null ? string : redactor.redact(key, string);
+            }
+            return rendered;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package logbook;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 import java.lang.reflect.Method;
 import java.time.LocalDate;
@@ -10,16 +11,25 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
-
+import java.util.function.Supplier;
 
 public class Logbook {
 
+    /**
+     * Values are dropped with their class, so caching does not keep class loaders alive.
+     */
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<>() {
+        @Override
+        protected Logger computeValue(Class<?> origin) {
+            return LoggerFactory.getLogger(origin);
+        }
+    };
+
     private final Logger logger;
     private final List<Pair> pairs = new ArrayList<>();
     private Throwable exception;
+    private List<Pair> caller;
+    private int callerIndex;
 
     private Logbook(Logger logger) {
         this.logger = logger;
@@ -27,12 +37,12 @@ public class Logbook {
 
 
     public static Logger logger(Class<?> origin) {
-        return LoggerFactory.getLogger(origin);
+        return LOGGERS.get(origin);
     }
 
 
     public static Logbook instance(Class<?> origin) {
-        return new Logbook(LoggerFactory.getLogger(origin));
+        return new Logbook(LOGGERS.get(origin));
     }
 
     public static Logbook instance(Logger logger) {
@@ -44,8 +54,33 @@ public class Logbook {
         return add(key, null, value);
     }
 
+    /**
+     * Adds the value rounded half up to the given number of decimals, e.g. {@code 12.346}.
+     */
+    public Logbook add(String key, double value, int decimals) {
+        return add(key, new FixedDecimal(value, decimals));
+    }
+
+    /**
+     * Adds maps, iterables, arrays and types registered with {@link Flattener} as one field per
+     * leaf, e.g. {@code user.id="42" user.roles.0="admin"}.
+     */
+    public Logbook flatten(String key, Object value) {
+        return add(key, new NestedValue(value));
+    }
+
+    /**
+     * The supplier is called when the event is rendered, at most once, on the thread that
+     * renders it: the logging thread for line sinks, their writer thread when built with
+     * {@code renderOnWriter}, and a subscriber thread for {@link PublisherSink}. Not an overload of {@link #add(String, Object)}, so values that
+     * happen to implement {@link Supplier} are still added as they are.
+     */
+    public Logbook addLazy(String key, Supplier<?> value) {
+        return add(key, value == null ? null : new LazyValue(value));
+    }
+
     private Logbook add(LogbookKey key, Object value) {
-        return add(key.toString(), value);
+        return add(key, null, value);
     }
 
     public Logbook add(String key, String valueFormat, Object... values) {
@@ -54,13 +89,22 @@ public class Logbook {
     }
 
     private Logbook add(LogbookKey key, String valueFormat, Object... values) {
-        return add(key.toString(), valueFormat, values);
+        pairs.add(new Pair(key.id(), valueFormat, values));
+        return this;
     }
 
     public Logbook message(String value) {
         return add(LogbookKey.MESSAGE, value);
     }
 
+    /**
+     * The supplier is called when the event is rendered, at most once. Not an overload of
+     * {@link #message(String)}, so {@code message(null)} stays unambiguous.
+     */
+    public Logbook lazyMessage(Supplier<String> value) {
+        return add(LogbookKey.MESSAGE, value == null ? null : new LazyValue(value));
+    }
+
     public Logbook message(String format, Object... values) {
         return add(LogbookKey.MESSAGE, format, values);
     }
@@ -103,6 +147,13 @@ public class Logbook {
         return add(LogbookKey.DURATION, duration);
     }
 
+    /**
+     * Adds the duration rounded half up to the given number of decimals, e.g. milliseconds with 3.
+     */
+    public Logbook duration(double duration, int decimals) {
+        return add(LogbookKey.DURATION, new FixedDecimal(duration, decimals));
+    }
+
     public Logbook status(String status) {
         return add(LogbookKey.STATUS, status);
     }
@@ -127,6 +178,22 @@ public class Logbook {
         return add(LogbookKey.METHOD, javaMethod == null ? null : javaMethod.getName());
     }
 
+    /**
+     * Adds the class, method and package of the code calling this method. Calling it again on a
+     * reused instance replaces the caller pairs in place instead of adding another set.
+     */
+    public Logbook caller() {
+        List<Pair> captured = CallerCapture.capture();
+        if (caller == null) {
+            callerIndex = pairs.size();
+        } else {
+            pairs.subList(callerIndex, callerIndex + caller.size()).clear();
+        }
+        pairs.addAll(callerIndex, captured);
+        caller = captured;
+        return this;
+    }
+
     public Logbook javaClass(String javaClass) {
         return add(LogbookKey.CLASS, javaClass);
     }
@@ -221,48 +288,129 @@ public class Logbook {
     }
 
     public Logbook info() {
-        logger.info(createStringFormat(), createArgumentsList());
-        return this;
+        return log(Level.INFO);
     }
 
     public Logbook debug() {
-        logger.debug(createStringFormat(), createArgumentsList());
-        return this;
+        return log(Level.DEBUG);
     }
 
     public Logbook error() {
-        logger.error(createStringFormat(), createArgumentsList());
-        return this;
+        return log(Level.ERROR);
     }
 
     public Logbook trace() {
-        logger.trace(createStringFormat(), createArgumentsList());
-        return this;
+        return log(Level.TRACE);
     }
 
     public Logbook warn() {
-        logger.warn(createStringFormat(), createArgumentsList());
+        return log(Level.WARN);
+    }
+
+    private Logbook log(Level level) {
+        log(logger, level, pairs, exception, LogbookSettings.current());
         return this;
     }
 
-    private String createStringFormat() {
-        return pairs.stream()
-                .filter(Pair::isValid)
-                .map(Pair::getKeyFormat)
-                .collect(joining(" "));
+    /**
+     * The pipeline of every event, also used by {@link LogbookEventType}. The settings are the
+     * snapshot read once for the event. A key limit warning raised while the event was built is
+     * logged after it, as an event of its own.
+     */
+    static void log(Logger logger, Level level, List<Pair> pairs, Throwable exception, LogbookSettings settings) {
+        dispatch(logger, level, pairs, exception, settings);
+        KeyGuard.warnIfPending();
     }
 
-    private Object[] createArgumentsList() {
-        List<Object> arguments = pairs.stream()
-                .filter(Pair::isValid)
-                .flatMap(pair -> pair.getStringValues().stream())
-                .collect(toList());
+    private static void dispatch(Logger logger, Level level, List<Pair> pairs, Throwable exception, LogbookSettings settings) {
+        if (settings.callerCapture() && !CallerCapture.hasCaller(pairs)) {
+            pairs = withCaller(pairs);
+        }
 
-        if (exception != null) {
-            arguments.add(exception);
+        if (JfrSink.isEnabled()) {
+            JfrSink.emit(logger, level, pairs, settings);
         }
 
-        return arguments.toArray();
+        Level written = level;
+        RequestBuffer requests = RequestBuffer.active();
+        if (requests != null) {
+            written = requests.handle(logger, level, pairs, exception);
+            if (written == null) {
+                return;
+            }
+        }
+
+        FlightRecorder recorder = FlightRecorder.active();
+        if (recorder != null) {
+            if (recorder.captures(written) && !LogbookSinks.isEnabled(logger, written)) {
+                recorder.record(logger, written, pairs, exception);
+                return;
+            }
+
+            if (written == Level.ERROR) {
+                recorder.dumpCurrentThread(Level.ERROR);
+            }
+        }
+
+        LogbookSinks.write(logger, written, pairs, exception, settings);
+    }
+
+    /**
+     * A copy of the pairs with the caller pairs appended, so a reused builder keeps its own
+     * pairs and reports the call site of every event.
+     */
+    private static List<Pair> withCaller(List<Pair> pairs) {
+        List<Pair> caller = CallerCapture.capture();
+        List<Pair> event = new ArrayList<>(pairs.size() + caller.size());
+        event.addAll(pairs);
+        event.addAll(caller);
+        return event;
+    }
+
+    /**
+     * Appends the SLF4J format of the pairs and their arguments in one pass, so flattened values
+     * are walked once. Value formats and their arguments are handed to SLF4J as they are; only a
+     * key folded into {@code extra} is rendered here, since its name is part of the value.
+     */
+    static void appendMessage(List<Pair> pairs, Throwable exception, LogbookSettings settings, StringBuilder format, List<Object> arguments) {
+        Redactor redactor = settings.redactor();
+        for (Pair pair : pairs) {
+            if (!pair.isValid()) {
+                continue;
+            }
+
+            Object value = pair.isPrimitive() ? null : pair.getValue();
+            if (value instanceof NestedValue) {
+                ((NestedValue) value).appendMessage(format, arguments, pair.getSymbol(), settings);
+                continue;
+            }
+
+            if (format.length() > 0) {
+                format.append(' ');
+            }
+            if (pair.getFoldedKey() != null) {
+                String keyFormat = pair.getSymbol().defaultKeyFormat();
+                format.append(redactor == null ? keyFormat : redactor.redact(keyFormat));
+                arguments.add(LogbookRecord.render(pair, settings));
+            } else {
+                format.append(redactor == null ? pair.getKeyFormat() : redactor.redact(pair.getKeyFormat()));
+                if (value instanceof LazyValue) {
+                    arguments.add(((LazyValue) value).argument(pair.getKey(), redactor));
+                } else {
+                    arguments.addAll(redactor == null ? pair.getStringValues() : redactor.redact(pair));
+                }
+            }
+        }
+
+        if (exception != null) {
+            ExceptionRenderer renderer = settings.exceptionRenderer();
+            if (renderer == null) {
+                arguments.add(exception);
+            } else {
+                format.append("\n{}");
+                arguments.add(renderer.render(exception));
+            }
+        }
     }
 
     public Logbook day() {
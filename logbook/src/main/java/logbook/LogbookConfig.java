@@ -0,0 +1,247 @@
+package logbook;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads {@link LogbookSettings} from a properties file and, with {@link #watch(Path)}, reloads them
+ * on a background thread whenever the file changes. The file describes the complete settings, so
+ * a reload also replaces what was set in code. A file that cannot be read or parsed leaves the
+ * current settings in place and is counted in {@link #errors()}, with the last failure kept in
+ * {@link #lastError()}.
+ * <pre>
+ * redaction.keys=password,token
+ * redaction.cards=true
+ * redaction.emails=true
+ * redaction.bearerTokens=true
+ * redaction.replacement=***
+ * caller.enabled=false
+ * flatten.maxDepth=4
+ * flatten.maxFields=64
+ * keys.max=1000
+ * keys.maxMapKeys=1000
+ * exceptions.exclude=org.springframework.,jdk.internal.
+ * exceptions.maxFrames=20
+ * exceptions.maxCauses=5
+ * </pre>
+ */
+public final class LogbookConfig implements AutoCloseable {
+    static final String REDACTION_KEYS = "redaction.keys";
+    static final String REDACTION_CARDS = "redaction.cards";
+    static final String REDACTION_EMAILS = "redaction.emails";
+    static final String REDACTION_BEARER_TOKENS = "redaction.bearerTokens";
+    static final String REDACTION_REPLACEMENT = "redaction.replacement";
+    static final String CALLER_ENABLED = "caller.enabled";
+    static final String FLATTEN_MAX_DEPTH = "flatten.maxDepth";
+    static final String FLATTEN_MAX_FIELDS = "flatten.maxFields";
+    static final String KEYS_MAX = "keys.max";
+    static final String KEYS_MAX_MAP_KEYS = "keys.maxMapKeys";
+    static final String EXCEPTIONS_EXCLUDE = "exceptions.exclude";
+    static final String EXCEPTIONS_MAX_FRAMES = "exceptions.maxFrames";
+    static final String EXCEPTIONS_MAX_CAUSES = "exceptions.maxCauses";
+    /** Editors often truncate and then write, so events are collected until the file is quiet. */
+    static final long SETTLE_MILLIS = 50;
+
+    private final Path file;
+    private final WatchService watcher;
+    private final Thread thread;
+    private final AtomicLong errors = new AtomicLong();
+    private volatile Exception lastError;
+
+    private LogbookConfig(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watchLoop, "logbook-config-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Applies the file now and again after every change until closed.
+     */
+    public static LogbookConfig watch(Path file) throws IOException {
+        LogbookConfig config = new LogbookConfig(file);
+        config.reload();
+        config.thread.start();
+        return config;
+    }
+
+    /**
+     * Applies the file once.
+     */
+    public static LogbookSettings load(Path file) throws IOException {
+        LogbookSettings settings = parse(read(file));
+        LogbookSettings.apply(settings);
+        return settings;
+    }
+
+    /**
+     * Reads the file and swaps in its settings; returns false and keeps the current settings on errors.
+     */
+    public boolean reload() {
+        try {
+            load(file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            error(e);
+            return false;
+        }
+    }
+
+    /**
+     * Failures to load the file or to close the watcher.
+     */
+    public long errors() {
+        return errors.get();
+    }
+
+    /**
+     * The last failure counted in {@link #errors()}, or null.
+     */
+    public Exception lastError() {
+        return lastError;
+    }
+
+    private void error(Exception e) {
+        lastError = e;
+        errors.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            error(e);
+        }
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static LogbookSettings parse(Properties properties) {
+        LogbookSettings.Builder builder = LogbookSettings.builder()
+                .callerCapture(bool(properties, CALLER_ENABLED))
+                .flattenLimits(
+                        integer(properties, FLATTEN_MAX_DEPTH, Flattener.DEFAULT_MAX_DEPTH),
+                        integer(properties, FLATTEN_MAX_FIELDS, Flattener.DEFAULT_MAX_FIELDS))
+                .maxKeys(integer(properties, KEYS_MAX, KeyGuard.DEFAULT_MAX_KEYS))
+                .maxMapKeys(integer(properties, KEYS_MAX_MAP_KEYS, KeyGuard.DEFAULT_MAX_MAP_KEYS));
+
+        Redactor.Builder redactor = Redactor.builder();
+        boolean redacts = false;
+        for (String key : properties.getProperty(REDACTION_KEYS, "").split(",")) {
+            if (!key.isBlank()) {
+                redactor.key(key.trim());
+                redacts = true;
+            }
+        }
+        if (bool(properties, REDACTION_CARDS)) {
+            redactor.cards();
+            redacts = true;
+        }
+        if (bool(properties, REDACTION_EMAILS)) {
+            redactor.emails();
+            redacts = true;
+        }
+        if (bool(properties, REDACTION_BEARER_TOKENS)) {
+            redactor.bearerTokens();
+            redacts = true;
+        }
+        redactor.replacement(properties.getProperty(REDACTION_REPLACEMENT, Redactor.DEFAULT_REPLACEMENT));
+
+        ExceptionRenderer.Builder renderer = ExceptionRenderer.builder();
+        boolean renders = false;
+        for (String prefix : properties.getProperty(EXCEPTIONS_EXCLUDE, "").split(",")) {
+            if (!prefix.isBlank()) {
+                renderer.exclude(prefix.trim());
+                renders = true;
+            }
+        }
+        if (properties.containsKey(EXCEPTIONS_MAX_FRAMES)) {
+            renderer.maxFrames(integer(properties, EXCEPTIONS_MAX_FRAMES, Integer.MAX_VALUE));
+            renders = true;
+        }
+        if (properties.containsKey(EXCEPTIONS_MAX_CAUSES)) {
+            renderer.maxCauses(integer(properties, EXCEPTIONS_MAX_CAUSES, Integer.MAX_VALUE));
+            renders = true;
+        }
+
+        return builder
+                .redactor(redacts ? redactor.build() : null)
+                .exceptionRenderer(renders ? renderer.build() : null)
+                .build();
+    }
+
+    private static Properties read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static boolean bool(Properties properties, String key) {
+        String value = properties.getProperty(key, "false").trim();
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException(key + " must be true or false, was " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static int integer(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number, was " + value, e);
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            boolean changed;
+            try {
+                WatchKey key = watcher.take();
+                changed = changed(key);
+                while ((key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= changed(key);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (changed) {
+                reload();
+            }
+        }
+    }
+
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
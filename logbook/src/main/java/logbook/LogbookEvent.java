@@ -0,0 +1,23 @@
+package logbook;
+
+import org.slf4j.event.Level;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface whose void methods are typed log events. The logbook processor
+ * generates a {@code Logbook<InterfaceName>} implementation that logs every parameter
+ * as {@code parameterName="value"}. Placed on a method it overrides the interface values.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface LogbookEvent {
+    Level level() default Level.INFO;
+
+    String message() default "";
+}
@@ -0,0 +1,122 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The keys of one {@link LogbookEvent} method, registered once by the generated class. Events go
+ * through the same pipeline as {@link Logbook} calls, with redaction, sinks, recorders and key
+ * limits; only while none of them is active can the generated class call SLF4J directly with its
+ * precomputed format.
+ */
+public final class LogbookEventType {
+    private final Class<?> generated;
+    private final String[] names;
+    private final int[] keys;
+    private final boolean folded;
+
+    private LogbookEventType(Class<?> generated, String[] names) {
+        this.generated = generated;
+        this.names = names.clone();
+        this.keys = new int[names.length];
+        boolean anyFolded = false;
+        for (int i = 0; i < names.length; i++) {
+            int id = KeySymbols.find(names[i]);
+            keys[i] = id >= 0 ? id : KeySymbols.register(names[i], KeyGuard.maxKeys());
+            anyFolded |= keys[i] < 0;
+        }
+        this.folded = anyFolded;
+    }
+
+    /**
+     * The keys of an event method of the generated class, in parameter order.
+     */
+    public static LogbookEventType of(Class<?> generated, String... keys) {
+        return new LogbookEventType(generated, keys);
+    }
+
+    /**
+     * True when an event at the level is written by a sink or kept by a recorder or request buffer.
+     */
+    public static boolean isEnabled(Logger logger, Level level) {
+        if (LogbookSinks.isEnabled(logger, level) || JfrSink.isEnabled() || RequestBuffer.active() != null) {
+            return true;
+        }
+        FlightRecorder recorder = FlightRecorder.active();
+        return recorder != null && recorder.captures(level);
+    }
+
+    /**
+     * True when logging straight through SLF4J with the precomputed format writes the same line
+     * as {@link #log(Logger, Level, Object...)}.
+     */
+    public boolean isDirect() {
+        LogbookSettings settings = LogbookSettings.current();
+        return !folded
+                && !LogbookSinks.isInstalled()
+                && settings.redactor() == null
+                && !settings.callerCapture()
+                && !JfrSink.isEnabled()
+                && RequestBuffer.active() == null
+                && FlightRecorder.active() == null;
+    }
+
+    /**
+     * Logs the values, one per key, through the Logbook pipeline.
+     */
+    public void log(Logger logger, Level level, Object... values) {
+        Values event = values();
+        for (int i = 0; i < keys.length; i++) {
+            event.add(i, values[i]);
+        }
+        event.log(logger, level);
+    }
+
+    /**
+     * Starts an event whose values are added by key index, so primitives are kept unboxed.
+     */
+    public Values values() {
+        return new Values();
+    }
+
+    /**
+     * The values of one event; every key is added once, by its index in {@link #of(Class, String...)}.
+     */
+    public final class Values {
+        private final List<Pair> pairs = new ArrayList<>(keys.length + 3);
+
+        private Values() {
+        }
+
+        public Values add(int key, Object value) {
+            Object[] values = {value};
+            pairs.add(keys[key] >= 0 ? new Pair(keys[key], null, values) : new Pair(names[key], null, values));
+            return this;
+        }
+
+        public Values add(int key, int value) {
+            return add(key, (long) value);
+        }
+
+        public Values add(int key, long value) {
+            pairs.add(keys[key] >= 0 ? new Pair(keys[key], value) : new Pair(names[key], null, new Object[]{value}));
+            return this;
+        }
+
+        public Values add(int key, double value) {
+            pairs.add(keys[key] >= 0 ? new Pair(keys[key], value) : new Pair(names[key], null, new Object[]{value}));
+            return this;
+        }
+
+        public void log(Logger logger, Level level) {
+            LogbookSettings settings = LogbookSettings.current();
+            if (settings.callerCapture()) {
+                pairs.addAll(CallerCapture.capture(generated));
+            }
+            Logbook.log(logger, level, pairs, null, settings);
+        }
+    }
+}
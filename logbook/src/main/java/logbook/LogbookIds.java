@@ -0,0 +1,45 @@
+package logbook;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time ordered 128 bit ids for {@code track}, {@code request}, {@code session} and {@code transaction}.
+ * They use the UUID version 7 layout: 48 bits of epoch milliseconds followed by 74 random bits from
+ * {@link ThreadLocalRandom}, which, unlike {@link UUID#randomUUID()}, does not contend on a shared
+ * {@code SecureRandom}. They are not meant to be unguessable.
+ */
+public final class LogbookIds {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private LogbookIds() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = System.currentTimeMillis() << 16 | 0x7000L | random.nextInt() & 0x0fffL;
+        long leastSignificantBits = random.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Appends the same text as {@link UUID#toString()} without creating a string.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, UUID id) {
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        appendHex(builder, most >>> 32, 8).append('-');
+        appendHex(builder, most >>> 16, 4).append('-');
+        appendHex(builder, most, 4).append('-');
+        appendHex(builder, least >>> 48, 4).append('-');
+        return appendHex(builder, least, 12);
+    }
+
+    private static StringBuilder appendHex(StringBuilder builder, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            builder.append(HEX[(int) (value >>> shift) & 0xf]);
+        }
+        return builder;
+    }
+}
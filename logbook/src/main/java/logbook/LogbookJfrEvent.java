@@ -0,0 +1,107 @@
+package logbook;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import org.slf4j.event.Level;
+
+import java.util.Set;
+
+@Name(LogbookJfrEvent.NAME)
+@Label("Logbook Event")
+@Category("Logbook")
+@Description("Event written with Logbook")
+@StackTrace(false)
+final class LogbookJfrEvent extends jdk.jfr.Event {
+    static final String NAME = "logbook.Event";
+
+    @Label("Logger")
+    String logger;
+
+    @Label("Level")
+    String level;
+
+    @Label("Message")
+    String message;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Service")
+    String service;
+
+    @Label("Request")
+    String request;
+
+    @Label("Duration")
+    @Description("Value of the duration key, named apart from the duration of the JFR event")
+    double durationValue = Double.NaN;
+
+    @Label("HTTP Status")
+    int httpStatus;
+
+    @Label("Fields")
+    @Description("Other keys in logbook format")
+    String fields;
+
+    /**
+     * Read by the {@code minimumLevel} setting; transient, so it is not recorded.
+     */
+    transient int levelValue;
+
+    @Label("Minimum Level")
+    @Description("Lowest level recorded, e.g. logbook.Event#minimumLevel=WARN")
+    @Name("minimumLevel")
+    @SettingDefinition
+    boolean minimumLevel(MinimumLevelSetting setting) {
+        return levelValue >= setting.minimum;
+    }
+
+    /**
+     * Several recordings keep the lowest level any of them asks for; unknown names record all levels.
+     */
+    public static final class MinimumLevelSetting extends SettingControl {
+        private volatile int minimum = Level.TRACE.toInt();
+        private volatile String value = Level.TRACE.name();
+
+        @Override
+        public String combine(Set<String> values) {
+            Level lowest = null;
+            for (String candidate : values) {
+                Level level = level(candidate);
+                if (level == null) {
+                    return Level.TRACE.name();
+                }
+                if (lowest == null || level.toInt() < lowest.toInt()) {
+                    lowest = level;
+                }
+            }
+            return lowest == null ? Level.TRACE.name() : lowest.name();
+        }
+
+        @Override
+        public void setValue(String value) {
+            Level level = level(value);
+            this.minimum = level == null ? Level.TRACE.toInt() : level.toInt();
+            this.value = level == null ? Level.TRACE.name() : level.name();
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        private static Level level(String name) {
+            for (Level level : Level.values()) {
+                if (level.name().equalsIgnoreCase(name.trim())) {
+                    return level;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -33,12 +33,26 @@ enum LogbookKey {
     YEAR("year"),
     TIME("time"),
     DATE_TIME("dateTime"),
-    TIME_ZONE("timeZone");
+    TIME_ZONE("timeZone"),
+    RECORDED_LEVEL("recordedLevel"),
+    RECORDED_TIME("recordedTime"),
+    EXTRA("extra"),
+    MAX_KEYS("maxKeys"),
+    KEYS("keys"),
+    MAX_MAP_KEYS("maxMapKeys"),
+    FOLDED_KEYS("foldedKeys"),
+    FOLDED_EVENTS("foldedEvents");
 
     private final String toStringKey;
+    private final int id;
 
     LogbookKey(String toStringKey) {
         this.toStringKey = toStringKey;
+        this.id = KeySymbols.register(toStringKey);
+    }
+
+    int id() {
+        return id;
     }
 
     @Override
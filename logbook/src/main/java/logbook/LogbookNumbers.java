@@ -0,0 +1,125 @@
+package logbook;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes numbers straight into a {@link StringBuilder}. Doubles get the shortest decimal that
+ * parses back to the same value, in the plain notation {@link Double#toString(double)} uses between
+ * {@code 1e-3} and {@code 1e7}; other magnitudes fall back to {@link StringBuilder#append(double)}.
+ * Fixed precision rounds half up from the exact binary value, like {@link BigDecimal#setScale}.
+ */
+public final class LogbookNumbers {
+    public static final int MAX_DECIMALS = 9;
+
+    private static final double FAST_MIN = 1e-3;
+    private static final double FAST_MAX = 1e7;
+    private static final long EXACT_LIMIT = 1L << 53;
+    private static final long[] POWERS = new long[18];
+    private static final double[] DOUBLE_POWERS = new double[18];
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS.length; i++) {
+            POWERS[i] = power;
+            DOUBLE_POWERS[i] = power;
+            power *= 10;
+        }
+    }
+
+    private LogbookNumbers() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static StringBuilder appendTo(StringBuilder builder, long value) {
+        return builder.append(value);
+    }
+
+    /**
+     * Appends the shortest decimal that round-trips through {@link Double#parseDouble(String)}.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, double value) {
+        if (value == 0) {
+            return builder.append(1 / value < 0 ? "-0.0" : "0.0");
+        }
+
+        double magnitude = Math.abs(value);
+        if (!(magnitude >= FAST_MIN && magnitude < FAST_MAX)) {
+            return builder.append(value);
+        }
+
+        // m / 10^k is correctly rounded while both are exact doubles, so it equals the parsed text
+        for (int decimals = 0; decimals < POWERS.length; decimals++) {
+            double scaled = magnitude * DOUBLE_POWERS[decimals];
+            if (scaled >= EXACT_LIMIT) {
+                break;
+            }
+            long digits = Math.round(scaled);
+            if (digits / DOUBLE_POWERS[decimals] == magnitude) {
+                if (value < 0) {
+                    builder.append('-');
+                }
+                return appendDecimal(builder, digits, decimals, decimals == 0);
+            }
+        }
+        return builder.append(value);
+    }
+
+    /**
+     * Appends the value rounded half up to the given number of decimals, e.g. {@code 12.346} for
+     * {@code 12.3456} and 3 decimals. No decimal point is written for 0 decimals.
+     */
+    public static StringBuilder appendFixed(StringBuilder builder, double value, int decimals) {
+        checkDecimals(decimals);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return builder.append(value);
+        }
+
+        double scaled = Math.abs(value) * DOUBLE_POWERS[decimals];
+        if (scaled < EXACT_LIMIT) {
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            // the product is off by at most half an ulp, so only near-ties need the exact value
+            if (Math.abs(fraction - 0.5) > Math.ulp(scaled)) {
+                long digits = (long) floor + (fraction > 0.5 ? 1 : 0);
+                if (value < 0 && digits != 0) {
+                    builder.append('-');
+                }
+                return decimals == 0 ? builder.append(digits) : appendDecimal(builder, digits, decimals, false);
+            }
+        }
+        return builder.append(new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+    }
+
+    public static String toString(double value) {
+        return appendTo(new StringBuilder(24), value).toString();
+    }
+
+    public static String toFixedString(double value, int decimals) {
+        return appendFixed(new StringBuilder(24), value, decimals).toString();
+    }
+
+    static void checkDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS);
+        }
+    }
+
+    /**
+     * Appends {@code digits / 10^decimals} with exactly {@code decimals} fraction digits,
+     * or with {@code .0} when {@code integral} is set.
+     */
+    private static StringBuilder appendDecimal(StringBuilder builder, long digits, int decimals, boolean integral) {
+        if (integral) {
+            return builder.append(digits).append(".0");
+        }
+
+        long power = POWERS[decimals];
+        builder.append(digits / power).append('.');
+        long fraction = digits % power;
+        for (long limit = power / 10; limit > fraction && limit > 1; limit /= 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+}
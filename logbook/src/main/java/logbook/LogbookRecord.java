@@ -0,0 +1,231 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * An event handed to a {@link LogbookSink}. Values are rendered, cleaned and redacted the
+ * first time they are read, so sinks that only need some fields do not pay for the others.
+ * Records can be read from several threads; a value read concurrently may be rendered twice.
+ */
+public final class LogbookRecord {
+    private final Logger logger;
+    private final Level level;
+    private final long timestamp;
+    private final String thread;
+    private final List<Pair> pairs;
+    private final Throwable exception;
+    private final String[] values;
+    private final LogbookSettings settings;
+
+    LogbookRecord(Logger logger, Level level, List<Pair> pairs, Throwable exception) {
+        this(logger, level, pairs, exception, LogbookSettings.current());
+    }
+
+    LogbookRecord(Logger logger, Level level, List<Pair> pairs, Throwable exception, LogbookSettings settings) {
+        this.logger = logger;
+        this.level = level;
+        this.timestamp = System.currentTimeMillis();
+        this.thread = Thread.currentThread().getName();
+        this.exception = exception;
+
+        List<Pair> valid = new ArrayList<>(pairs.size());
+        for (Pair pair : pairs) {
+            if (pair.isValid()) {
+                valid.add(pair);
+            }
+        }
+        this.pairs = valid;
+        this.values = new String[valid.size()];
+        this.settings = settings;
+    }
+
+    public Logger logger() {
+        return logger;
+    }
+
+    public String loggerName() {
+        return logger.getName();
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public String thread() {
+        return thread;
+    }
+
+    public Throwable exception() {
+        return exception;
+    }
+
+    /**
+     * Appends the stack trace of the exception with the installed {@link ExceptionRenderer}, or
+     * every frame without one.
+     */
+    public StringBuilder appendStackTrace(StringBuilder builder) {
+        if (exception == null) {
+            return builder;
+        }
+        ExceptionRenderer renderer = settings.exceptionRenderer();
+        return (renderer == null ? ExceptionRenderer.FULL : renderer).appendTo(builder, exception);
+    }
+
+    public int size() {
+        return pairs.size();
+    }
+
+    public String key(int index) {
+        return pairs.get(index).getSymbol().cleanName();
+    }
+
+    /**
+     * The rendered value; for a {@link Logbook#flatten(String, Object) flattened} value its
+     * {@code key.path="value"} fields.
+     */
+    public String value(int index) {
+        if (values[index] == null) {
+            values[index] = render(pairs.get(index), settings);
+        }
+        return values[index];
+    }
+
+    /**
+     * Appends the fields in logbook format, {@code key="value"} separated by spaces.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        int start = builder.length();
+        for (int i = 0; i < pairs.size(); i++) {
+            if (builder.length() > start) {
+                builder.append(' ');
+            }
+            Pair pair = pairs.get(i);
+            Object value = pair.isPrimitive() ? null : pair.getValue();
+            if (value instanceof NestedValue) {
+                appendNested(builder, start, i, (NestedValue) value);
+                continue;
+            }
+
+            builder.append(key(i)).append("=\"");
+            if (pair.isPrimitive() && isPlain(i)) {
+                appendPrimitive(builder, pair);
+            } else if (isPlain(i)) {
+                appendPlain(builder, value);
+            } else {
+                builder.append(value(i));
+            }
+            builder.append('"');
+        }
+        return builder;
+    }
+
+    private void appendNested(StringBuilder builder, int start, int index, NestedValue value) {
+        int mark = builder.length();
+        if (values[index] != null) {
+            builder.append(values[index]);
+        } else {
+            value.appendFields(builder, pairs.get(index).getSymbol(), settings);
+        }
+        if (builder.length() == mark && mark > start) {
+            builder.setLength(mark - 1);
+        }
+    }
+
+    /**
+     * An id or number value that is neither rendered yet nor subject to redaction can be written as is.
+     */
+    private boolean isPlain(int index) {
+        Pair pair = pairs.get(index);
+        Object value = pair.isPrimitive() ? null : pair.getValue();
+        return (pair.isPrimitive() || value instanceof UUID || value instanceof Double || value instanceof FixedDecimal || isIntegral(value))
+                && "{}".equals(pair.getValueFormat())
+                && pair.getFoldedKey() == null
+                && values[index] == null
+                && settings.redactor() == null;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static void appendPrimitive(StringBuilder builder, Pair pair) {
+        if (pair.isDouble()) {
+            LogbookNumbers.appendTo(builder, pair.doubleValue());
+        } else {
+            LogbookNumbers.appendTo(builder, pair.longValue());
+        }
+    }
+
+    private static void appendPlain(StringBuilder builder, Object value) {
+        if (value instanceof UUID) {
+            LogbookIds.appendTo(builder, (UUID) value);
+        } else if (value instanceof Double) {
+            LogbookNumbers.appendTo(builder, (double) (Double) value);
+        } else if (value instanceof FixedDecimal) {
+            ((FixedDecimal) value).appendTo(builder);
+        } else {
+            LogbookNumbers.appendTo(builder, ((Number) value).longValue());
+        }
+    }
+
+    /**
+     * Hands the field at the index to {@code fields}, or one field per leaf of a flattened value.
+     */
+    void fields(int index, BiConsumer<String, String> fields) {
+        Pair pair = pairs.get(index);
+        if (!pair.isPrimitive() && pair.getValue() instanceof NestedValue) {
+            ((NestedValue) pair.getValue()).fields(pair.getSymbol(), settings, fields);
+        } else {
+            fields.accept(key(index), value(index));
+        }
+    }
+
+    List<Pair> pairs() {
+        return pairs;
+    }
+
+    LogbookSettings settings() {
+        return settings;
+    }
+
+    static String render(Pair pair, LogbookSettings settings) {
+        if (!pair.isPrimitive() && pair.getValue() instanceof NestedValue) {
+            return ((NestedValue) pair.getValue()).appendFields(new StringBuilder(), pair.getSymbol(), settings).toString();
+        }
+
+        Redactor redactor = settings.redactor();
+        List<String> values = redactor == null ? pair.getStringValues() : redactor.redact(pair);
+        String rendered;
+        if (values.size() == 1 && "{}".equals(pair.getValueFormat())) {
+            rendered = values.get(0);
+        } else {
+            String format = redactor == null ? pair.getValueFormat() : redactor.redact(pair.getValueFormat());
+            rendered = MessageTemplate.of(format).render(values);
+        }
+        return pair.getFoldedKey() == null ? rendered : unfold(pair.getFoldedKey(), rendered, redactor);
+    }
+
+    /**
+     * A field folded into {@code extra} keeps its original format, so its template is shared with
+     * every other key; the key is written in front of the value instead. Dynamic keys may hold
+     * user data, so the key is redacted like a value.
+     */
+    private static String unfold(String key, String value, Redactor redactor) {
+        String redacted = redactor == null ? key : redactor.redact(key);
+        return new StringBuilder(redacted.length() + 1 + value.length())
+                .append(redacted)
+                .append('=')
+                .append(value)
+                .toString();
+    }
+}
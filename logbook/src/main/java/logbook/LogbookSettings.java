@@ -0,0 +1,161 @@
+package logbook;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The runtime settings of Logbook as one immutable snapshot. Logging threads read the current
+ * snapshot with a single volatile read when the event is logged and hand it down to the sinks;
+ * only registering a new key reads the key limit on its own. Changes, whether from
+ * {@link Redactor#install(Redactor)}, {@link CallerCapture#enable()}, {@link Flattener#limits(int, int)},
+ * {@link KeyGuard#maxKeys(int)}, {@link KeyGuard#maxMapKeys(int)},
+ * {@link ExceptionRenderer#install(ExceptionRenderer)} or a {@link LogbookConfig} reload, swap in a new snapshot.
+ */
+public final class LogbookSettings {
+    public static final LogbookSettings DEFAULTS = builder().build();
+
+    private static final AtomicReference<LogbookSettings> CURRENT = new AtomicReference<>(DEFAULTS);
+
+    private final Redactor redactor;
+    private final boolean callerCapture;
+    private final int flattenMaxDepth;
+    private final int flattenMaxFields;
+    private final int maxKeys;
+    private final int maxMapKeys;
+    private final ExceptionRenderer exceptionRenderer;
+
+    private LogbookSettings(Builder builder) {
+        this.redactor = builder.redactor;
+        this.callerCapture = builder.callerCapture;
+        this.flattenMaxDepth = builder.flattenMaxDepth;
+        this.flattenMaxFields = builder.flattenMaxFields;
+        this.maxKeys = builder.maxKeys;
+        this.maxMapKeys = builder.maxMapKeys;
+        this.exceptionRenderer = builder.exceptionRenderer;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static LogbookSettings current() {
+        return CURRENT.get();
+    }
+
+    public static void apply(LogbookSettings settings) {
+        CURRENT.set(settings);
+    }
+
+    static void update(UnaryOperator<Builder> change) {
+        CURRENT.updateAndGet(settings -> change.apply(settings.toBuilder()).build());
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .redactor(redactor)
+                .callerCapture(callerCapture)
+                .flattenLimits(flattenMaxDepth, flattenMaxFields)
+                .maxKeys(maxKeys)
+                .maxMapKeys(maxMapKeys)
+                .exceptionRenderer(exceptionRenderer);
+    }
+
+    /**
+     * The redactor applied to every value, or null.
+     */
+    public Redactor redactor() {
+        return redactor;
+    }
+
+    public boolean callerCapture() {
+        return callerCapture;
+    }
+
+    public int flattenMaxDepth() {
+        return flattenMaxDepth;
+    }
+
+    public int flattenMaxFields() {
+        return flattenMaxFields;
+    }
+
+    /**
+     * Distinct keys kept before {@link KeyGuard} folds new ones into {@code extra},
+     * {@link KeyGuard#UNLIMITED} by default.
+     */
+    public int maxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * Distinct map keys of flattened values kept before {@link KeyGuard} folds new ones,
+     * {@link KeyGuard#UNLIMITED} by default.
+     */
+    public int maxMapKeys() {
+        return maxMapKeys;
+    }
+
+    /**
+     * The renderer of stack traces, or null to pass exceptions to SLF4J and write every frame.
+     */
+    public ExceptionRenderer exceptionRenderer() {
+        return exceptionRenderer;
+    }
+
+    public static final class Builder {
+        private Redactor redactor;
+        private boolean callerCapture;
+        private int flattenMaxDepth = Flattener.DEFAULT_MAX_DEPTH;
+        private int flattenMaxFields = Flattener.DEFAULT_MAX_FIELDS;
+        private int maxKeys = KeyGuard.DEFAULT_MAX_KEYS;
+        private int maxMapKeys = KeyGuard.DEFAULT_MAX_MAP_KEYS;
+        private ExceptionRenderer exceptionRenderer;
+
+        private Builder() {
+        }
+
+        public Builder redactor(Redactor redactor) {
+            this.redactor = redactor;
+            return this;
+        }
+
+        public Builder callerCapture(boolean callerCapture) {
+            this.callerCapture = callerCapture;
+            return this;
+        }
+
+        public Builder flattenLimits(int maxDepth, int maxFields) {
+            if (maxDepth < 1 || maxFields < 1) {
+                throw new IllegalArgumentException("Limits must be positive");
+            }
+            this.flattenMaxDepth = maxDepth;
+            this.flattenMaxFields = maxFields;
+            return this;
+        }
+
+        public Builder maxKeys(int maxKeys) {
+            if (maxKeys < 1) {
+                throw new IllegalArgumentException("Max keys must be positive");
+            }
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        public Builder maxMapKeys(int maxMapKeys) {
+            if (maxMapKeys < 1) {
+                throw new IllegalArgumentException("Max map keys must be positive");
+            }
+            this.maxMapKeys = maxMapKeys;
+            return this;
+        }
+
+        public Builder exceptionRenderer(ExceptionRenderer exceptionRenderer) {
+            this.exceptionRenderer = exceptionRenderer;
+            return this;
+        }
+
+        public LogbookSettings build() {
+            return new LogbookSettings(this);
+        }
+    }
+}
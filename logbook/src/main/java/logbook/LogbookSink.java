@@ -0,0 +1,25 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Receives Logbook events once installed with {@link LogbookSinks#install(LogbookSink...)}.
+ * Implementations must be thread safe; {@link #write(LogbookRecord)} is called on the logging thread.
+ */
+public interface LogbookSink extends AutoCloseable {
+
+    /**
+     * Checked before a record is created. {@code logger} is the logger the event was written with.
+     */
+    boolean isEnabled(Logger logger, Level level);
+
+    void write(LogbookRecord record);
+
+    default void flush() {
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,84 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.List;
+
+/**
+ * The sinks every event is written to. Without installed sinks events go to their SLF4J logger.
+ */
+public final class LogbookSinks {
+    private static volatile LogbookSink[] sinks;
+
+    private LogbookSinks() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void install(LogbookSink... sinks) {
+        if (sinks.length == 0) {
+            throw new IllegalArgumentException("At least one sink is required");
+        }
+
+        LogbookSinks.sinks = sinks.clone();
+    }
+
+    /**
+     * Goes back to SLF4J, flushing and closing the installed sinks.
+     */
+    public static void uninstall() {
+        LogbookSink[] installed = sinks;
+        sinks = null;
+        if (installed != null) {
+            for (LogbookSink sink : installed) {
+                sink.flush();
+                sink.close();
+            }
+        }
+    }
+
+    public static void flush() {
+        LogbookSink[] installed = sinks;
+        if (installed != null) {
+            for (LogbookSink sink : installed) {
+                sink.flush();
+            }
+        }
+    }
+
+    static boolean isInstalled() {
+        return sinks != null;
+    }
+
+    static boolean isEnabled(Logger logger, Level level) {
+        LogbookSink[] installed = sinks;
+        if (installed == null) {
+            return LoggerLevels.isEnabled(logger, level);
+        }
+
+        for (LogbookSink sink : installed) {
+            if (sink.isEnabled(logger, level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void write(Logger logger, Level level, List<Pair> pairs, Throwable exception, LogbookSettings settings) {
+        LogbookSink[] installed = sinks;
+        if (installed == null) {
+            Slf4jSink.write(logger, level, pairs, exception, settings);
+            return;
+        }
+
+        LogbookRecord record = null;
+        for (LogbookSink sink : installed) {
+            if (sink.isEnabled(logger, level)) {
+                if (record == null) {
+                    record = new LogbookRecord(logger, level, pairs, exception, settings);
+                }
+                sink.write(record);
+            }
+        }
+    }
+}
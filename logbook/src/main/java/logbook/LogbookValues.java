@@ -0,0 +1,60 @@
+package logbook;
+
+import java.util.Arrays;
+
+/**
+ * Renders values as written to SLF4J and by redaction; doubles go through {@link LogbookNumbers}
+ * like on the sink path.
+ */
+public final class LogbookValues {
+    private static final String NULL = "null";
+
+    private LogbookValues() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static String toString(Object value) {
+        return clean(valueToString(value));
+    }
+
+    public static String clean(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        return value.replace("'", "")
+                .replace("\"", "")
+                .replace("\n", " ")
+                .trim();
+    }
+
+    private static String valueToString(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        if (value instanceof Double) {
+            return LogbookNumbers.toString((double) (Double) value);
+        } else if (value instanceof Object[]) {
+            return Arrays.toString((Object[]) value);
+        } else if (value instanceof int[]) {
+            return Arrays.toString((int[]) value);
+        } else if (value instanceof double[]) {
+            return Arrays.toString((double[]) value);
+        } else if (value instanceof long[]) {
+            return Arrays.toString((long[]) value);
+        } else if (value instanceof boolean[]) {
+            return Arrays.toString((boolean[]) value);
+        } else if (value instanceof byte[]) {
+            return Arrays.toString((byte[]) value);
+        } else if (value instanceof short[]) {
+            return Arrays.toString((short[]) value);
+        } else if (value instanceof float[]) {
+            return Arrays.toString((float[]) value);
+        } else if (value instanceof char[]) {
+            return Arrays.toString((char[]) value);
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+final class LoggerLevels {
+
+    private LoggerLevels() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static boolean isEnabled(Logger logger, Level level) {
+        switch (level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return logger.isTraceEnabled();
+        }
+    }
+
+    static void log(Logger logger, Level level, String format, Object[] arguments) {
+        switch (level) {
+            case ERROR:
+                logger.error(format, arguments);
+                break;
+            case WARN:
+                logger.warn(format, arguments);
+                break;
+            case INFO:
+                logger.info(format, arguments);
+                break;
+            case DEBUG:
+                logger.debug(format, arguments);
+                break;
+            default:
+                logger.trace(format, arguments);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package logbook;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The ring file shared by {@link MappedRingSink} and {@link MappedRingReader}, little endian:
+ * <pre>
+ * 0    int   magic "LBRG", written last
+ * 4    int   version
+ * 8    long  capacity of the data area, a power of two
+ * 64   long  producer position, bytes ever written, published after the records
+ * 128  long  consumer position, bytes ever read, published after the records were read
+ * 192        data area
+ * </pre>
+ * A record is an int length followed by the payload, padded to {@link #ALIGNMENT} bytes. A negative
+ * length marks the space skipped at the end of the data area before the ring wraps. Positions only
+ * grow; the offset of a position is {@code position & (capacity - 1)}. There is one producer and
+ * one consumer, each owning its position, so the positions are plain release stores and acquire
+ * loads on the shared mapping.
+ */
+final class MappedRing {
+    static final int MAGIC = 0x4C425247;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 192;
+    static final int ALIGNMENT = 8;
+    static final int LENGTH_BYTES = 4;
+
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int PRODUCER_OFFSET = 64;
+    private static final int CONSUMER_OFFSET = 128;
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private MappedRing(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the ring for the producer, keeping the records of an existing ring of the same capacity
+     * and replacing a ring of another capacity or version. Any other file is refused, so a wrong
+     * path cannot delete it.
+     */
+    static MappedRing create(Path file, int capacity) throws IOException {
+        if (Files.exists(file)) {
+            if (!hasMagic(file)) {
+                throw new IOException(file + " exists and is not a ring file");
+            }
+            try {
+                MappedRing existing = open(file);
+                if (existing.capacity == capacity) {
+                    return existing;
+                }
+                existing.close();
+            } catch (IOException e) {
+                // a ring of another version, replaced below
+            }
+            Files.delete(file);
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(CAPACITY_OFFSET, capacity);
+            LONGS.setRelease(buffer, PRODUCER_OFFSET, 0L);
+            LONGS.setRelease(buffer, CONSUMER_OFFSET, 0L);
+            INTS.setRelease(buffer, 0, MAGIC);
+            return new MappedRing(channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static MappedRing open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(file + " is not a ring file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if ((int) INTS.getAcquire(header, 0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(file + " is not a ring file of version " + VERSION);
+            }
+            long capacity = header.getLong(CAPACITY_OFFSET);
+            if (!isValidCapacity(capacity) || size < HEADER_BYTES + capacity) {
+                throw new IOException(file + " has an invalid capacity of " + capacity);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedRing(channel, buffer, (int) capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean hasMagic(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    static boolean isValidCapacity(long capacity) {
+        return capacity >= MappedRingSink.MIN_CAPACITY && capacity <= MappedRingSink.MAX_CAPACITY && Long.bitCount(capacity) == 1;
+    }
+
+    /**
+     * Bytes a record with this payload takes in the data area.
+     */
+    static int recordSize(int length) {
+        return (LENGTH_BYTES + length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Index of the position in {@link #data()}.
+     */
+    int index(long position) {
+        return HEADER_BYTES + (int) (position & (capacity - 1));
+    }
+
+    /**
+     * A view of the whole mapping for one thread.
+     */
+    ByteBuffer data() {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    long producerPosition() {
+        return (long) LONGS.getAcquire(buffer, PRODUCER_OFFSET);
+    }
+
+    void publishProducer(long position) {
+        LONGS.setRelease(buffer, PRODUCER_OFFSET, position);
+    }
+
+    long consumerPosition() {
+        return (long) LONGS.getAcquire(buffer, CONSUMER_OFFSET);
+    }
+
+    void publishConsumer(long position) {
+        LONGS.setRelease(buffer, CONSUMER_OFFSET, position);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,113 @@
+package logbook;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Reads the events written by {@link MappedRingSink} in another process, oldest first. Each event
+ * is the UTF-8 text of one line, followed by its stack trace if any. Read events are released to
+ * the producer by publishing the consumer position in the file, so a restarted reader continues
+ * after the last event read. One reader per ring.
+ */
+public final class MappedRingReader implements AutoCloseable {
+    static final long WAIT_NANOS = MappedRingSink.WAIT_NANOS;
+
+    private final MappedRing ring;
+    private final ByteBuffer data;
+    private long cursor;
+
+    private MappedRingReader(MappedRing ring) {
+        this.ring = ring;
+        this.data = ring.data();
+        this.cursor = ring.consumerPosition();
+    }
+
+    public static MappedRingReader open(Path file) throws IOException {
+        return new MappedRingReader(MappedRing.open(file.toAbsolutePath()));
+    }
+
+    /**
+     * Hands every event written so far to the consumer and then releases them; the buffer is only
+     * valid during the call.
+     */
+    public int drain(Consumer<ByteBuffer> consumer) {
+        long end = ring.producerPosition();
+        int count = 0;
+        while (next(end)) {
+            int index = ring.index(cursor);
+            int length = data.getInt(index);
+            ByteBuffer payload = data.duplicate();
+            payload.limit(index + MappedRing.LENGTH_BYTES + length).position(index + MappedRing.LENGTH_BYTES);
+            consumer.accept(payload.slice().asReadOnlyBuffer());
+            cursor += MappedRing.recordSize(length);
+            count++;
+        }
+        ring.publishConsumer(cursor);
+        return count;
+    }
+
+    /**
+     * The next event, or null if none was written yet.
+     */
+    public byte[] poll() {
+        if (!next(ring.producerPosition())) {
+            return null;
+        }
+
+        int index = ring.index(cursor);
+        byte[] event = new byte[data.getInt(index)];
+        data.position(index + MappedRing.LENGTH_BYTES);
+        data.get(event);
+        cursor += MappedRing.recordSize(event.length);
+        ring.publishConsumer(cursor);
+        return event;
+    }
+
+    /**
+     * Waits up to the timeout for the next event, or returns null.
+     */
+    public byte[] poll(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        byte[] event = poll();
+        while (event == null && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(WAIT_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            event = poll();
+        }
+        return event;
+    }
+
+    /**
+     * Bytes written but not read yet.
+     */
+    public long backlog() {
+        return ring.producerPosition() - cursor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ring.close();
+    }
+
+    /**
+     * Skips and releases the padding at the end of the data area, which the producer may be
+     * waiting for; true if an event starts at the cursor.
+     */
+    private boolean next(long end) {
+        while (cursor < end) {
+            int length = data.getInt(ring.index(cursor));
+            if (length >= 0) {
+                return true;
+            }
+            cursor -= length;
+            ring.publishConsumer(cursor);
+        }
+        return false;
+    }
+}
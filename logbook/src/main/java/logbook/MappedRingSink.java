@@ -0,0 +1,148 @@
+package logbook;
+
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes events as text lines into a ring file mapped into memory, for a collector process on the
+ * same machine that reads them with {@link MappedRingReader} instead of tailing a file. Lines are
+ * rendered on the logging thread and copied into the ring by the writer thread, which publishes
+ * the producer position once per batch. When the collector falls behind and the ring is full the
+ * writer waits for it, so lines queue up and are dropped once the queue is full; the logging
+ * thread never blocks. A line larger than the ring is dropped.
+ */
+public final class MappedRingSink extends QueueSink {
+    static final int MIN_CAPACITY = 4096;
+    static final int MAX_CAPACITY = 1 << 30;
+    static final int DEFAULT_CAPACITY = 8 * 1024 * 1024;
+    static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MappedRing ring;
+    private final ByteBuffer data;
+    private long position;
+
+    private MappedRingSink(Builder builder) throws IOException {
+        super("logbook-mapped-ring-sink", builder.minimumLevel, builder.queueCapacity, DEFAULT_BATCH_SIZE, builder.renderOnWriter);
+        this.ring = MappedRing.create(builder.file.toAbsolutePath(), builder.capacity);
+        this.data = ring.data();
+        this.position = ring.producerPosition();
+        start();
+    }
+
+    public static Builder builder(Path file) {
+        return new Builder(file);
+    }
+
+    @Override
+    void writeBatch(ByteBuffer[] buffers, int count) {
+        for (int i = 0; i < count; i++) {
+            append(buffers[i]);
+        }
+        ring.publishProducer(position);
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        ring.close();
+    }
+
+    private void append(ByteBuffer line) {
+        int length = line.remaining();
+        int size = MappedRing.recordSize(length);
+        int capacity = ring.capacity();
+        if (size > capacity) {
+            drop();
+            return;
+        }
+
+        // the skipped tail is released before the line needs its space, as both may exceed the ring
+        int tail = capacity - (ring.index(position) - MappedRing.HEADER_BYTES);
+        if (tail < size) {
+            if (!awaitSpace(tail)) {
+                drop();
+                return;
+            }
+            data.putInt(ring.index(position), -tail);
+            position += tail;
+        }
+        if (!awaitSpace(size)) {
+            drop();
+            return;
+        }
+
+        int index = ring.index(position);
+        data.position(index + MappedRing.LENGTH_BYTES);
+        data.put(line);
+        data.putInt(index, length);
+        position += size;
+    }
+
+    /**
+     * Waits until the consumer freed enough space; gives up once closed and the consumer stalls.
+     */
+    private boolean awaitSpace(int bytes) {
+        long since = 0;
+        while (position + bytes - ring.consumerPosition() > ring.capacity()) {
+            if (since == 0) {
+                ring.publishProducer(position);
+                since = System.nanoTime();
+            } else if (isClosed() && System.nanoTime() - since > CLOSE_TIMEOUT_NANOS) {
+                return false;
+            }
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        return true;
+    }
+
+    public static final class Builder {
+        private final Path file;
+        private Level minimumLevel = Level.INFO;
+        private int capacity = DEFAULT_CAPACITY;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private boolean renderOnWriter;
+
+        private Builder(Path file) {
+            this.file = file;
+        }
+
+        public Builder minimumLevel(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+            return this;
+        }
+
+        /**
+         * Bytes of the ring, a power of two of at least 4 KiB; an existing ring of another
+         * capacity is replaced.
+         */
+        public Builder capacity(int capacity) {
+            if (!MappedRing.isValidCapacity(capacity)) {
+                throw new IllegalArgumentException("Capacity must be a power of two between " + MIN_CAPACITY + " and " + MAX_CAPACITY);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Renders events on the writer thread, so lazy values are evaluated there; off by default.
+         */
+        public Builder renderOnWriter(boolean renderOnWriter) {
+            this.renderOnWriter = renderOnWriter;
+            return this;
+        }
+
+        public MappedRingSink build() throws IOException {
+            return new MappedRingSink(this);
+        }
+    }
+}
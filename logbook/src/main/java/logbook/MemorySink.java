@@ -0,0 +1,501 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the most recent events in memory for tests and diagnostics. Events are kept in a ring of
+ * slots, one array per attribute, with each event's keys and rendered values in arrays of their
+ * own. Every key value pair and level is indexed, a flattened value once per leaf under its dotted
+ * key, so a query reads the shortest matching index and checks the other conditions on those
+ * events only. The oldest events are evicted once {@link Builder#maxEvents(int)} or
+ * {@link Builder#maxBytes(long)} is reached.
+ */
+public final class MemorySink implements LogbookSink {
+    static final int EVENT_OVERHEAD_BYTES = 96;
+    static final int FIELD_OVERHEAD_BYTES = 48;
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final Level minimumLevel;
+    private final int capacity;
+    private final long maxBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final long[] timestamps;
+    private final byte[] levels;
+    private final String[] loggers;
+    private final String[] threads;
+    private final Throwable[] exceptions;
+    private final String[][] keys;
+    private final String[][] values;
+    private final int[] sizes;
+
+    private final Postings[] levelIndex = new Postings[LEVELS.length];
+    private final Map<String, Map<String, Postings>> fieldIndex = new HashMap<>();
+    private long first;
+    private long next;
+    private long bytes;
+
+    private MemorySink(Builder builder) {
+        this.minimumLevel = builder.minimumLevel;
+        this.capacity = builder.maxEvents;
+        this.maxBytes = builder.maxBytes;
+        this.timestamps = new long[capacity];
+        this.levels = new byte[capacity];
+        this.loggers = new String[capacity];
+        this.threads = new String[capacity];
+        this.exceptions = new Throwable[capacity];
+        this.keys = new String[capacity][];
+        this.values = new String[capacity][];
+        this.sizes = new int[capacity];
+        for (int i = 0; i < levelIndex.length; i++) {
+            levelIndex[i] = new Postings();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean isEnabled(Logger logger, Level level) {
+        return level.toInt() >= minimumLevel.toInt();
+    }
+
+    @Override
+    public void write(LogbookRecord record) {
+        List<String> fieldKeys = new ArrayList<>(record.size());
+        List<String> fieldValues = new ArrayList<>(record.size());
+        for (int i = 0; i < record.size(); i++) {
+            record.fields(i, (key, value) -> {
+                fieldKeys.add(key);
+                fieldValues.add(value);
+            });
+        }
+
+        int size = fieldKeys.size();
+        String[] eventKeys = fieldKeys.toArray(new String[size]);
+        String[] eventValues = fieldValues.toArray(new String[size]);
+        // the index holds on to keys and values as long as an event uses them
+        int eventBytes = EVENT_OVERHEAD_BYTES;
+        for (int i = 0; i < size; i++) {
+            eventBytes += FIELD_OVERHEAD_BYTES + 2 * (eventKeys[i].length() + eventValues[i].length());
+        }
+
+        lock.writeLock().lock();
+        try {
+            while (next - first == capacity || next > first && bytes + eventBytes > maxBytes) {
+                evict();
+            }
+
+            long sequence = next++;
+            int slot = slot(sequence);
+            timestamps[slot] = record.timestamp();
+            levels[slot] = (byte) record.level().ordinal();
+            loggers[slot] = record.loggerName();
+            threads[slot] = record.thread();
+            exceptions[slot] = record.exception();
+            keys[slot] = eventKeys;
+            values[slot] = eventValues;
+            sizes[slot] = eventBytes;
+            bytes += eventBytes;
+
+            levelIndex[record.level().ordinal()].add(sequence);
+            for (int i = 0; i < size; i++) {
+                fieldIndex.computeIfAbsent(eventKeys[i], key -> new HashMap<>())
+                        .computeIfAbsent(eventValues[i], value -> new Postings())
+                        .add(sequence);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Events kept, oldest first.
+     */
+    public List<Event> events() {
+        return query().list();
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) (next - first);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimated memory used by the kept events.
+     */
+    public long bytes() {
+        lock.readLock().lock();
+        try {
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            while (next > first) {
+                evict();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keys with at least one indexed value.
+     */
+    int indexedKeys() {
+        lock.readLock().lock();
+        try {
+            return fieldIndex.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private void evict() {
+        long sequence = first++;
+        int slot = slot(sequence);
+        levelIndex[levels[slot]].removeFirst(sequence);
+        for (int i = 0; i < keys[slot].length; i++) {
+            Map<String, Postings> byValue = fieldIndex.get(keys[slot][i]);
+            Postings postings = byValue == null ? null : byValue.get(values[slot][i]);
+            if (postings == null) {
+                // a repeated field of the event, already removed with its first occurrence
+                continue;
+            }
+            postings.removeFirst(sequence);
+            if (postings.isEmpty()) {
+                byValue.remove(values[slot][i]);
+                if (byValue.isEmpty()) {
+                    fieldIndex.remove(keys[slot][i]);
+                }
+            }
+        }
+
+        bytes -= sizes[slot];
+        loggers[slot] = null;
+        threads[slot] = null;
+        exceptions[slot] = null;
+        keys[slot] = null;
+        values[slot] = null;
+    }
+
+    private boolean matches(long sequence, String[] queryKeys, String[] queryValues, int level) {
+        int slot = slot(sequence);
+        if (level >= 0 && levels[slot] != level) {
+            return false;
+        }
+
+        for (int q = 0; q < queryKeys.length; q++) {
+            if (!hasField(slot, queryKeys[q], queryValues[q])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasField(int slot, String key, String value) {
+        for (int i = 0; i < keys[slot].length; i++) {
+            if (keys[slot][i].equals(key) && values[slot][i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fields are kept under the key they are written with, so a query for {@code user-id} matches
+     * the field written as {@code userid}.
+     */
+    private static String cleanKey(String key) {
+        return KeySymbols.appendClean(new StringBuilder(key.length()), key).toString();
+    }
+
+    private Event event(long sequence) {
+        int slot = slot(sequence);
+        return new Event(timestamps[slot], LEVELS[levels[slot]], loggers[slot], threads[slot], exceptions[slot], keys[slot], values[slot]);
+    }
+
+    /**
+     * Conditions on the level and on key values, all of which must match.
+     */
+    public final class Query {
+        private final List<String> queryKeys = new ArrayList<>();
+        private final List<String> queryValues = new ArrayList<>();
+        private Level level;
+        private int limit = Integer.MAX_VALUE;
+
+        private Query() {
+        }
+
+        public Query level(Level level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Matches events with a field of this key whose rendered value is {@code value}.
+         */
+        public Query where(String key, String value) {
+            queryKeys.add(cleanKey(key));
+            queryValues.add(value);
+            return this;
+        }
+
+        /**
+         * Keeps the most recent matches only.
+         */
+        public Query limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Matching events, oldest first.
+         */
+        public List<Event> list() {
+            List<Event> events = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                String[] keysArray = queryKeys.toArray(new String[0]);
+                String[] valuesArray = queryValues.toArray(new String[0]);
+                int levelOrdinal = level == null ? -1 : level.ordinal();
+                Postings shortest = shortest(keysArray, valuesArray, levelOrdinal);
+                if (shortest == null) {
+                    for (long sequence = Math.max(first, next - limit); sequence < next; sequence++) {
+                        events.add(event(sequence));
+                    }
+                    return events;
+                }
+
+                for (int i = shortest.size() - 1; i >= 0 && events.size() < limit; i--) {
+                    long sequence = shortest.get(i);
+                    if (matches(sequence, keysArray, valuesArray, levelOrdinal)) {
+                        events.add(event(sequence));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            Collections.reverse(events);
+            return events;
+        }
+
+        public int count() {
+            return list().size();
+        }
+
+        /**
+         * The shortest index of the conditions, an empty one if a value never occurred, or null
+         * without conditions.
+         */
+        private Postings shortest(String[] keysArray, String[] valuesArray, int levelOrdinal) {
+            Postings shortest = levelOrdinal >= 0 ? levelIndex[levelOrdinal] : null;
+            for (int q = 0; q < keysArray.length; q++) {
+                Map<String, Postings> byValue = fieldIndex.get(keysArray[q]);
+                Postings postings = byValue == null ? null : byValue.get(valuesArray[q]);
+                if (postings == null) {
+                    return Postings.EMPTY;
+                }
+                if (shortest == null || postings.size() < shortest.size()) {
+                    shortest = postings;
+                }
+            }
+            return shortest;
+        }
+    }
+
+    /**
+     * A stored event with its rendered values.
+     */
+    public static final class Event {
+        private final long timestamp;
+        private final Level level;
+        private final String loggerName;
+        private final String thread;
+        private final Throwable exception;
+        private final String[] keys;
+        private final String[] values;
+
+        private Event(long timestamp, Level level, String loggerName, String thread, Throwable exception, String[] keys, String[] values) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.loggerName = loggerName;
+            this.thread = thread;
+            this.exception = exception;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public long timestamp() {
+            return timestamp;
+        }
+
+        public Level level() {
+            return level;
+        }
+
+        public String loggerName() {
+            return loggerName;
+        }
+
+        public String thread() {
+            return thread;
+        }
+
+        public Throwable exception() {
+            return exception;
+        }
+
+        public int size() {
+            return keys.length;
+        }
+
+        public String key(int index) {
+            return keys[index];
+        }
+
+        public String value(int index) {
+            return values[index];
+        }
+
+        /**
+         * The first value of the key, or null.
+         */
+        public String get(String key) {
+            String clean = cleanKey(key);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(clean)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The fields in logbook format, {@code key="value"} separated by spaces.
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < keys.length; i++) {
+                if (i > 0) {
+                    builder.append(' ');
+                }
+                builder.append(key(i)).append("=\"").append(values[i]).append('"');
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Ascending sequence numbers; events are evicted oldest first, so removals are at the head.
+     */
+    private static final class Postings {
+        private static final Postings EMPTY = new Postings();
+
+        private long[] sequences = new long[4];
+        private int head;
+        private int tail;
+
+        private void add(long sequence) {
+            if (tail > head && sequences[tail - 1] == sequence) {
+                return;
+            }
+            if (tail == sequences.length) {
+                if (head > sequences.length / 2) {
+                    System.arraycopy(sequences, head, sequences, 0, tail - head);
+                } else {
+                    sequences = Arrays.copyOf(sequences, sequences.length * 2);
+                    System.arraycopy(sequences, head, sequences, 0, tail - head);
+                }
+                tail -= head;
+                head = 0;
+            }
+            sequences[tail++] = sequence;
+        }
+
+        private void removeFirst(long sequence) {
+            if (head < tail && sequences[head] == sequence) {
+                head++;
+            }
+        }
+
+        private int size() {
+            return tail - head;
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+
+        private long get(int index) {
+            return sequences[head + index];
+        }
+    }
+
+    public static final class Builder {
+        private Level minimumLevel = Level.TRACE;
+        private int maxEvents = 10_000;
+        private long maxBytes = Long.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder minimumLevel(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+            return this;
+        }
+
+        public Builder maxEvents(int maxEvents) {
+            if (maxEvents <= 0) {
+                throw new IllegalArgumentException("Max events must be positive");
+            }
+            this.maxEvents = maxEvents;
+            return this;
+        }
+
+        /**
+         * Caps the estimated memory of the kept events; the newest event is always kept.
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("Max bytes must be positive");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public MemorySink build() {
+            return new MemorySink(this);
+        }
+    }
+}
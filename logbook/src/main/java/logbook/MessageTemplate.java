@@ -0,0 +1,143 @@
+package logbook;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@code {}} value format parsed once into the placeholders SLF4J's {@code MessageFormatter} would
+ * find, so rendering only appends literal ranges and values. {@code \{}} is a literal {@code {}} and
+ * {@code \\{}} a backslash followed by a value; like SLF4J, placeholders after the last value and
+ * their escapes are left as they are.
+ * <p>
+ * Templates are cached per format up to {@link #MAX_CACHED} formats. A full cache evicts with the
+ * clock algorithm: a hit only marks the template as used, and a miss replaces the first template
+ * the clock hand finds unused since its last pass, so formats built at runtime cannot push out the
+ * ones logged all the time.
+ */
+final class MessageTemplate {
+    static final int MAX_CACHED = 4096;
+
+    private static final byte VALUE = 0;
+    private static final byte ESCAPED = 1;
+    private static final byte ESCAPED_BACKSLASH = 2;
+    private static final ConcurrentMap<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final MessageTemplate[] CLOCK = new MessageTemplate[MAX_CACHED];
+    private static int hand;
+
+    private final String format;
+    private final int[] positions;
+    private final byte[] kinds;
+    private volatile boolean used;
+
+    private MessageTemplate(String format) {
+        int[] foundPositions = new int[4];
+        byte[] foundKinds = new byte[4];
+        int count = 0;
+        int i = 0;
+        int j;
+        while ((j = format.indexOf("{}", i)) >= 0) {
+            if (count == foundPositions.length) {
+                foundPositions = Arrays.copyOf(foundPositions, count * 2);
+                foundKinds = Arrays.copyOf(foundKinds, count * 2);
+            }
+
+            byte kind = kind(format, j);
+            foundPositions[count] = j;
+            foundKinds[count++] = kind;
+            i = kind == ESCAPED ? j + 1 : j + 2;
+        }
+
+        this.format = format;
+        this.positions = Arrays.copyOf(foundPositions, count);
+        this.kinds = Arrays.copyOf(foundKinds, count);
+    }
+
+    static MessageTemplate of(String format) {
+        MessageTemplate template = CACHE.get(format);
+        if (template == null) {
+            return cache(new MessageTemplate(format));
+        }
+
+        if (!template.used) {
+            template.used = true;
+        }
+        return template;
+    }
+
+    private static synchronized MessageTemplate cache(MessageTemplate template) {
+        MessageTemplate cached = CACHE.get(template.format);
+        if (cached != null) {
+            return cached;
+        }
+
+        while (CLOCK[hand] != null && CLOCK[hand].used) {
+            CLOCK[hand].used = false;
+            hand = (hand + 1) % MAX_CACHED;
+        }
+        if (CLOCK[hand] != null) {
+            CACHE.remove(CLOCK[hand].format);
+        }
+        CLOCK[hand] = template;
+        hand = (hand + 1) % MAX_CACHED;
+        CACHE.put(template.format, template);
+        return template;
+    }
+
+    static int cached() {
+        return CACHE.size();
+    }
+
+    static synchronized void clear() {
+        CACHE.clear();
+        Arrays.fill(CLOCK, null);
+        hand = 0;
+    }
+
+    String format() {
+        return format;
+    }
+
+    int placeholders() {
+        return positions.length;
+    }
+
+    StringBuilder appendTo(StringBuilder builder, List<String> values) {
+        int size = values.size();
+        int used = 0;
+        int copied = 0;
+        for (int k = 0; k < positions.length && used < size; k++) {
+            int position = positions[k];
+            switch (kinds[k]) {
+                case ESCAPED:
+                    builder.append(format, copied, position - 1).append('{');
+                    copied = position + 1;
+                    break;
+                case ESCAPED_BACKSLASH:
+                    builder.append(format, copied, position - 1).append(values.get(used++));
+                    copied = position + 2;
+                    break;
+                default:
+                    builder.append(format, copied, position).append(values.get(used++));
+                    copied = position + 2;
+                    break;
+            }
+        }
+        return builder.append(format, copied, format.length());
+    }
+
+    String render(List<String> values) {
+        if (values.isEmpty()) {
+            return format;
+        }
+        return appendTo(new StringBuilder(format.length() + 16 * values.size()), values).toString();
+    }
+
+    private static byte kind(String format, int position) {
+        if (position == 0 || format.charAt(position - 1) != '\\') {
+            return VALUE;
+        }
+        return position >= 2 && format.charAt(position - 2) == '\\' ? ESCAPED_BACKSLASH : ESCAPED;
+    }
+}
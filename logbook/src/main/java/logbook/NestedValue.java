@@ -0,0 +1,82 @@
+package logbook;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A value added with {@link Logbook#flatten(String, Object)}, written as one dotted field per leaf
+ * while the event is rendered.
+ */
+final class NestedValue {
+    private final Object value;
+
+    NestedValue(Object value) {
+        this.value = value;
+    }
+
+    /**
+     * Appends {@code key.path="value"} fields separated by spaces.
+     */
+    StringBuilder appendFields(StringBuilder builder, KeySymbols.Symbol key, LogbookSettings settings) {
+        Redactor redactor = settings.redactor();
+        int start = builder.length();
+        Flattener.walk(key.name(), value, settings, (path, folded, name, leaf) -> {
+            if (builder.length() > start) {
+                builder.append(' ');
+            }
+            builder.append(path).append("=\"").append(render(key, folded, name, leaf, redactor)).append('"');
+        });
+        return builder;
+    }
+
+    /**
+     * Hands every leaf to {@code fields} as its dotted path and rendered value, as written by
+     * {@link #appendFields(StringBuilder, KeySymbols.Symbol, LogbookSettings)}.
+     */
+    void fields(KeySymbols.Symbol key, LogbookSettings settings, BiConsumer<String, String> fields) {
+        Redactor redactor = settings.redactor();
+        Flattener.walk(key.name(), value, settings, (path, folded, name, leaf) ->
+                fields.accept(path.toString(), render(key, folded, name, leaf, redactor)));
+    }
+
+    /**
+     * Appends a {@code key.path="{}"} format per field and its value as argument.
+     */
+    void appendMessage(StringBuilder format, List<Object> arguments, KeySymbols.Symbol key, LogbookSettings settings) {
+        Redactor redactor = settings.redactor();
+        Flattener.walk(key.name(), value, settings, (path, folded, name, leaf) -> {
+            if (format.length() > 0) {
+                format.append(' ');
+            }
+            if (redactor == null) {
+                format.append(path);
+            } else {
+                format.append(redactor.redact(path.toString()));
+            }
+            format.append("=\"{}\"");
+            arguments.add(render(key, folded, name, leaf, redactor));
+        });
+    }
+
+    @Override
+    public String toString() {
+        return appendFields(new StringBuilder(), KeySymbols.symbol(LogbookKey.VALUE.id()), LogbookSettings.current()).toString();
+    }
+
+    /**
+     * A leaf below a folded map key is written as {@code path=value}, with the path redacted like
+     * a value, as for keys folded by {@link KeyGuard}.
+     */
+    private static String render(KeySymbols.Symbol key, CharSequence folded, String name, Object leaf, Redactor redactor) {
+        String rendered = LogbookValues.toString(leaf);
+        if (redactor != null) {
+            rendered = redactor.redact(key.id(), name, rendered);
+        }
+        if (folded == null) {
+            return rendered;
+        }
+
+        String path = redactor == null ? folded.toString() : redactor.redact(folded.toString());
+        return path + '=' + rendered;
+    }
+}
@@ -1,6 +1,7 @@
 package logbook;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -9,69 +10,134 @@ class Pair {
     private static final String NULL = "null";
     private static final String KEY_VALUE_FORMAT = "%s=\"%s\"";
     private static final String DEFAULT_CUSTOM_VALUE_FORMAT = "{}";
+    private static final Object[] NO_VALUES = {};
+    private static final byte OBJECT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
 
-    private final String key;
+    private final KeySymbols.Symbol key;
     private final Object[] values;
     private final String valueFormat;
+    private final String foldedKey;
+    /**
+     * A long or the bits of a double added by {@link LogbookEventType}, kept unboxed until
+     * {@link #getValue()} is called.
+     */
+    private final long primitive;
+    private final byte type;
 
     Pair(String key, Object value) {
         this(key, DEFAULT_CUSTOM_VALUE_FORMAT, new Object[]{value});
     }
 
     Pair(String key, String valueFormat, Object[] values) {
-        this.key = key == null ? NULL : key;
+        String name = key == null ? NULL : key;
+        KeySymbols.Symbol symbol = KeyGuard.symbol(name);
+        this.key = symbol != null ? symbol : KeySymbols.symbol(KeyGuard.EXTRA);
         this.valueFormat = valueFormat == null ? DEFAULT_CUSTOM_VALUE_FORMAT : valueFormat;
-        this.values = values == null ? new Object[]{} : values;
+        this.foldedKey = symbol != null ? null : KeyGuard.foldedKey(name);
+        this.values = values == null ? NO_VALUES : values;
+        this.primitive = 0;
+        this.type = OBJECT;
     }
 
-    boolean isValid() {
-        return !key.isEmpty();
+    Pair(int key, String valueFormat, Object[] values) {
+        this.key = KeySymbols.symbol(key);
+        this.valueFormat = valueFormat == null ? DEFAULT_CUSTOM_VALUE_FORMAT : valueFormat;
+        this.foldedKey = null;
+        this.values = values == null ? NO_VALUES : values;
+        this.primitive = 0;
+        this.type = OBJECT;
     }
 
-    String getKeyFormat() {
-        String cleanKey = key.replaceAll("[^a-zA-Z0-9_.]", "");
-        return String.format(KEY_VALUE_FORMAT, cleanKey, valueFormat);
+    Pair(int key, long value) {
+        this(key, value, LONG);
     }
 
-    List<String> getStringValues() {
-        return Arrays.stream(values)
-                .map(this::valueToString)
-                .map(this::cleanValue)
-                .collect(toList());
+    Pair(int key, double value) {
+        this(key, Double.doubleToRawLongBits(value), DOUBLE);
+    }
+
+    private Pair(int key, long primitive, byte type) {
+        this.key = KeySymbols.symbol(key);
+        this.valueFormat = DEFAULT_CUSTOM_VALUE_FORMAT;
+        this.foldedKey = null;
+        this.values = NO_VALUES;
+        this.primitive = primitive;
+        this.type = type;
     }
 
-    private String valueToString(Object value) {
-        if (value == null) {
-            return NULL;
+    /**
+     * The key id, {@link KeySymbols#UNINTERNED} for a runtime key past the interning limit.
+     */
+    int getKey() {
+        return key.id();
+    }
+
+    KeySymbols.Symbol getSymbol() {
+        return key;
+    }
+
+    String getValueFormat() {
+        return valueFormat;
+    }
+
+    /**
+     * The clean name of a key folded into {@code extra}, written as {@code key=} before the value;
+     * null for a registered key.
+     */
+    String getFoldedKey() {
+        return foldedKey;
+    }
+
+    /**
+     * The value, boxed on every call for a primitive pair; hot paths check {@link #isPrimitive()} first.
+     */
+    Object getValue() {
+        if (type == LONG) {
+            return primitive;
+        } else if (type == DOUBLE) {
+            return doubleValue();
         }
+        return values.length == 0 ? null : values[0];
+    }
 
-        if (value instanceof Object[]) {
-            return Arrays.toString((Object[]) value);
-        } else if (value instanceof int[]) {
-            return Arrays.toString((int[]) value);
-        } else if (value instanceof double[]) {
-            return Arrays.toString((double[]) value);
-        } else if (value instanceof long[]) {
-            return Arrays.toString((long[]) value);
-        } else if (value instanceof boolean[]) {
-            return Arrays.toString((boolean[]) value);
-        } else if (value instanceof byte[]) {
-            return Arrays.toString((byte[]) value);
-        } else if (value instanceof short[]) {
-            return Arrays.toString((short[]) value);
-        } else if (value instanceof float[]) {
-            return Arrays.toString((float[]) value);
-        } else if (value instanceof char[]) {
-            return Arrays.toString((char[]) value);
+    boolean isPrimitive() {
+        return type != OBJECT;
+    }
+
+    boolean isDouble() {
+        return type == DOUBLE;
+    }
+
+    long longValue() {
+        return primitive;
+    }
+
+    double doubleValue() {
+        return Double.longBitsToDouble(primitive);
+    }
+
+    boolean isValid() {
+        return !key.name().isEmpty();
+    }
+
+    String getKeyFormat() {
+        if (DEFAULT_CUSTOM_VALUE_FORMAT.equals(valueFormat)) {
+            return key.defaultKeyFormat();
         }
 
-        return value.toString();
+        return String.format(KEY_VALUE_FORMAT, key.cleanName(), valueFormat);
     }
 
-    private String cleanValue(String value) {
-        return value.replace("'", "")
-                .replace("\"", "")
-                .replace("\n", " ")
-                .trim();
+    List<String> getStringValues() {
+        if (type == LONG) {
+            return Collections.singletonList(Long.toString(primitive));
+        } else if (type == DOUBLE) {
+            return Collections.singletonList(LogbookNumbers.toString(doubleValue()));
+        }
+        return Arrays.stream(values)
+                .map(LogbookValues::toString)
+                .collect(toList());
     }
 }
@@ -0,0 +1,334 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes events as {@link LogbookRecord}s to in-process subscribers. Every subscriber has its own
+ * buffer and is called on the executor, never on the logging thread, as far as it requested events.
+ * A subscriber whose buffer is full is handled by the {@link Overflow} policy; the logging thread never
+ * waits, so a subscriber that needs to absorb bursts gets a larger {@link Builder#bufferSize(int)}.
+ * Values are rendered when a subscriber reads them.
+ */
+public final class PublisherSink implements LogbookSink, Flow.Publisher<LogbookRecord> {
+    static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final Level minimumLevel;
+    private final int bufferSize;
+    private final Overflow overflow;
+    private final Executor executor;
+    private final CopyOnWriteArrayList<PublisherSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * What happens to an event for a subscriber whose buffer is full.
+     */
+    public enum Overflow {
+        /**
+         * The event is dropped for that subscriber.
+         */
+        DROP,
+        /**
+         * The subscription is cancelled and the subscriber gets {@code onError}.
+         */
+        CANCEL
+    }
+
+    private PublisherSink(Builder builder) {
+        this.minimumLevel = builder.minimumLevel;
+        this.bufferSize = builder.bufferSize;
+        this.overflow = builder.overflow;
+        this.executor = builder.executor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LogbookRecord> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+
+        PublisherSubscription subscription = new PublisherSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Only enabled while someone is subscribed.
+     */
+    @Override
+    public boolean isEnabled(Logger logger, Level level) {
+        return !closed && level.toInt() >= minimumLevel.toInt() && !subscriptions.isEmpty();
+    }
+
+    @Override
+    public void write(LogbookRecord record) {
+        for (PublisherSubscription subscription : subscriptions) {
+            subscription.offer(record);
+        }
+    }
+
+    /**
+     * Waits until subscribers that have demand received the events buffered for them.
+     */
+    @Override
+    public void flush() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (PublisherSubscription subscription : subscriptions) {
+            while (subscription.isPending() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+
+    /**
+     * Completes every subscriber after its buffered events were delivered.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (PublisherSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Events dropped for any subscriber.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    private final class PublisherSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super LogbookRecord> subscriber;
+        private final Queue<LogbookRecord> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * Starts held, so nothing is delivered until {@code onSubscribe} returned.
+         */
+        private final AtomicInteger work = new AtomicInteger(1);
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        private boolean terminated;
+
+        private PublisherSubscription(Flow.Subscriber<? super LogbookRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested events must be positive, was " + n));
+                return;
+            }
+
+            long current;
+            do {
+                current = requested.get();
+            } while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            schedule();
+        }
+
+        private void offer(LogbookRecord record) {
+            if (cancelled || completed || error != null) {
+                return;
+            }
+
+            if (buffered.incrementAndGet() > bufferSize) {
+                buffered.decrementAndGet();
+                dropped.incrementAndGet();
+                if (overflow == Overflow.CANCEL) {
+                    fail(new IllegalStateException("Subscriber did not keep up with " + bufferSize + " buffered events"));
+                }
+                return;
+            }
+
+            buffer.offer(record);
+            schedule();
+        }
+
+        private void complete() {
+            completed = true;
+            schedule();
+        }
+
+        private void fail(Throwable throwable) {
+            error = throwable;
+            subscriptions.remove(this);
+            schedule();
+        }
+
+        private boolean isPending() {
+            return !cancelled && error == null && buffered.get() > 0 && requested.get() > 0;
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                execute();
+            }
+        }
+
+        /**
+         * Releases the hold and delivers what was requested or offered during {@code onSubscribe}.
+         */
+        private void start() {
+            execute();
+        }
+
+        private void execute() {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                work.set(0);
+                cancelled = true;
+                subscriptions.remove(this);
+            }
+        }
+
+        /**
+         * Runs on the executor, one task at a time per subscription.
+         */
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    deliver();
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            while (true) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                if (error != null) {
+                    clear();
+                    terminate(error);
+                    return;
+                }
+                if (requested.get() == 0) {
+                    break;
+                }
+
+                LogbookRecord record = buffer.poll();
+                if (record == null) {
+                    break;
+                }
+                try {
+                    subscriber.onNext(record);
+                } catch (RuntimeException e) {
+                    cancelled = true;
+                    subscriptions.remove(this);
+                    clear();
+                    terminate(e);
+                    return;
+                } finally {
+                    // counted until delivered, so flush also waits for the event in flight
+                    buffered.decrementAndGet();
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                }
+            }
+
+            if (completed && buffer.isEmpty()) {
+                terminate(null);
+            }
+        }
+
+        private void terminate(Throwable throwable) {
+            terminated = true;
+            cancelled = true;
+            subscriptions.remove(this);
+            if (throwable == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(throwable);
+            }
+        }
+
+        private void clear() {
+            while (buffer.poll() != null) {
+                buffered.decrementAndGet();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private Level minimumLevel = Level.INFO;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private Overflow overflow = Overflow.DROP;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        public Builder minimumLevel(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+            return this;
+        }
+
+        /**
+         * Events buffered per subscriber before the overflow policy applies.
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Buffer size must be positive");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder overflow(Overflow overflow) {
+            this.overflow = overflow;
+            return this;
+        }
+
+        /**
+         * Runs the subscriber callbacks, the common pool by default.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public PublisherSink build() {
+            return new PublisherSink(this);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders events as text lines on the logging thread and queues them; a background thread hands
+ * them to {@link #writeBatch(ByteBuffer[], int)} in batches. With {@code renderOnWriter} the
+ * records are queued instead and rendered by the background thread, so suppliers added with
+ * {@link Logbook#addLazy(String, java.util.function.Supplier)} run there rather than on the
+ * logging thread. When the queue is full the line is dropped instead of blocking the caller. Output failures are counted in {@link #errors()}, with
+ * the last one kept in {@link #lastError()}, rather than printed from the writer thread.
+ */
+abstract class QueueSink implements LogbookSink {
+    static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final ThreadLocal<StringBuilder> LINES = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final Level minimumLevel;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final boolean renderOnWriter;
+    private final Thread writer;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile Exception lastError;
+    private final Object progress = new Object();
+    private long written;
+    private volatile boolean closed;
+
+    QueueSink(String name, Level minimumLevel, int queueCapacity, int batchSize) {
+        this(name, minimumLevel, queueCapacity, batchSize, false);
+    }
+
+    QueueSink(String name, Level minimumLevel, int queueCapacity, int batchSize, boolean renderOnWriter) {
+        this.minimumLevel = minimumLevel;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.renderOnWriter = renderOnWriter;
+        this.writer = new Thread(this::drain, name);
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Called once by subclasses after their own fields are set.
+     */
+    final void start() {
+        writer.start();
+    }
+
+    /**
+     * Lines dropped because the queue was full, the output could not take them or, when rendered
+     * by the writer thread, rendering failed.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Failures to write, flush or close the output.
+     */
+    public long errors() {
+        return errors.get();
+    }
+
+    /**
+     * The last failure counted in {@link #errors()}, or null.
+     */
+    public Exception lastError() {
+        return lastError;
+    }
+
+    /**
+     * Counts a failure of the output.
+     */
+    final void error(Exception e) {
+        lastError = e;
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Counts a line the writer thread could not write.
+     */
+    final void drop() {
+        dropped.incrementAndGet();
+    }
+
+    final boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isEnabled(Logger logger, Level level) {
+        return !closed && level.toInt() >= minimumLevel.toInt();
+    }
+
+    /**
+     * Lines written after {@link #close()} are dropped; a line queued while the sink closes is
+     * taken back unless the writer thread already got it.
+     */
+    @Override
+    public void write(LogbookRecord record) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        Object line = renderOnWriter ? record : ByteBuffer.wrap(render(record));
+        if (queue.offer(line) && !(closed && queue.remove(line))) {
+            enqueued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until the lines queued before this call are written.
+     */
+    @Override
+    public void flush() {
+        long target = enqueued.get();
+        synchronized (progress) {
+            while (written < target && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            closeOutput();
+        } catch (IOException e) {
+            error(e);
+        }
+    }
+
+    /**
+     * Called on the writer thread; buffers past {@code count} must be ignored.
+     */
+    abstract void writeBatch(ByteBuffer[] buffers, int count) throws IOException;
+
+    /**
+     * Called on the writer thread when no line arrived for a while.
+     */
+    void idle() throws IOException {
+    }
+
+    /**
+     * Called once after the writer thread finished.
+     */
+    abstract void closeOutput() throws IOException;
+
+    static byte[] render(LogbookRecord record) {
+        StringBuilder line = LINES.get();
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(record.timestamp()))
+                .append(' ').append(record.level())
+                .append(" [").append(record.thread()).append("] ")
+                .append(record.loggerName()).append(' ');
+        record.appendTo(line).append('\n');
+        record.appendStackTrace(line);
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        ByteBuffer[] buffers = new ByteBuffer[batchSize];
+        while (!closed || !queue.isEmpty()) {
+            Object first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                try {
+                    idle();
+                } catch (IOException | RuntimeException e) {
+                    error(e);
+                }
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            int taken = batch.size();
+            int count = lines(batch, buffers);
+            try {
+                if (count > 0) {
+                    writeBatch(buffers, count);
+                }
+            } catch (IOException | RuntimeException e) {
+                dropped.addAndGet(count);
+                error(e);
+            }
+            batch.clear();
+
+            synchronized (progress) {
+                written += taken;
+                progress.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Renders queued records into lines; a record whose rendering fails, e.g. in a supplier, is
+     * dropped and counted without losing the rest of the batch.
+     */
+    private int lines(List<Object> batch, ByteBuffer[] buffers) {
+        int count = 0;
+        for (Object line : batch) {
+            if (line instanceof ByteBuffer) {
+                buffers[count++] = (ByteBuffer) line;
+                continue;
+            }
+            try {
+                ByteBuffer rendered = ByteBuffer.wrap(render((LogbookRecord) line));
+                buffers[count++] = rendered;
+            } catch (RuntimeException e) {
+                dropped.incrementAndGet();
+                error(e);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,35 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An event kept unrendered, written later with its original level and time.
+ */
+final class RecordedEvent {
+    final Logger logger;
+    final Level level;
+    final long timestamp;
+    final List<Pair> pairs;
+    final Throwable exception;
+
+    RecordedEvent(Logger logger, Level level, long timestamp, List<Pair> pairs, Throwable exception) {
+        this.logger = logger;
+        this.level = level;
+        this.timestamp = timestamp;
+        this.pairs = pairs;
+        this.exception = exception;
+    }
+
+    void write(Level level) {
+        List<Pair> recorded = new ArrayList<>(pairs.size() + 2);
+        recorded.add(new Pair(LogbookKey.RECORDED_LEVEL.id(), null, new Object[]{this.level}));
+        recorded.add(new Pair(LogbookKey.RECORDED_TIME.id(), null, new Object[]{Instant.ofEpochMilli(timestamp)}));
+        recorded.addAll(pairs);
+        LogbookSinks.write(logger, level, recorded, exception, LogbookSettings.current());
+    }
+}
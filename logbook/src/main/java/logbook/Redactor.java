@@ -0,0 +1,294 @@
+package logbook;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Masks sensitive values before they are written. Key rules are resolved to key symbols when the
+ * redactor is built, so checking a key is a bit lookup. Value rules (card numbers, emails and
+ * bearer tokens) share one scanner that walks each value once and only inspects positions whose
+ * character can start or anchor one of the enabled rules.
+ */
+public final class Redactor {
+    public static final String DEFAULT_REPLACEMENT = "***";
+
+    private static final byte CARD = 1;
+    private static final byte EMAIL = 2;
+    private static final byte BEARER = 4;
+    private static final String BEARER_PREFIX = "bearer ";
+    private static final int CARD_MIN_DIGITS = 13;
+    private static final int CARD_MAX_DIGITS = 19;
+
+    private final BitSet keys;
+    private final byte[] triggers = new byte[128];
+    private final String replacement;
+
+    private Redactor(Builder builder) {
+        this.keys = builder.keys;
+        this.replacement = builder.replacement;
+
+        if (builder.cards) {
+            for (char c = '0'; c <= '9'; c++) {
+                triggers[c] |= CARD;
+            }
+        }
+        if (builder.emails) {
+            triggers['@'] |= EMAIL;
+        }
+        if (builder.bearerTokens) {
+            triggers['b'] |= BEARER;
+            triggers['B'] |= BEARER;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static void install(Redactor redactor) {
+        LogbookSettings.update(settings -> settings.redactor(redactor));
+    }
+
+    public static void uninstall() {
+        install(null);
+    }
+
+    static Redactor active() {
+        return LogbookSettings.current().redactor();
+    }
+
+    List<String> redact(Pair pair) {
+        List<String> values = pair.getStringValues();
+        if (isKey(pair.getKey())) {
+            return Collections.nCopies(values.size(), replacement);
+        }
+
+        List<String> redacted = new ArrayList<>(values.size());
+        for (String value : values) {
+            redacted.add(redact(value));
+        }
+        return redacted;
+    }
+
+    String redact(int key, String value) {
+        return isKey(key) ? replacement : redact(value);
+    }
+
+    /**
+     * A flattened field is masked by a key rule for its parent key or for its own name.
+     */
+    String redact(int key, String name, String value) {
+        int field = name == null ? -1 : KeySymbols.find(name);
+        return isKey(field) ? replacement : redact(key, value);
+    }
+
+    /**
+     * Keys of rules are registered when the redactor is built, so an uninterned key never matches.
+     */
+    private boolean isKey(int key) {
+        return key >= 0 && keys.get(key);
+    }
+
+    /**
+     * Returns the same instance when nothing was masked.
+     */
+    public String redact(String value) {
+        StringBuilder output = null;
+        int copied = 0;
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            byte trigger = c < 128 ? triggers[c] : 0;
+            if (trigger == 0) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            int end = -1;
+            if ((trigger & CARD) != 0 && (i == 0 || !isAlphanumeric(value.charAt(i - 1)))) {
+                end = matchCard(value, i);
+            }
+            if (end < 0 && (trigger & EMAIL) != 0) {
+                start = emailStart(value, i, copied);
+                end = start < i ? matchEmailDomain(value, i + 1) : -1;
+            }
+            if (end < 0 && (trigger & BEARER) != 0 && (i == 0 || !isAlphanumeric(value.charAt(i - 1)))) {
+                start = i + BEARER_PREFIX.length();
+                end = matchBearer(value, i);
+            }
+
+            if (end < 0) {
+                i = (trigger & CARD) != 0 ? skipDigits(value, i) : i + 1;
+                continue;
+            }
+
+            if (output == null) {
+                output = new StringBuilder(length);
+            }
+            output.append(value, copied, start).append(replacement);
+            copied = end;
+            i = end;
+        }
+
+        if (output == null) {
+            return value;
+        }
+        return output.append(value, copied, length).toString();
+    }
+
+    /**
+     * 13 to 19 digits, optionally grouped with single spaces or dashes, passing the Luhn check.
+     */
+    private static int matchCard(String value, int start) {
+        int length = value.length();
+        int digits = 0;
+        int end = start;
+        int i = start;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                if (++digits > CARD_MAX_DIGITS) {
+                    return -1;
+                }
+                end = ++i;
+            } else if ((c == ' ' || c == '-') && i + 1 < length && isDigit(value.charAt(i + 1))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+
+        if (digits < CARD_MIN_DIGITS || end < length && isAlphanumeric(value.charAt(end))) {
+            return -1;
+        }
+
+        int sum = 0;
+        boolean doubled = false;
+        for (int j = end - 1; j >= start; j--) {
+            char c = value.charAt(j);
+            if (!isDigit(c)) {
+                continue;
+            }
+
+            int digit = c - '0';
+            if (doubled) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0 ? end : -1;
+    }
+
+    private static int skipDigits(String value, int start) {
+        int i = start;
+        while (i < value.length() && isDigit(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int emailStart(String value, int at, int copied) {
+        int start = at;
+        while (start > copied && isEmailLocal(value.charAt(start - 1))) {
+            start--;
+        }
+        return start;
+    }
+
+    private static int matchEmailDomain(String value, int start) {
+        int length = value.length();
+        int lastDot = -1;
+        int i = start;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (isAlphanumeric(c) || c == '-') {
+                i++;
+            } else if (c == '.' && i > start && value.charAt(i - 1) != '.' && i + 1 < length && isAlphanumeric(value.charAt(i + 1))) {
+                lastDot = i++;
+            } else {
+                break;
+            }
+        }
+        return lastDot > start ? i : -1;
+    }
+
+    private static int matchBearer(String value, int start) {
+        if (!value.regionMatches(true, start, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return -1;
+        }
+
+        int i = start + BEARER_PREFIX.length();
+        int tokenStart = i;
+        while (i < value.length() && isTokenChar(value.charAt(i))) {
+            i++;
+        }
+        while (i < value.length() && value.charAt(i) == '=') {
+            i++;
+        }
+        return i > tokenStart ? i : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c);
+    }
+
+    private static boolean isEmailLocal(char c) {
+        return isAlphanumeric(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isTokenChar(char c) {
+        return isAlphanumeric(c) || c == '-' || c == '.' || c == '_' || c == '~' || c == '+' || c == '/';
+    }
+
+    public static final class Builder {
+        private final BitSet keys = new BitSet();
+        private String replacement = DEFAULT_REPLACEMENT;
+        private boolean cards;
+        private boolean emails;
+        private boolean bearerTokens;
+
+        private Builder() {
+        }
+
+        /**
+         * Masks every value of the key, e.g. {@code password} or {@code token}.
+         */
+        public Builder key(String key) {
+            keys.set(KeySymbols.register(key));
+            return this;
+        }
+
+        public Builder cards() {
+            cards = true;
+            return this;
+        }
+
+        public Builder emails() {
+            emails = true;
+            return this;
+        }
+
+        public Builder bearerTokens() {
+            bearerTokens = true;
+            return this;
+        }
+
+        public Builder replacement(String replacement) {
+            this.replacement = replacement;
+            return this;
+        }
+
+        public Redactor build() {
+            return new Redactor(this);
+        }
+    }
+}
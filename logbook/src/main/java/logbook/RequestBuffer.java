@@ -0,0 +1,213 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the events below the logger level of each {@code request} (or {@code track}) unrendered
+ * until the request ends. A {@link Logbook#fail()} or {@link Logbook#error()} event writes the
+ * buffered events of its request before itself, a {@link Logbook#success()} event discards them.
+ * They are written at the level of the failing event, or at ERROR when that level is disabled,
+ * with their own level in {@code recordedLevel}; the failing event is then written at ERROR too.
+ * Events of a request that already ended are not buffered, and an id given as a supplier is not
+ * evaluated for buffering.
+ * <p>
+ * At most {@code maxRequests} requests are buffered, the oldest one is evicted when a new one
+ * starts, and each request keeps its last {@code maxEvents} events.
+ */
+public final class RequestBuffer {
+    private static volatile RequestBuffer active;
+
+    private final int maxRequests;
+    private final int maxEvents;
+    private final Level minimumLevel;
+    private final Map<String, Events> requests = new LinkedHashMap<>();
+    private final Map<String, Boolean> ended;
+
+    private RequestBuffer(int maxRequests, int maxEvents, Level minimumLevel) {
+        this.maxRequests = maxRequests;
+        this.maxEvents = maxEvents;
+        this.minimumLevel = minimumLevel;
+        this.ended = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxRequests;
+            }
+        };
+    }
+
+    public static void start(int maxRequests, int maxEvents) {
+        start(maxRequests, maxEvents, Level.TRACE);
+    }
+
+    public static void start(int maxRequests, int maxEvents, Level minimumLevel) {
+        if (maxRequests <= 0 || maxEvents <= 0) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+
+        active = new RequestBuffer(maxRequests, maxEvents, minimumLevel);
+    }
+
+    public static void stop() {
+        active = null;
+    }
+
+    public static boolean isStarted() {
+        return active != null;
+    }
+
+    static RequestBuffer active() {
+        return active;
+    }
+
+    /**
+     * The level to write the event at, or null when it was buffered and must not be written.
+     */
+    Level handle(Logger logger, Level level, List<Pair> pairs, Throwable exception) {
+        String request = requestId(pairs);
+        if (request == null) {
+            return level;
+        }
+
+        Object status = status(pairs);
+        if (level == Level.ERROR || status == LogbookKey.FAIL) {
+            Level flushLevel = LogbookSinks.isEnabled(logger, level) ? level : Level.ERROR;
+            flush(request, flushLevel);
+            return flushLevel;
+        }
+
+        if (status == LogbookKey.SUCCESS) {
+            discard(request);
+            return level;
+        }
+
+        if (level.toInt() < minimumLevel.toInt() || LogbookSinks.isEnabled(logger, level)) {
+            return level;
+        }
+
+        RecordedEvent event = new RecordedEvent(logger, level, System.currentTimeMillis(), List.copyOf(pairs), exception);
+        Events events = events(request);
+        while (events != null && !events.add(event)) {
+            // the request was flushed or evicted concurrently, buffer it again unless it ended
+            events = events(request);
+        }
+        return events == null ? level : null;
+    }
+
+    int size() {
+        synchronized (requests) {
+            return requests.size();
+        }
+    }
+
+    /**
+     * The buffer of the request, or null when the request already ended.
+     */
+    private Events events(String request) {
+        synchronized (requests) {
+            Events events = requests.get(request);
+            if (events == null) {
+                if (ended.containsKey(request)) {
+                    return null;
+                }
+                if (requests.size() >= maxRequests) {
+                    Iterator<Events> oldest = requests.values().iterator();
+                    oldest.next().close();
+                    oldest.remove();
+                }
+                events = new Events(maxEvents);
+                requests.put(request, events);
+            }
+            return events;
+        }
+    }
+
+    private void flush(String request, Level level) {
+        Events events = remove(request);
+        if (events != null) {
+            for (RecordedEvent event : events.close()) {
+                event.write(level);
+            }
+        }
+    }
+
+    private void discard(String request) {
+        Events events = remove(request);
+        if (events != null) {
+            events.close();
+        }
+    }
+
+    private Events remove(String request) {
+        synchronized (requests) {
+            ended.put(request, Boolean.TRUE);
+            return requests.remove(request);
+        }
+    }
+
+    private static String requestId(List<Pair> pairs) {
+        String track = null;
+        for (Pair pair : pairs) {
+            int key = pair.getKey();
+            if (key != LogbookKey.REQUEST.id() && key != LogbookKey.TRACK.id()) {
+                continue;
+            }
+            Object value = pair.getValue();
+            if (value == null || value instanceof LazyValue) {
+                continue;
+            }
+            if (key == LogbookKey.REQUEST.id()) {
+                return value.toString();
+            }
+            if (track == null) {
+                track = value.toString();
+            }
+        }
+        return track;
+    }
+
+    private static Object status(List<Pair> pairs) {
+        Object status = null;
+        for (Pair pair : pairs) {
+            if (pair.getKey() == LogbookKey.STATUS.id()) {
+                status = pair.getValue();
+            }
+        }
+        return status;
+    }
+
+    private static final class Events {
+        private final int capacity;
+        private final ArrayDeque<RecordedEvent> events = new ArrayDeque<>();
+        private boolean closed;
+
+        private Events(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized boolean add(RecordedEvent event) {
+            if (closed) {
+                return false;
+            }
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+            return true;
+        }
+
+        private synchronized List<RecordedEvent> close() {
+            closed = true;
+            List<RecordedEvent> drained = new ArrayList<>(events);
+            events.clear();
+            return drained;
+        }
+    }
+}
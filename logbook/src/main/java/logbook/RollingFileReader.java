@@ -0,0 +1,218 @@
+package logbook;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static logbook.RollingFileSink.COMPRESSED_SUFFIX;
+import static logbook.RollingFileSink.TEMPORARY_SUFFIX;
+
+/**
+ * Reads the segments written by {@link RollingFileSink} as one stream, oldest first, decompressing
+ * the compressed ones. The active compressed segment is read up to its last flushed batch. A
+ * rotated compressed segment that ends early, e.g. after a crash, is read up to where it ends and
+ * reported to the {@code truncated} callback, so it is not taken for a complete one.
+ */
+public final class RollingFileReader {
+
+    private RollingFileReader() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Rotated segments in order followed by the active segment.
+     */
+    public static List<Path> segments(Path file) throws IOException {
+        List<Path> segments = rotatedSegments(file);
+        segments.addAll(activeSegments(file));
+        return segments;
+    }
+
+    public static InputStream open(Path file) throws IOException {
+        return open(file, segment -> {
+        });
+    }
+
+    /**
+     * As {@link #open(Path)}, calling {@code truncated} for every rotated segment that ends early.
+     */
+    public static InputStream open(Path file, Consumer<Path> truncated) throws IOException {
+        Set<Path> active = new HashSet<>(activeSegments(file));
+        Iterator<Path> segments = segments(file).iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return segments.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    Path segment = segments.next();
+                    return openSegment(segment, active.contains(segment) ? null : truncated);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    public static BufferedReader newBufferedReader(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8));
+    }
+
+    public static BufferedReader newBufferedReader(Path file, Consumer<Path> truncated) throws IOException {
+        return new BufferedReader(new InputStreamReader(open(file, truncated), StandardCharsets.UTF_8));
+    }
+
+    static List<Path> rotatedSegments(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        String prefix = absolute.getFileName() + ".";
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(absolute.getParent(), prefix + "*")) {
+            for (Path path : directory) {
+                String name = path.getFileName().toString();
+                long sequence = sequence(name.substring(prefix.length()));
+                if (sequence >= 0 && (name.endsWith(COMPRESSED_SUFFIX) || !segments.containsKey(sequence))) {
+                    segments.put(sequence, path);
+                }
+            }
+        }
+        return new ArrayList<>(segments.values());
+    }
+
+    static List<Path> activeSegments(Path file) {
+        Path absolute = file.toAbsolutePath();
+        List<Path> active = new ArrayList<>(2);
+        if (Files.isRegularFile(absolute)) {
+            active.add(absolute);
+        }
+        Path compressed = sibling(absolute, COMPRESSED_SUFFIX);
+        if (Files.isRegularFile(compressed)) {
+            active.add(compressed);
+        }
+        return active;
+    }
+
+    static long lastSequence(Path file) throws IOException {
+        List<Path> segments = rotatedSegments(file);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        String prefix = file.toAbsolutePath().getFileName() + ".";
+        return sequence(segments.get(segments.size() - 1).getFileName().toString().substring(prefix.length()));
+    }
+
+    static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    /**
+     * Sequence of a rotated segment from the part after {@code file.}, -1 for other files.
+     */
+    private static long sequence(String suffix) {
+        if (suffix.endsWith(TEMPORARY_SUFFIX)) {
+            return -1;
+        }
+
+        String digits = suffix.endsWith(COMPRESSED_SUFFIX) ? suffix.substring(0, suffix.length() - COMPRESSED_SUFFIX.length()) : suffix;
+        if (digits.isEmpty() || digits.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Long.parseLong(digits);
+    }
+
+    /**
+     * A null {@code truncated} callback marks the active segment, whose end is expected.
+     */
+    private static InputStream openSegment(Path segment, Consumer<Path> truncated) throws IOException {
+        String name = segment.getFileName().toString();
+        if (name.endsWith(COMPRESSED_SUFFIX)) {
+            InputStream input = Files.newInputStream(segment);
+            Runnable ended = truncated == null ? () -> {
+            } : () -> truncated.accept(segment);
+            try {
+                return new TruncatedGzipInputStream(new GZIPInputStream(input), ended);
+            } catch (EOFException e) {
+                input.close();
+                ended.run();
+                return InputStream.nullInputStream();
+            }
+        }
+
+        try {
+            return Files.newInputStream(segment);
+        } catch (NoSuchFileException e) {
+            Path compressed = sibling(segment, COMPRESSED_SUFFIX);
+            if (Files.exists(compressed)) {
+                return openSegment(compressed, truncated);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A compressed segment that is still written has no gzip trailer yet; one that was rotated
+     * should have one, so its early end is reported once.
+     */
+    private static final class TruncatedGzipInputStream extends FilterInputStream {
+        private Runnable ended;
+
+        private TruncatedGzipInputStream(InputStream input, Runnable ended) {
+            super(input);
+            this.ended = ended;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (EOFException e) {
+                end();
+                return -1;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (EOFException e) {
+                end();
+                return -1;
+            }
+        }
+
+        private void end() {
+            if (ended != null) {
+                ended.run();
+                ended = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package logbook;
+
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes text lines to {@code file} and rotates it by size or age to {@code file.1}, {@code file.2}...
+ * Rotated segments are gzip compressed on a background thread, so the writer thread never waits
+ * for compression. With {@link Builder#compressActive(boolean)} the active segment is written
+ * compressed ({@code file.gz}), flushed after every batch, and rotated without recompression.
+ * Segments are read back in order with {@link RollingFileReader}. A failed rotation keeps writing
+ * to the active segment, and failed compressions are counted in {@link #errors()}.
+ */
+public final class RollingFileSink extends QueueSink {
+    static final String COMPRESSED_SUFFIX = ".gz";
+    static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path file;
+    private final long maxBytes;
+    private final long intervalMillis;
+    private final boolean compressActive;
+    private final int compressionLevel;
+    private final ExecutorService compressor;
+
+    private FileChannel channel;
+    private OutputStream compressed;
+    private long segmentBytes;
+    private long segmentStart;
+    private long sequence;
+
+    private RollingFileSink(Builder builder) throws IOException {
+        super("logbook-rolling-file-sink", builder.minimumLevel, builder.queueCapacity, DEFAULT_BATCH_SIZE, builder.renderOnWriter);
+        this.file = builder.file.toAbsolutePath();
+        this.maxBytes = builder.maxBytes;
+        this.intervalMillis = builder.interval == null ? Long.MAX_VALUE : builder.interval.toMillis();
+        this.compressActive = builder.compressActive;
+        this.compressionLevel = builder.compressionLevel;
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "logbook-rolling-file-compressor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        this.sequence = RollingFileReader.lastSequence(file) + 1;
+        for (Path segment : RollingFileReader.rotatedSegments(file)) {
+            if (!segment.getFileName().toString().endsWith(COMPRESSED_SUFFIX)) {
+                compressor.execute(() -> compress(segment));
+            }
+        }
+        for (Path active : RollingFileReader.activeSegments(file)) {
+            if (Files.size(active) > 0) {
+                rotate(active);
+            } else {
+                Files.delete(active);
+            }
+        }
+
+        openSegment();
+        start();
+    }
+
+    public static Builder builder(Path file) {
+        return new Builder(file);
+    }
+
+    @Override
+    void writeBatch(ByteBuffer[] buffers, int count) throws IOException {
+        if (!channel.isOpen()) {
+            openSegment();
+        }
+        if (segmentBytes > 0 && System.currentTimeMillis() - segmentStart >= intervalMillis) {
+            rotateActive();
+        }
+
+        if (compressActive) {
+            for (int i = 0; i < count; i++) {
+                ByteBuffer buffer = buffers[i];
+                compressed.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                segmentBytes += buffer.remaining();
+            }
+            compressed.flush();
+        } else {
+            segmentBytes += ChannelSink.writeFully(channel, buffers, count);
+        }
+
+        if (segmentBytes >= maxBytes) {
+            rotateActive();
+        }
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        try {
+            closeSegment();
+        } finally {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Path activePath() {
+        return compressActive ? RollingFileReader.sibling(file, COMPRESSED_SUFFIX) : file;
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(activePath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (compressActive) {
+            compressed = gzip(Channels.newOutputStream(channel), true);
+        }
+        segmentBytes = 0;
+        segmentStart = System.currentTimeMillis();
+    }
+
+    private void closeSegment() throws IOException {
+        if (compressed != null) {
+            compressed.close();
+            compressed = null;
+        }
+        channel.close();
+    }
+
+    /**
+     * Reopens the active segment even when the rename fails, so later batches are appended to it
+     * and rotation is tried again once it is due; a segment that cannot be opened is opened again
+     * by the next batch.
+     */
+    private void rotateActive() throws IOException {
+        closeSegment();
+        try {
+            rotate(activePath());
+        } finally {
+            openSegment();
+        }
+    }
+
+    private void rotate(Path active) throws IOException {
+        boolean alreadyCompressed = active.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+        Path rotated = RollingFileReader.sibling(file, "." + sequence + (alreadyCompressed ? COMPRESSED_SUFFIX : ""));
+        Files.move(active, rotated, StandardCopyOption.ATOMIC_MOVE);
+        sequence++;
+        if (!alreadyCompressed) {
+            compressor.execute(() -> compress(rotated));
+        }
+    }
+
+    private void compress(Path segment) {
+        Path target = RollingFileReader.sibling(segment, COMPRESSED_SUFFIX);
+        Path temporary = RollingFileReader.sibling(target, TEMPORARY_SUFFIX);
+        try {
+            try (InputStream input = Files.newInputStream(segment);
+                 OutputStream output = gzip(Files.newOutputStream(temporary), false)) {
+                input.transferTo(output);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            error(e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // the plain segment is still there
+            }
+        }
+    }
+
+    private OutputStream gzip(OutputStream output, boolean syncFlush) throws IOException {
+        return new GZIPOutputStream(output, 64 * 1024, syncFlush) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+    }
+
+    public static final class Builder {
+        private final Path file;
+        private Level minimumLevel = Level.INFO;
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration interval;
+        private boolean compressActive;
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private boolean renderOnWriter;
+
+        private Builder(Path file) {
+            this.file = file;
+        }
+
+        public Builder minimumLevel(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+            return this;
+        }
+
+        /**
+         * Rotates once the active segment has this many uncompressed bytes.
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("Max bytes must be positive");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Rotates the active segment when it is older than the interval, checked on every write.
+         */
+        public Builder interval(Duration interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        public Builder compressActive(boolean compressActive) {
+            this.compressActive = compressActive;
+            return this;
+        }
+
+        public Builder compressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Renders events on the writer thread, so lazy values are evaluated there; off by default.
+         */
+        public Builder renderOnWriter(boolean renderOnWriter) {
+            this.renderOnWriter = renderOnWriter;
+            return this;
+        }
+
+        public RollingFileSink build() throws IOException {
+            return new RollingFileSink(this);
+        }
+    }
+}
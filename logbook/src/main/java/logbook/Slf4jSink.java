@@ -0,0 +1,34 @@
+package logbook;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes through the SLF4J logger of the event, which is what Logbook does when no sink is installed.
+ */
+public final class Slf4jSink implements LogbookSink {
+    public static final Slf4jSink INSTANCE = new Slf4jSink();
+
+    private Slf4jSink() {
+    }
+
+    @Override
+    public boolean isEnabled(Logger logger, Level level) {
+        return LoggerLevels.isEnabled(logger, level);
+    }
+
+    @Override
+    public void write(LogbookRecord record) {
+        write(record.logger(), record.level(), record.pairs(), record.exception(), record.settings());
+    }
+
+    static void write(Logger logger, Level level, List<Pair> pairs, Throwable exception, LogbookSettings settings) {
+        StringBuilder format = new StringBuilder(pairs.size() * 16);
+        List<Object> arguments = new ArrayList<>(pairs.size() + 1);
+        Logbook.appendMessage(pairs, exception, settings, format, arguments);
+        LoggerLevels.log(logger, level, format.toString(), arguments.toArray());
+    }
+}
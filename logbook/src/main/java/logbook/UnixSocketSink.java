@@ -0,0 +1,311 @@
+package logbook;
+
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams events as text lines to a local agent listening on a Unix domain socket, with one
+ * gathering write per batch. Lines the agent has not taken yet, because it is slow or the
+ * connection is down, stay pending up to {@link Builder#maxPendingBytes(long)}; beyond that the
+ * {@link Overload} policy drops lines. The connection is retried with a growing delay, and a line
+ * cut off by a lost connection is sent again in full. Needs Java 16 or later at runtime.
+ */
+public final class UnixSocketSink extends QueueSink {
+    static final long DEFAULT_MAX_PENDING_BYTES = 4L * 1024 * 1024;
+    static final long MIN_RECONNECT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final long MAX_RECONNECT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final long STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * What to drop once the pending lines reach their limit.
+     */
+    public enum Overload {
+        /** Drops the arriving lines and keeps the pending ones. */
+        DROP_NEWEST,
+        /** Drops the oldest pending lines to make room. */
+        DROP_OLDEST
+    }
+
+    private final SocketAddress address;
+    private final long maxPendingBytes;
+    private final Overload overload;
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    private final ByteBuffer[] writes = new ByteBuffer[DEFAULT_BATCH_SIZE];
+
+    private volatile SocketChannel channel;
+    private long reconnectDelay = MIN_RECONNECT_NANOS;
+    private long nextConnect = System.nanoTime();
+    private boolean stalled;
+    private volatile long pendingBytes;
+    private volatile long connects;
+    private volatile long disconnects;
+
+    private UnixSocketSink(Builder builder) {
+        super("logbook-unix-socket-sink", builder.minimumLevel, builder.queueCapacity, DEFAULT_BATCH_SIZE, builder.renderOnWriter);
+        this.address = UnixSockets.address(builder.path.toAbsolutePath());
+        this.maxPendingBytes = builder.maxPendingBytes;
+        this.overload = builder.overload;
+        connect();
+        start();
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    public static boolean isSupported() {
+        return UnixSockets.isSupported();
+    }
+
+    public boolean isConnected() {
+        return channel != null;
+    }
+
+    /**
+     * Connections made, the first one included.
+     */
+    public long connects() {
+        return connects;
+    }
+
+    /**
+     * Connections lost while writing to the agent.
+     */
+    public long disconnects() {
+        return disconnects;
+    }
+
+    /**
+     * Bytes waiting for the agent.
+     */
+    public long pendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Waits until the queued lines are written and the agent took the pending ones, unless the
+     * agent is not connected or stops taking lines.
+     */
+    @Override
+    public void flush() {
+        super.flush();
+        long last = pendingBytes;
+        long since = System.nanoTime();
+        while (last > 0 && isConnected() && System.nanoTime() - since < CLOSE_TIMEOUT_NANOS) {
+            LockSupport.parkNanos(WAIT_NANOS);
+            long current = pendingBytes;
+            if (current != last) {
+                last = current;
+                since = System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    void writeBatch(ByteBuffer[] buffers, int count) {
+        for (int i = 0; i < count; i++) {
+            enqueue(buffers[i]);
+        }
+        send();
+    }
+
+    @Override
+    void idle() {
+        send();
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        long start = System.nanoTime();
+        send();
+        while (!pending.isEmpty() && System.nanoTime() - start < CLOSE_TIMEOUT_NANOS) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            send();
+        }
+        while (pending.poll() != null) {
+            drop();
+        }
+        pendingBytes = 0;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void enqueue(ByteBuffer line) {
+        int length = line.remaining();
+        if (pendingBytes + length > maxPendingBytes && overload == Overload.DROP_OLDEST) {
+            dropOldest(length);
+        }
+        if (pendingBytes + length > maxPendingBytes) {
+            drop();
+            return;
+        }
+        pending.add(line);
+        pendingBytes += length;
+    }
+
+    /**
+     * Drops whole lines from the head; a line partly written to the agent is kept.
+     */
+    private void dropOldest(int length) {
+        ByteBuffer partial = pending.peek() != null && pending.peek().position() > 0 ? pending.poll() : null;
+        while (pendingBytes + length > maxPendingBytes && !pending.isEmpty()) {
+            pendingBytes -= pending.poll().remaining();
+            drop();
+        }
+        if (partial != null) {
+            pending.addFirst(partial);
+        }
+    }
+
+    /**
+     * Writes pending lines until none are left or the agent took nothing for a while; once stalled,
+     * later calls only write what the agent takes right away, so the overload policy stays in charge
+     * of dropping instead of a full queue.
+     */
+    private void send() {
+        if (pending.isEmpty() || channel == null && !connect()) {
+            return;
+        }
+
+        long progress = System.nanoTime();
+        try {
+            while (!pending.isEmpty()) {
+                int count = 0;
+                for (Iterator<ByteBuffer> lines = pending.iterator(); lines.hasNext() && count < writes.length; ) {
+                    writes[count++] = lines.next();
+                }
+
+                long written = channel.write(writes, 0, count);
+                if (written > 0) {
+                    pendingBytes -= written;
+                    while (!pending.isEmpty() && !pending.peek().hasRemaining()) {
+                        pending.poll();
+                    }
+                    progress = System.nanoTime();
+                    stalled = false;
+                } else if (stalled || System.nanoTime() - progress > STALL_NANOS) {
+                    stalled = true;
+                    return;
+                } else {
+                    LockSupport.parkNanos(WAIT_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            disconnect();
+        }
+    }
+
+    private boolean connect() {
+        long now = System.nanoTime();
+        if (now - nextConnect < 0) {
+            return false;
+        }
+
+        SocketChannel opened = null;
+        try {
+            opened = UnixSockets.open();
+            opened.connect(address);
+            opened.configureBlocking(false);
+            channel = opened;
+            connects++;
+            reconnectDelay = MIN_RECONNECT_NANOS;
+            return true;
+        } catch (IOException e) {
+            closeQuietly(opened);
+            nextConnect = now + reconnectDelay;
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_NANOS);
+            return false;
+        }
+    }
+
+    private void disconnect() {
+        closeQuietly(channel);
+        channel = null;
+        disconnects++;
+        stalled = false;
+        nextConnect = System.nanoTime();
+        ByteBuffer partial = pending.peek();
+        if (partial != null && partial.position() > 0) {
+            pendingBytes += partial.position();
+            partial.rewind();
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // already broken
+        }
+    }
+
+    public static final class Builder {
+        private final Path path;
+        private Level minimumLevel = Level.INFO;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private boolean renderOnWriter;
+        private long maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+        private Overload overload = Overload.DROP_NEWEST;
+
+        private Builder(Path path) {
+            this.path = path;
+        }
+
+        public Builder minimumLevel(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Renders events on the writer thread, so lazy values are evaluated there; off by default.
+         */
+        public Builder renderOnWriter(boolean renderOnWriter) {
+            this.renderOnWriter = renderOnWriter;
+            return this;
+        }
+
+        /**
+         * Bytes kept for the agent while it is slow or disconnected.
+         */
+        public Builder maxPendingBytes(long maxPendingBytes) {
+            if (maxPendingBytes <= 0) {
+                throw new IllegalArgumentException("Max pending bytes must be positive");
+            }
+            this.maxPendingBytes = maxPendingBytes;
+            return this;
+        }
+
+        public Builder overload(Overload overload) {
+            this.overload = overload;
+            return this;
+        }
+
+        /**
+         * Connects right away if the agent is listening, otherwise on the next write.
+         */
+        public UnixSocketSink build() {
+            return new UnixSocketSink(this);
+        }
+    }
+}
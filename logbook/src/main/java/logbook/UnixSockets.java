@@ -0,0 +1,75 @@
+package logbook;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Unix domain socket channels, which need Java 16 while Logbook is built for Java 11; the methods
+ * are looked up once and fail with {@link UnsupportedOperationException} on older runtimes.
+ */
+final class UnixSockets {
+    private static final ProtocolFamily UNIX;
+    private static final MethodHandle ADDRESS;
+    private static final MethodHandle OPEN;
+
+    static {
+        ProtocolFamily unix = null;
+        MethodHandle address = null;
+        MethodHandle open = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> addressType = Class.forName("java.net.UnixDomainSocketAddress");
+            address = lookup.findStatic(addressType, "of", MethodType.methodType(addressType, Path.class));
+            open = lookup.findStatic(SocketChannel.class, "open", MethodType.methodType(SocketChannel.class, ProtocolFamily.class));
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            address = null;
+        }
+        UNIX = unix;
+        ADDRESS = address;
+        OPEN = open;
+    }
+
+    private UnixSockets() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static boolean isSupported() {
+        return ADDRESS != null;
+    }
+
+    static SocketAddress address(Path path) {
+        check();
+        try {
+            return (SocketAddress) ADDRESS.invoke(path);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static SocketChannel open() throws IOException {
+        check();
+        try {
+            return (SocketChannel) OPEN.invoke(UNIX);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void check() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Unix domain sockets need Java 16 or later");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CallerCaptureTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CallerCapture.disable();
+    }
+
+    @Test
+    void shouldAddCaller() {
+        Logbook.instance(logger).message("hello").caller().info();
+
+        verify(logger)
+                .info("message=\"{}\" class=\"{}\" method=\"{}\" package=\"{}\"",
+                        new Object[]{"hello", "logbook.CallerCaptureTest", "shouldAddCaller", "logbook"});
+    }
+
+    @Test
+    void shouldReplaceCallerOfReusedInstance() {
+        Logbook logbook = Logbook.instance(logger).message("hello");
+
+        for (int i = 0; i < 2; i++) {
+            logbook.caller().add("count", i).info();
+        }
+
+        verify(logger)
+                .info("message=\"{}\" class=\"{}\" method=\"{}\" package=\"{}\" count=\"{}\" count=\"{}\"",
+                        new Object[]{"hello", "logbook.CallerCaptureTest", "shouldReplaceCallerOfReusedInstance", "logbook", "0", "1"});
+    }
+
+    @Test
+    void shouldAddCallerToEveryEventWhenEnabled() {
+        CallerCapture.enable();
+
+        Logbook.instance(logger).message("hello").warn();
+
+        verify(logger)
+                .warn("message=\"{}\" class=\"{}\" method=\"{}\" package=\"{}\"",
+                        new Object[]{"hello", "logbook.CallerCaptureTest", "shouldAddCallerToEveryEventWhenEnabled", "logbook"});
+    }
+
+    @Test
+    void shouldCaptureCallerPerEventOfReusedInstance() {
+        CallerCapture.enable();
+        Logbook logbook = Logbook.instance(logger).message("hello");
+
+        logbook.info();
+        CallerCapture.disable();
+        logbook.warn();
+
+        verify(logger)
+                .info("message=\"{}\" class=\"{}\" method=\"{}\" package=\"{}\"",
+                        new Object[]{"hello", "logbook.CallerCaptureTest", "shouldCaptureCallerPerEventOfReusedInstance", "logbook"});
+        verify(logger)
+                .warn("message=\"{}\"", new Object[]{"hello"});
+    }
+
+    @Test
+    void shouldKeepManualCallerWhenEnabled() {
+        CallerCapture.enable();
+
+        Logbook.instance(logger).javaClass("Manual").info();
+
+        verify(logger)
+                .info("class=\"{}\"", new Object[]{"Manual"});
+    }
+
+    @Test
+    void shouldReuseCallerOfSameCallSite() {
+        List<Pair> first = null;
+        for (int i = 0; i < 2; i++) {
+            List<Pair> pairs = CallerCapture.capture();
+            if (first == null) {
+                first = pairs;
+            }
+            assertThat(pairs)
+                    .isSameAs(first);
+        }
+    }
+
+    @Test
+    void shouldSeparateCallSitesOfSameMethod() {
+        List<Pair> first = CallerCapture.capture();
+        List<Pair> second = CallerCapture.capture();
+
+        assertThat(first)
+                .isNotSameAs(second);
+        assertThat(first.get(1).getValue())
+                .isEqualTo(second.get(1).getValue());
+    }
+
+    @Test
+    void shouldFindCallerBelowManySkippedFrames() {
+        List<Pair> pairs = Deep.capture(CallerCapture.ESTIMATED_DEPTH * 2);
+
+        assertThat(pairs)
+                .hasSize(3);
+        assertThat(pairs.get(1).getValue())
+                .isEqualTo("shouldFindCallerBelowManySkippedFrames");
+    }
+
+    private static final class Deep {
+
+        private static List<Pair> capture(int depth) {
+            return depth == 0 ? CallerCapture.capture(Deep.class) : capture(depth - 1);
+        }
+    }
+}
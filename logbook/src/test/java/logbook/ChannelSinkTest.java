@@ -0,0 +1,119 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChannelSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+    }
+
+    private Logger logger() {
+        Logger logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.ChannelSinkTest");
+        return logger;
+    }
+
+    @Test
+    void shouldWriteLinesToFile() throws IOException {
+        Path file = directory.resolve("app.log");
+        ChannelSink sink = ChannelSink.file(file, Level.INFO);
+        LogbookSinks.install(sink);
+
+        Logbook.instance(logger()).message("hello").add("count", 1).info();
+        Logbook.instance(logger()).message("ignored").debug();
+        sink.flush();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines)
+                .hasSize(1);
+        assertThat(lines.get(0))
+                .endsWith(" INFO [" + Thread.currentThread().getName() + "] logbook.ChannelSinkTest message=\"hello\" count=\"1\"");
+    }
+
+    @Test
+    void shouldWriteStackTraces() throws IOException {
+        Path file = directory.resolve("app.log");
+        LogbookSinks.install(ChannelSink.file(file, Level.INFO));
+
+        Logbook.instance(logger()).exceptionWithStackTrace(new IllegalStateException("boom")).error();
+        LogbookSinks.uninstall();
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .anyMatch(line -> line.endsWith("exception=\"java.lang.IllegalStateException: boom\""))
+                .anyMatch(line -> line.startsWith("\tat logbook.ChannelSinkTest"));
+    }
+
+    @Test
+    void shouldWriteAllLinesFromManyThreads() throws IOException, InterruptedException {
+        Path file = directory.resolve("app.log");
+        LogbookSinks.install(ChannelSink.file(file, Level.INFO));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4000; i++) {
+            int line = i;
+            executor.execute(() -> Logbook.instance(logger()).add("line", line).info());
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS))
+                .isTrue();
+        LogbookSinks.uninstall();
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .hasSize(4000);
+    }
+
+    @Test
+    void shouldDropLinesWhenQueueIsFull() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve("app.log"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        ChannelSink sink = new ChannelSink(channel, true, Level.INFO, 1, 1);
+        LogbookRecord record = new LogbookRecord(logger(), Level.INFO, List.of(new Pair("key", "value")), null);
+
+        for (int i = 0; i < 1000; i++) {
+            sink.write(record);
+        }
+        sink.close();
+
+        assertThat(sink.dropped() + Files.readAllLines(directory.resolve("app.log")).size())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    void shouldCountLinesTheChannelRejectsAsDropped() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve("app.log"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.close();
+        ChannelSink sink = new ChannelSink(channel, false, Level.INFO, 100, 10);
+        LogbookRecord record = new LogbookRecord(logger(), Level.INFO, List.of(new Pair("key", "value")), null);
+
+        for (int i = 0; i < 25; i++) {
+            sink.write(record);
+        }
+        sink.close();
+
+        assertThat(sink.dropped())
+                .isEqualTo(25);
+    }
+}
@@ -0,0 +1,165 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ExceptionRendererTest {
+
+    private static final StackTraceElement[] FRAMES = {
+            new StackTraceElement("com.acme.Service", "call", "Service.java", 42),
+            new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 10),
+            new StackTraceElement("org.framework.Chain", "next", "Chain.java", 20),
+            new StackTraceElement("com.acme.Controller", "handle", "Controller.java", 17),
+            new StackTraceElement("org.framework.Server", "run", null, -1),
+            new StackTraceElement("java.lang.Thread", "run", "Thread.java", 829),
+    };
+
+    @AfterEach
+    void tearDown() {
+        ExceptionRenderer.uninstall();
+    }
+
+    private static IllegalStateException exception() {
+        IllegalStateException exception = new IllegalStateException("boom");
+        exception.setStackTrace(FRAMES);
+        return exception;
+    }
+
+    private static IllegalStateException exceptionWithCause() {
+        IllegalStateException cause = new IllegalStateException("cause");
+        StackTraceElement[] frames = new StackTraceElement[FRAMES.length + 1];
+        frames[0] = new StackTraceElement("com.acme.Store", "write", "Store.java", 9);
+        System.arraycopy(FRAMES, 0, frames, 1, FRAMES.length);
+        cause.setStackTrace(frames);
+
+        IllegalStateException exception = exception();
+        exception.initCause(cause);
+        return exception;
+    }
+
+    @Test
+    void shouldRenderLikePrintStackTrace() {
+        IOException suppressed = new IOException("close");
+        suppressed.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.acme.Store", "close", "Store.java", 30), FRAMES[4], FRAMES[5]});
+        IllegalStateException exception = exceptionWithCause();
+        exception.addSuppressed(suppressed);
+        StringWriter expected = new StringWriter();
+        exception.printStackTrace(new PrintWriter(expected));
+
+        assertThat(ExceptionRenderer.FULL.appendTo(new StringBuilder(), exception))
+                .hasToString(expected.toString());
+    }
+
+    @Test
+    void shouldFilterFramesByPackagePrefix() {
+        ExceptionRenderer renderer = ExceptionRenderer.builder().exclude("org.framework.").build();
+
+        assertThat(renderer.render(exception()))
+                .isEqualTo("java.lang.IllegalStateException: boom\n"
+                        + "\tat com.acme.Service.call(Service.java:42)\n"
+                        + "\t... 2 filtered\n"
+                        + "\tat com.acme.Controller.handle(Controller.java:17)\n"
+                        + "\t... 1 filtered\n"
+                        + "\tat java.lang.Thread.run(Thread.java:829)");
+    }
+
+    @Test
+    void shouldElideFramesCommonWithEnclosingTrace() {
+        ExceptionRenderer renderer = ExceptionRenderer.builder().exclude("org.framework.").build();
+
+        assertThat(renderer.render(exceptionWithCause()))
+                .endsWith("Caused by: java.lang.IllegalStateException: cause\n"
+                        + "\tat com.acme.Store.write(Store.java:9)\n"
+                        + "\t... 6 more");
+    }
+
+    @Test
+    void shouldCapFramesAndCauses() {
+        ExceptionRenderer renderer = ExceptionRenderer.builder().maxFrames(2).maxCauses(0).build();
+
+        assertThat(renderer.render(exceptionWithCause()))
+                .isEqualTo("java.lang.IllegalStateException: boom\n"
+                        + "\tat com.acme.Service.call(Service.java:42)\n"
+                        + "\tat org.framework.Proxy.invoke(Proxy.java:10)\n"
+                        + "\t... 4 frames omitted\n"
+                        + "\t... 1 causes omitted");
+    }
+
+    @Test
+    void shouldStopAtCircularCauses() {
+        Exception first = new Exception("first");
+        Exception second = new Exception("second", first);
+        first.initCause(second);
+
+        assertThat(ExceptionRenderer.builder().maxFrames(1).build().render(first))
+                .contains("Caused by: [CIRCULAR REFERENCE: java.lang.Exception: first]");
+    }
+
+    @Test
+    void shouldCacheFrames() {
+        ExceptionRenderer.clearCache();
+
+        ExceptionRenderer.FULL.render(exception());
+        ExceptionRenderer.FULL.render(exception());
+
+        assertThat(ExceptionRenderer.cachedFrames())
+                .isEqualTo(FRAMES.length);
+    }
+
+    @Test
+    void shouldEvictUnusedFramesAtLimit() {
+        ExceptionRenderer.clearCache();
+        StackTraceElement hotFrame = new StackTraceElement("com.acme.Hot", "call", "Hot.java", 1);
+        StackTraceElement coldFrame = new StackTraceElement("com.acme.Cold", "call", "Cold.java", 1);
+        String hot = ExceptionRenderer.frame(hotFrame);
+        String cold = ExceptionRenderer.frame(coldFrame);
+        for (int i = 0; i < ExceptionRenderer.MAX_CACHED_FRAMES * 3; i++) {
+            ExceptionRenderer.frame(new StackTraceElement("com.acme.Generated", "call", "Generated.java", i));
+            ExceptionRenderer.frame(hotFrame);
+        }
+
+        assertThat(ExceptionRenderer.cachedFrames())
+                .isEqualTo(ExceptionRenderer.MAX_CACHED_FRAMES);
+        assertThat(ExceptionRenderer.frame(hotFrame))
+                .isSameAs(hot);
+        assertThat(ExceptionRenderer.frame(coldFrame))
+                .isNotSameAs(cold)
+                .isEqualTo("com.acme.Cold.call(Cold.java:1)");
+    }
+
+    @Test
+    void shouldAppendInstalledRendererToMessage() {
+        Logger logger = mock(Logger.class);
+        ExceptionRenderer renderer = ExceptionRenderer.builder().exclude("org.framework.").maxFrames(1).build();
+        ExceptionRenderer.install(renderer);
+        IllegalStateException exception = exception();
+
+        Logbook.instance(logger).exceptionWithStackTrace(exception).error();
+
+        verify(logger)
+                .error("exception=\"{}\"\n{}", new Object[]{
+                        "java.lang.IllegalStateException: boom",
+                        "java.lang.IllegalStateException: boom\n"
+                                + "\tat com.acme.Service.call(Service.java:42)\n"
+                                + "\t... 5 frames omitted"});
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> ExceptionRenderer.builder().maxFrames(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExceptionRenderer.builder().exclude(""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
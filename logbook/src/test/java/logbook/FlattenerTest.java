@@ -0,0 +1,192 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class FlattenerTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Flattener.limits(Flattener.DEFAULT_MAX_DEPTH, Flattener.DEFAULT_MAX_FIELDS);
+        Flattener.unregister(User.class);
+        Redactor.uninstall();
+    }
+
+    private static Map<String, Object> user() {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", 42);
+        user.put("roles", List.of("admin", "dev"));
+        user.put("address", Map.of("city", "Lyon"));
+        return user;
+    }
+
+    private static String flattened(String key, Object value) {
+        Pair pair = new Pair(key, null, new Object[]{new NestedValue(value)});
+        return new LogbookRecord(mock(Logger.class), Level.INFO, List.of(pair), null).appendTo(new StringBuilder()).toString();
+    }
+
+    @Test
+    void shouldFlattenMapsAndIterablesIntoDottedKeys() {
+        Logbook.instance(logger).message("login").flatten("user", user()).info();
+
+        verify(logger).info("message=\"{}\" user.id=\"{}\" user.roles.0=\"{}\" user.roles.1=\"{}\" user.address.city=\"{}\"",
+                new Object[]{"login", "42", "admin", "dev", "Lyon"});
+    }
+
+    @Test
+    void shouldKeepToStringForAddedMaps() {
+        Logbook.instance(logger).add("user", Map.of("id", 42)).info();
+
+        verify(logger).info("user=\"{}\"", new Object[]{"{id=42}"});
+    }
+
+    @Test
+    void shouldWriteFlattenedFieldsToRecords() {
+        assertThat(flattened("user", user()))
+                .isEqualTo("user.id=\"42\" user.roles.0=\"admin\" user.roles.1=\"dev\" user.address.city=\"Lyon\"");
+    }
+
+    @Test
+    void shouldCleanKeysAndValues() {
+        assertThat(flattened("user", Map.of("first name!", "say \"hi\"")))
+                .isEqualTo("user.firstname=\"say hi\"");
+    }
+
+    @Test
+    void shouldWriteScalarsAsOneField() {
+        assertThat(flattened("count", 3))
+                .isEqualTo("count=\"3\"");
+        assertThat(flattened("array", new Object[]{"a", null}))
+                .isEqualTo("array.0=\"a\" array.1=\"null\"");
+    }
+
+    @Test
+    void shouldFlattenPrimitiveArrays() {
+        assertThat(flattened("ids", new long[]{7, 8}))
+                .isEqualTo("ids.0=\"7\" ids.1=\"8\"");
+        assertThat(flattened("user", Map.of("scores", new double[]{0.5})))
+                .isEqualTo("user.scores.0=\"0.5\"");
+        assertThat(flattened("empty", new int[0]))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldSkipEmptyValuesWithoutExtraSpaces() {
+        Pair before = new Pair("before", 1);
+        Pair empty = new Pair("empty", null, new Object[]{new NestedValue(Map.of())});
+        Pair after = new Pair("after", 2);
+        LogbookRecord record = new LogbookRecord(logger, Level.INFO, List.of(empty, before, empty, after), null);
+
+        assertThat(record.appendTo(new StringBuilder("line ")))
+                .hasToString("line before=\"1\" after=\"2\"");
+    }
+
+    @Test
+    void shouldStopAtMaxDepth() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> current = root;
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> child = new LinkedHashMap<>();
+            current.put("level", child);
+            current = child;
+        }
+        current.put("leaf", 1);
+        root.put("shallow", 1);
+        Flattener.limits(2, 10);
+
+        assertThat(flattened("tree", root))
+                .isEqualTo("tree.shallow=\"1\" tree.truncated=\"true\"");
+    }
+
+    @Test
+    void shouldStopAtMaxFieldsWithoutIteratingTheRest() {
+        Flattener.limits(4, 3);
+        List<Integer> iterated = new ArrayList<>();
+        Iterable<Integer> numbers = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                iterated.add(next);
+                return next++;
+            }
+        };
+
+        assertThat(flattened("numbers", numbers))
+                .isEqualTo("numbers.0=\"0\" numbers.1=\"1\" numbers.2=\"2\" numbers.truncated=\"true\"");
+        assertThat(iterated)
+                .hasSize(3);
+    }
+
+    @Test
+    void shouldUseRegisteredAccessors() {
+        Flattener.register(User.class, (user, fields) -> {
+            fields.field("id", user.id);
+            fields.field("tags", user.tags);
+        });
+
+        assertThat(flattened("user", new Admin(7, List.of("ops"))))
+                .isEqualTo("user.id=\"7\" user.tags.0=\"ops\"");
+    }
+
+    @Test
+    void shouldRedactByParentKeyAndFieldName() {
+        Redactor.install(Redactor.builder().key("password").key("secret").emails().build());
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("login", "jane@example.com");
+        credentials.put("password", "hunter2");
+
+        assertThat(flattened("credentials", credentials))
+                .isEqualTo("credentials.login=\"***\" credentials.password=\"***\"");
+        assertThat(flattened("secret", Map.of("value", "plain")))
+                .isEqualTo("secret.value=\"***\"");
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimits() {
+        assertThatThrownBy(() -> Flattener.limits(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static class User {
+        private final int id;
+        private final List<String> tags;
+
+        private User(int id, List<String> tags) {
+            this.id = id;
+            this.tags = tags;
+        }
+    }
+
+    private static final class Admin extends User {
+        private Admin(int id, List<String> tags) {
+            super(id, tags);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlightRecorderTest {
+
+    private static final String RECORDED = "recordedLevel=\"{}\" recordedTime=\"{}\" ";
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        when(logger.isErrorEnabled()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        FlightRecorder.stop();
+    }
+
+    @Test
+    void shouldNotLogDisabledLevelWhileRecording() {
+        FlightRecorder.start(4);
+
+        Logbook.instance(logger).message("debug").debug();
+
+        verify(logger, never())
+                .debug(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldDumpRecordedEventsBeforeError() {
+        FlightRecorder.start(4);
+
+        Logbook.instance(logger).message("debug").add("key", 1).debug();
+        Logbook.instance(logger).message("info").info();
+        Logbook.instance(logger).message("error").error();
+
+        InOrder order = inOrder(logger);
+        order.verify(logger)
+                .info("message=\"{}\"", new Object[]{"info"});
+        order.verify(logger)
+                .error(eq(RECORDED + "message=\"{}\" key=\"{}\""), argThat((Object[] arguments) ->
+                        "DEBUG".equals(arguments[0]) && arguments[2].equals("debug") && arguments[3].equals("1")));
+        order.verify(logger)
+                .error("message=\"{}\"", new Object[]{"error"});
+    }
+
+    @Test
+    void shouldKeepOnlyLastEvents() {
+        FlightRecorder.start(2);
+
+        Logbook.instance(logger).message("first").debug();
+        Logbook.instance(logger).message("second").debug();
+        Logbook.instance(logger).message("third").debug();
+        FlightRecorder.dump(Level.WARN);
+
+        verify(logger, times(2))
+                .warn(anyString(), any(Object[].class));
+        verify(logger, never())
+                .warn(anyString(), argThat((Object[] arguments) -> arguments[2].equals("first")));
+    }
+
+    @Test
+    void shouldClearRingAfterDump() {
+        FlightRecorder.start(4);
+
+        Logbook.instance(logger).message("debug").debug();
+        FlightRecorder.dump(Level.WARN);
+        FlightRecorder.dump(Level.WARN);
+
+        verify(logger, times(1))
+                .warn(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldNotRecordBelowMinimumLevel() {
+        FlightRecorder.start(4, Level.DEBUG);
+
+        Logbook.instance(logger).message("trace").trace();
+        FlightRecorder.dump(Level.WARN);
+
+        verify(logger, never())
+                .warn(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldNotRecordWhenStopped() {
+        Logbook.instance(logger).message("debug").debug();
+        FlightRecorder.start(4);
+        FlightRecorder.dump(Level.WARN);
+
+        verify(logger)
+                .debug("message=\"{}\"", new Object[]{"debug"});
+        verify(logger, never())
+                .warn(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldNotDumpHalfWrittenEventsFromOtherThreads() throws Exception {
+        FlightRecorder.start(4);
+        List<String> mixed = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Object[] arguments = invocation.getArgument(1);
+            if (!arguments[2].equals(arguments[3])) {
+                mixed.add(arguments[2] + " != " + arguments[3]);
+            }
+            return null;
+        }).when(logger).warn(anyString(), any(Object[].class));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                Logbook.instance(logger).message(String.valueOf(i)).add("key", i).debug();
+            }
+        });
+        while (!writer.isDone()) {
+            FlightRecorder.dumpAll(Level.WARN);
+        }
+        writer.get();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS))
+                .isTrue();
+
+        assertThat(mixed)
+                .isEmpty();
+    }
+}
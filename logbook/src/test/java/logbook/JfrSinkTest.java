@@ -0,0 +1,155 @@
+package logbook;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JfrSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.JfrSinkTest");
+    }
+
+    private List<RecordedEvent> record(Runnable runnable, boolean enabled) throws IOException {
+        return record(runnable, Map.of(LogbookJfrEvent.NAME + "#enabled", String.valueOf(enabled)));
+    }
+
+    private List<RecordedEvent> record(Runnable runnable, Map<String, String> settings) throws IOException {
+        Path file = directory.resolve("logbook.jfr");
+        try (Recording recording = new Recording()) {
+            recording.setSettings(settings);
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(LogbookJfrEvent.NAME))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldRecordTypedFields() throws IOException {
+        List<RecordedEvent> events = record(() -> Logbook.instance(logger)
+                .message("Order {} placed", "A-1")
+                .endpoint("/orders")
+                .service("orders")
+                .request("r-1")
+                .duration(12.5)
+                .httpStatus(201)
+                .add("items", 3)
+                .debug(), true);
+
+        assertThat(events)
+                .hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("logger"))
+                .isEqualTo("logbook.JfrSinkTest");
+        assertThat(event.getString("level"))
+                .isEqualTo("DEBUG");
+        assertThat(event.getString("message"))
+                .isEqualTo("Order A-1 placed");
+        assertThat(event.getString("endpoint"))
+                .isEqualTo("/orders");
+        assertThat(event.getString("service"))
+                .isEqualTo("orders");
+        assertThat(event.getString("request"))
+                .isEqualTo("r-1");
+        assertThat(event.getDouble("durationValue"))
+                .isEqualTo(12.5);
+        assertThat(event.getInt("httpStatus"))
+                .isEqualTo(201);
+        assertThat(event.getString("fields"))
+                .isEqualTo("items=\"3\"");
+    }
+
+    @Test
+    void shouldKeepNonNumericValuesInFields() throws IOException {
+        List<RecordedEvent> events = record(() -> Logbook.instance(logger)
+                .httpStatus("OK")
+                .info(), true);
+
+        assertThat(events.get(0).getString("fields"))
+                .isEqualTo("httpStatus=\"OK\"");
+    }
+
+    @Test
+    void shouldNotRecordWhenEventIsDisabled() throws IOException {
+        List<RecordedEvent> events = record(() -> Logbook.instance(logger)
+                .message("disabled")
+                .info(), false);
+
+        assertThat(events)
+                .isEmpty();
+    }
+
+    @Test
+    void shouldNotRenderWhenEventIsDisabled() throws IOException {
+        int[] calls = {0};
+        record(() -> Logbook.instance(logger)
+                .addLazy("payload", () -> calls[0]++)
+                .info(), false);
+
+        assertThat(calls[0])
+                .isZero();
+    }
+
+    @Test
+    void shouldRecordFromMinimumLevel() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            Logbook.instance(logger).message("debug").debug();
+            Logbook.instance(logger).message("warn").warn();
+        }, Map.of(LogbookJfrEvent.NAME + "#enabled", "true", LogbookJfrEvent.NAME + "#minimumLevel", "WARN"));
+
+        assertThat(events)
+                .extracting(event -> event.getString("message"))
+                .containsExactly("warn");
+    }
+
+    @Test
+    void shouldNotCallLazySuppliers() throws IOException {
+        int[] calls = {0};
+        List<RecordedEvent> events = record(() -> Logbook.instance(logger)
+                .addLazy("payload", () -> calls[0]++)
+                .add("items", 3)
+                .info(), true);
+
+        assertThat(calls[0])
+                .isZero();
+        assertThat(events.get(0).getString("fields"))
+                .isEqualTo("items=\"3\"");
+    }
+
+    @Test
+    void shouldCombineMinimumLevelsToLowest() {
+        LogbookJfrEvent.MinimumLevelSetting setting = new LogbookJfrEvent.MinimumLevelSetting();
+
+        assertThat(setting.combine(Set.of("WARN", "ERROR")))
+                .isEqualTo("WARN");
+        assertThat(setting.combine(Set.of("FOO", "ERROR")))
+                .isEqualTo("TRACE");
+    }
+}
@@ -0,0 +1,197 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeyGuardTest {
+
+    private Logger logger;
+    private MemorySink sink;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.KeyGuardTest");
+        sink = MemorySink.builder().build();
+        LogbookSinks.install(sink);
+        KeyGuard.register("knownKey");
+        KeyGuard.maxKeys(KeySymbols.size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        LogbookSettings.apply(LogbookSettings.DEFAULTS);
+        KeyGuard.reset();
+        MessageTemplate.clear();
+    }
+
+    @Test
+    void shouldKeepKnownKeys() {
+        Logbook.instance(logger).add("knownKey", 1).info();
+
+        assertThat(sink.query().where("knownKey", "1").count())
+                .isEqualTo(1);
+        assertThat(KeyGuard.foldedEvents())
+                .isZero();
+    }
+
+    @Test
+    void shouldFoldNewKeysIntoExtra() {
+        Logbook.instance(logger).add("knownKey", 1).add("user-4711", "a").add("user-4712", "{}:{}", "b", 2).info();
+
+        MemorySink.Event event = sink.query().where("knownKey", "1").list().get(0);
+        assertThat(event)
+                .hasToString("knownKey=\"1\" extra=\"user4711=a\" extra=\"user4712=b:2\"");
+        assertThat(KeySymbols.find("user-4711"))
+                .isEqualTo(-1);
+        assertThat(KeyGuard.foldedEvents())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldShareValueFormatAcrossFoldedKeys() {
+        MessageTemplate.clear();
+        for (int i = 0; i < 100; i++) {
+            Logbook.instance(logger).add("user-" + i, "{}:{}", "b", i).info();
+        }
+
+        assertThat(sink.query().where("extra", "user99=b:99").count())
+                .isEqualTo(1);
+        assertThat(MessageTemplate.cached())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldFoldIntoMessageFormat() {
+        StringBuilder format = new StringBuilder();
+        List<Object> arguments = new ArrayList<>();
+
+        Logbook.appendMessage(List.of(new Pair("knownKey", 1), new Pair("user-4713", "a")), null, LogbookSettings.current(), format, arguments);
+
+        assertThat(format)
+                .hasToString("knownKey=\"{}\" extra=\"{}\"");
+        assertThat(arguments)
+                .containsExactly("1", "user4713=a");
+    }
+
+    @Test
+    void shouldNotFoldWithoutLimit() {
+        LogbookSettings.apply(LogbookSettings.DEFAULTS);
+
+        Logbook.instance(logger).add("knownKey", 1).add("unlimited-4711", "a").info();
+
+        assertThat(sink.query().where("unlimited-4711", "a").count())
+                .isEqualTo(1);
+        assertThat(KeyGuard.foldedEvents())
+                .isZero();
+    }
+
+    @Test
+    void shouldNotCountMapKeysTowardsKeyLimit() {
+        StringBuilder format = new StringBuilder();
+        List<Object> arguments = new ArrayList<>();
+
+        Logbook.appendMessage(List.of(new Pair("knownKey", new NestedValue(Map.of("user-4715", "a")))), null, LogbookSettings.current(), format, arguments);
+
+        assertThat(format)
+                .hasToString("knownKey.user4715=\"{}\"");
+        assertThat(arguments)
+                .containsExactly("a");
+        assertThat(KeyGuard.foldedEvents())
+                .isZero();
+    }
+
+    @Test
+    void shouldFoldNewMapKeysOfFlattenedValues() {
+        KeyGuard.maxMapKeys(1);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("knownKey", 1);
+        attributes.put("user-4714", List.of("a"));
+        StringBuilder format = new StringBuilder();
+        List<Object> arguments = new ArrayList<>();
+
+        Logbook.appendMessage(List.of(new Pair("knownKey", new NestedValue(attributes))), null, LogbookSettings.current(), format, arguments);
+
+        assertThat(format)
+                .hasToString("knownKey.knownKey=\"{}\" knownKey.extra=\"{}\"");
+        assertThat(arguments)
+                .containsExactly("1", "user4714.0=a");
+        assertThat(KeySymbols.find("user-4714"))
+                .isEqualTo(-1);
+        assertThat(KeyGuard.foldedEvents())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldWarnOnceWithCounts() {
+        for (int i = 0; i < 10; i++) {
+            Logbook.instance(logger).add("session-" + i, i).info();
+        }
+
+        List<MemorySink.Event> warnings = sink.query().level(Level.WARN).list();
+        assertThat(warnings)
+                .hasSize(1);
+        assertThat(sink.query().list().get(1).level())
+                .isEqualTo(Level.WARN);
+        assertThat(warnings.get(0).get("maxKeys"))
+                .isEqualTo(String.valueOf(KeyGuard.maxKeys()));
+        assertThat(warnings.get(0).get("foldedKeys"))
+                .isEqualTo("1");
+        assertThat(KeyGuard.foldedEvents())
+                .isEqualTo(10);
+    }
+
+    @Test
+    void shouldEstimateDistinctFoldedKeys() {
+        for (int i = 0; i < 100_000; i++) {
+            KeyGuard.register("id" + i);
+            KeyGuard.register("id" + i);
+        }
+
+        assertThat((double) KeyGuard.foldedKeys())
+                .isCloseTo(100_000, within(10_000.0));
+        assertThat(KeyGuard.foldedEvents())
+                .isEqualTo(200_000);
+    }
+
+    @Test
+    void shouldCountSmallNumbersOfKeysExactly() {
+        for (int i = 0; i < 20; i++) {
+            KeyGuard.register("id" + i % 5);
+        }
+
+        assertThat(KeyGuard.foldedKeys())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void shouldRegisterAgainWhenLimitIsRaised() {
+        KeyGuard.maxKeys(KeySymbols.size() + 1);
+
+        assertThat(KeyGuard.register("raisedKey"))
+                .isNotNegative();
+        assertThat(KeyGuard.register("otherKey"))
+                .isEqualTo(-1);
+    }
+
+    @Test
+    void shouldRejectInvalidLimit() {
+        assertThatThrownBy(() -> KeyGuard.maxKeys(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
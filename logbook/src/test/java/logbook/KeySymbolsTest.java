@@ -0,0 +1,91 @@
+package logbook;
+
+import org.junit.jupiter.api.Test;
+
+import static logbook.testutil.Random.getRandomString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeySymbolsTest {
+
+    @Test
+    void shouldReturnSameIdWhenKeyIsRegisteredTwice() {
+        String key = getRandomString();
+
+        assertThat(KeySymbols.register(key))
+                .isEqualTo(KeySymbols.register(key));
+    }
+
+    @Test
+    void shouldReturnDifferentIdsForDifferentKeys() {
+        int id = KeySymbols.register("firstKey");
+
+        assertThat(KeySymbols.register("secondKey"))
+                .isNotEqualTo(id);
+    }
+
+    @Test
+    void shouldRegisterLogbookKeys() {
+        assertThat(KeySymbols.name(LogbookKey.ENDPOINT.id()))
+                .isEqualTo("endpoint");
+
+        assertThat(KeySymbols.register("endpoint"))
+                .isEqualTo(LogbookKey.ENDPOINT.id());
+    }
+
+    @Test
+    void shouldPrecomputeCleanKey() {
+        int id = KeySymbols.register("valid $& ' \" \nKey");
+
+        assertThat(KeySymbols.cleanName(id))
+                .isEqualTo("validKey");
+
+        assertThat(KeySymbols.defaultKeyFormat(id))
+                .isEqualTo("validKey=\"{}\"");
+    }
+
+    @Test
+    void shouldKeepIdsWhileTableGrows() {
+        int first = KeySymbols.register("growingKey0");
+        for (int i = 1; i < 200; i++) {
+            KeySymbols.register("growingKey" + i);
+        }
+
+        assertThat(KeySymbols.register("growingKey0"))
+                .isEqualTo(first);
+        assertThat(KeySymbols.name(KeySymbols.find("growingKey199")))
+                .isEqualTo("growingKey199");
+        assertThat(KeySymbols.size())
+                .isGreaterThanOrEqualTo(first + 200);
+    }
+
+    @Test
+    void shouldKeepOriginalName() {
+        String key = getRandomString() + " $";
+        int id = KeySymbols.register(key);
+
+        assertThat(KeySymbols.name(id))
+                .isEqualTo(key);
+    }
+
+    @Test
+    void shouldNotInternRuntimeKeysPastLimit() {
+        KeySymbols.Symbol symbol = KeySymbols.intern("runtime key-1", KeySymbols.size());
+
+        assertThat(symbol.id())
+                .isEqualTo(KeySymbols.UNINTERNED);
+        assertThat(symbol.cleanName())
+                .isEqualTo("runtimekey1");
+        assertThat(symbol.defaultKeyFormat())
+                .isEqualTo("runtimekey1=\"{}\"");
+        assertThat(KeySymbols.find("runtime key-1"))
+                .isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReturnRegisteredSymbolPastLimit() {
+        int id = KeySymbols.register("registeredKey");
+
+        assertThat(KeySymbols.intern("registeredKey", 0).id())
+                .isEqualTo(id);
+    }
+}
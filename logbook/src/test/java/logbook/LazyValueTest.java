@@ -0,0 +1,180 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LazyValueTest {
+
+    private Logger logger;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FlightRecorder.stop();
+        Redactor.uninstall();
+    }
+
+    private Supplier<Object> counted(Object value) {
+        return () -> {
+            calls.incrementAndGet();
+            return value;
+        };
+    }
+
+    private Object[] arguments() {
+        ArgumentCaptor<Object[]> captor = ArgumentCaptor.forClass(Object[].class);
+        verify(logger).info(anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void shouldNotCallSupplierUntilRendered() {
+        Logbook.instance(logger)
+                .addLazy("payload", counted("value"))
+                .info();
+
+        Object[] arguments = arguments();
+        assertThat(calls)
+                .hasValue(0);
+        assertThat(MessageFormatter.arrayFormat("payload=\"{}\"", arguments).getMessage())
+                .isEqualTo("payload=\"value\"");
+        assertThat(calls)
+                .hasValue(1);
+    }
+
+    @Test
+    void shouldCallSupplierAtMostOnce() {
+        Logbook.instance(logger)
+                .addLazy("payload", counted("value"))
+                .info();
+
+        Object argument = arguments()[0];
+        argument.toString();
+        argument.toString();
+
+        assertThat(calls)
+                .hasValue(1);
+    }
+
+    @Test
+    void shouldNotCallSupplierForDisabledLevel() {
+        Logbook.instance(logger)
+                .addLazy("payload", counted("value"))
+                .debug();
+
+        assertThat(calls)
+                .hasValue(0);
+    }
+
+    @Test
+    void shouldNotCallSupplierWhenRecorded() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+        FlightRecorder.start(4);
+
+        Logbook.instance(logger)
+                .addLazy("payload", counted("value"))
+                .debug();
+
+        assertThat(calls)
+                .hasValue(0);
+    }
+
+    @Test
+    void shouldCleanLazyValues() {
+        Logbook.instance(logger)
+                .lazyMessage(() -> "Lazy \"message\"\n")
+                .addLazy("array", () -> new int[]{1, 2})
+                .info();
+
+        Object[] arguments = arguments();
+        assertThat(arguments[0])
+                .hasToString("Lazy message");
+        assertThat(arguments[1])
+                .hasToString("[1, 2]");
+    }
+
+    @Test
+    void shouldRedactLazyValues() {
+        Redactor.install(Redactor.builder().key("password").emails().build());
+
+        Logbook.instance(logger)
+                .addLazy("password", () -> "secret")
+                .lazyMessage(() -> "Sent to a@b.com")
+                .info();
+
+        Object[] arguments = arguments();
+        assertThat(arguments[0])
+                .hasToString("***");
+        assertThat(arguments[1])
+                .hasToString("Sent to ***");
+    }
+
+    @Test
+    void shouldPrintNullForNullSupplier() {
+        Logbook.instance(logger)
+                .addLazy("payload", null)
+                .info();
+
+        verify(logger)
+                .info("payload=\"{}\"", new Object[]{"null"});
+    }
+
+    @Test
+    void shouldAddSupplierObjectAsValue() {
+        Supplier<Object> value = new Supplier<>() {
+            @Override
+            public Object get() {
+                return "supplied";
+            }
+
+            @Override
+            public String toString() {
+                return "value";
+            }
+        };
+
+        Logbook.instance(logger)
+                .add("payload", value)
+                .info();
+
+        verify(logger)
+                .info("payload=\"{}\"", new Object[]{"value"});
+    }
+
+    @Test
+    void shouldEvaluateWhenRecordedEventIsDumped() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+        FlightRecorder.start(4);
+
+        Logbook.instance(logger)
+                .addLazy("payload", counted("value"))
+                .debug();
+        FlightRecorder.dump(Level.INFO);
+
+        Object[] arguments = arguments();
+        assertThat(arguments[2])
+                .hasToString("value");
+        assertThat(calls)
+                .hasValue(1);
+    }
+}
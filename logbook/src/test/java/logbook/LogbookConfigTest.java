@@ -0,0 +1,225 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogbookConfigTest {
+
+    private static final String SNAPSHOT_A = "user.password=\"AAA\" user.truncated=\"true\"";
+    private static final String SNAPSHOT_B = "user.password=\"BBB\" user.a=\"1\" user.b=\"2\"";
+
+    @TempDir
+    Path directory;
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.LogbookConfigTest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        LogbookSettings.apply(LogbookSettings.DEFAULTS);
+    }
+
+    private static Map<String, Object> user() {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("password", "secret");
+        user.put("a", 1);
+        user.put("b", 2);
+        return user;
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+
+    private void replace(Path file, Path source) throws IOException {
+        Path next = Files.copy(source, directory.resolve("next.properties"), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(next, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void shouldParseProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("redaction.keys", "password, token");
+        properties.setProperty("redaction.emails", "true");
+        properties.setProperty("redaction.replacement", "[hidden]");
+        properties.setProperty("caller.enabled", "true");
+        properties.setProperty("flatten.maxDepth", "2");
+        properties.setProperty("flatten.maxFields", "10");
+        properties.setProperty("keys.max", "500");
+        properties.setProperty("keys.maxMapKeys", "50");
+
+        LogbookSettings settings = LogbookConfig.parse(properties);
+
+        assertThat(settings.redactor().redact(KeySymbols.register("token"), "abc"))
+                .isEqualTo("[hidden]");
+        assertThat(settings.redactor().redact("mail=jo@example.com"))
+                .isEqualTo("mail=[hidden]");
+        assertThat(settings.callerCapture())
+                .isTrue();
+        assertThat(settings.flattenMaxDepth())
+                .isEqualTo(2);
+        assertThat(settings.flattenMaxFields())
+                .isEqualTo(10);
+        assertThat(settings.maxKeys())
+                .isEqualTo(500);
+        assertThat(settings.maxMapKeys())
+                .isEqualTo(50);
+    }
+
+    @Test
+    void shouldParseExceptionRenderer() {
+        Properties properties = new Properties();
+        properties.setProperty("exceptions.exclude", "org.framework.");
+        properties.setProperty("exceptions.maxFrames", "1");
+        IllegalStateException exception = new IllegalStateException("boom");
+        exception.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.acme.Service", "call", "Service.java", 42),
+                new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 10)});
+
+        LogbookSettings settings = LogbookConfig.parse(properties);
+
+        assertThat(settings.exceptionRenderer().render(exception))
+                .isEqualTo("java.lang.IllegalStateException: boom\n"
+                        + "\tat com.acme.Service.call(Service.java:42)\n"
+                        + "\t... 1 filtered");
+    }
+
+    @Test
+    void shouldUseDefaultsForMissingProperties() {
+        LogbookSettings settings = LogbookConfig.parse(new Properties());
+
+        assertThat(settings.redactor())
+                .isNull();
+        assertThat(settings.callerCapture())
+                .isFalse();
+        assertThat(settings.exceptionRenderer())
+                .isNull();
+        assertThat(settings.flattenMaxFields())
+                .isEqualTo(Flattener.DEFAULT_MAX_FIELDS);
+    }
+
+    @Test
+    void shouldRejectInvalidValues() {
+        Properties properties = new Properties();
+        properties.setProperty("flatten.maxDepth", "deep");
+
+        assertThatThrownBy(() -> LogbookConfig.parse(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("flatten.maxDepth");
+    }
+
+    @Test
+    void shouldKeepSettingsWhenFileIsInvalid() throws IOException {
+        Path file = write("logbook.properties", "caller.enabled=true");
+        try (LogbookConfig config = LogbookConfig.watch(file)) {
+            replace(file, write("invalid.properties", "caller.enabled=yes"));
+
+            assertThat(config.reload())
+                    .isFalse();
+            assertThat(CallerCapture.isEnabled())
+                    .isTrue();
+            assertThat(config.errors())
+                    .isPositive();
+            assertThat(config.lastError())
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void shouldReloadWhenFileChanges() throws Exception {
+        Path file = write("logbook.properties", "flatten.maxFields=5");
+        try (LogbookConfig config = LogbookConfig.watch(file)) {
+            assertThat(Flattener.maxFields())
+                    .isEqualTo(5);
+
+            replace(file, write("changed.properties", "flatten.maxFields=7", "redaction.keys=password"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (Flattener.maxFields() != 7 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(Flattener.maxFields())
+                    .isEqualTo(7);
+            assertThat(Redactor.active())
+                    .isNotNull();
+        }
+    }
+
+    @Test
+    void shouldRenderEveryEventWithOneSnapshotDuringReloads() throws Exception {
+        Path a = write("a.properties", "redaction.keys=password", "redaction.replacement=AAA", "flatten.maxFields=1");
+        Path b = write("b.properties", "redaction.keys=password", "redaction.replacement=BBB", "flatten.maxFields=3");
+        Path file = directory.resolve("logbook.properties");
+        Files.copy(a, file);
+        MemorySink sink = MemorySink.builder().maxEvents(100_000).build();
+        LogbookSinks.install(sink);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try (LogbookConfig config = LogbookConfig.watch(file)) {
+            Future<Integer> reloads = executor.submit(() -> {
+                int count = 0;
+                while (running.get()) {
+                    replace(file, count % 2 == 0 ? b : a);
+                    if (config.reload()) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+
+            List<Future<?>> loggers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                loggers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        Logbook.instance(logger).flatten("user", user()).info();
+                    }
+                }));
+            }
+            for (Future<?> future : loggers) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+
+            assertThat(reloads.get(10, TimeUnit.SECONDS))
+                    .isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<MemorySink.Event> events = sink.events();
+        assertThat(events)
+                .hasSize(80_000);
+        assertThat(events)
+                .allSatisfy(event -> assertThat(event.toString()).isIn(SNAPSHOT_A, SNAPSHOT_B));
+    }
+}
@@ -0,0 +1,83 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LogbookIdsTest {
+
+    @AfterEach
+    void tearDown() {
+        Redactor.uninstall();
+    }
+
+    @Test
+    void shouldCreateVersion7Ids() {
+        UUID id = LogbookIds.next();
+
+        assertThat(id.version())
+                .isEqualTo(7);
+        assertThat(id.variant())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldStartWithCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = LogbookIds.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.getMostSignificantBits() >>> 16)
+                .isBetween(before, after);
+    }
+
+    @Test
+    void shouldOrderIdsByTime() throws InterruptedException {
+        UUID first = LogbookIds.next();
+        Thread.sleep(2);
+        UUID second = LogbookIds.next();
+
+        assertThat(first.toString())
+                .isLessThan(second.toString());
+    }
+
+    @Test
+    void shouldCreateUniqueIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(LogbookIds.next());
+        }
+
+        assertThat(ids)
+                .hasSize(100_000);
+    }
+
+    @Test
+    void shouldAppendSameTextAsToString() {
+        for (UUID id : List.of(UUID.randomUUID(), LogbookIds.next(), new UUID(0, 0), new UUID(-1, -1))) {
+            assertThat(LogbookIds.appendTo(new StringBuilder("id="), id))
+                    .hasToString("id=" + id);
+        }
+    }
+
+    @Test
+    void shouldAppendIdsToRecords() {
+        UUID id = LogbookIds.next();
+        Logger logger = mock(Logger.class);
+        Pair track = new Pair(LogbookKey.TRACK.id(), null, new Object[]{id});
+        LogbookRecord record = new LogbookRecord(logger, org.slf4j.event.Level.INFO, List.of(track), null);
+
+        assertThat(record.appendTo(new StringBuilder()))
+                .hasToString("track=\"" + id + "\"");
+        assertThat(record.value(0))
+                .isEqualTo(id.toString());
+    }
+}
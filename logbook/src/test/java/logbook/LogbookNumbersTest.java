@@ -0,0 +1,162 @@
+package logbook;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LogbookNumbersTest {
+
+    @Test
+    void shouldRoundTripRandomBitPatterns() {
+        SplittableRandom random = new SplittableRandom(41);
+        for (int i = 0; i < 1_000_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value)) {
+                assertRoundTrip(value);
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryMillisecondUpToTenThousandSeconds() {
+        for (int millis = 0; millis <= 10_000_000; millis++) {
+            assertRoundTrip(millis / 1000.0);
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryMagnitude() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int exponent = -5; exponent <= 9; exponent++) {
+            for (int i = 0; i < 100_000; i++) {
+                assertRoundTrip(random.nextDouble() * Math.pow(10, exponent));
+                assertRoundTrip(-random.nextInt(1_000_000) / Math.pow(10, exponent + 5));
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteShortestDigits() {
+        assertThat(LogbookNumbers.toString(0.1))
+                .isEqualTo("0.1");
+        assertThat(LogbookNumbers.toString(0.002))
+                .isEqualTo("0.002");
+        assertThat(LogbookNumbers.toString(12.345))
+                .isEqualTo("12.345");
+        assertThat(LogbookNumbers.toString(0.1 + 0.2))
+                .isEqualTo("0.30000000000000004");
+        assertThat(LogbookNumbers.toString(-1.5))
+                .isEqualTo("-1.5");
+        assertThat(LogbookNumbers.toString(42))
+                .isEqualTo("42.0");
+        assertThat(LogbookNumbers.toString(9_999_999.5))
+                .isEqualTo("9999999.5");
+    }
+
+    @Test
+    void shouldWriteSameTextAsDoubleToStringOutsidePlainRange() {
+        for (double value : new double[]{1e7, 1e-4, 1.5e300, -2.5e-300, Double.MIN_VALUE, Double.MAX_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.0, -0.0}) {
+            assertThat(LogbookNumbers.toString(value))
+                    .isEqualTo(Double.toString(value));
+        }
+    }
+
+    @Test
+    void shouldRoundFixedPrecisionHalfUp() {
+        assertThat(LogbookNumbers.toFixedString(12.3456, 3))
+                .isEqualTo("12.346");
+        assertThat(LogbookNumbers.toFixedString(0.5, 0))
+                .isEqualTo("1");
+        assertThat(LogbookNumbers.toFixedString(-2.5, 0))
+                .isEqualTo("-3");
+        assertThat(LogbookNumbers.toFixedString(0.125, 2))
+                .isEqualTo("0.13");
+        assertThat(LogbookNumbers.toFixedString(1.0005, 3))
+                .isEqualTo("1.000");
+        assertThat(LogbookNumbers.toFixedString(-0.0004, 3))
+                .isEqualTo("0.000");
+        assertThat(LogbookNumbers.toFixedString(7, 3))
+                .isEqualTo("7.000");
+        assertThat(LogbookNumbers.toFixedString(0.05, 3))
+                .isEqualTo("0.050");
+    }
+
+    @Test
+    void shouldRoundFixedPrecisionLikeBigDecimal() {
+        SplittableRandom random = new SplittableRandom(43);
+        for (int i = 0; i < 1_000_000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(-3, 12));
+            int decimals = random.nextInt(0, LogbookNumbers.MAX_DECIMALS + 1);
+
+            assertThat(LogbookNumbers.toFixedString(value, decimals))
+                    .isEqualTo(new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+    }
+
+    @Test
+    void shouldRejectDecimalsOutOfRange() {
+        assertThatThrownBy(() -> LogbookNumbers.toFixedString(1, LogbookNumbers.MAX_DECIMALS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LogbookNumbers.toFixedString(1, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldAppendNumbersToRecords() {
+        Logger logger = mock(Logger.class);
+        LogbookRecord record = new LogbookRecord(logger, Level.INFO, List.of(
+                new Pair(LogbookKey.DURATION.id(), null, new Object[]{new FixedDecimal(1.23456, 3)}),
+                new Pair("count", null, new Object[]{42L}),
+                new Pair("ratio", null, new Object[]{0.25})), null);
+
+        assertThat(record.appendTo(new StringBuilder()))
+                .hasToString("duration=\"1.235\" count=\"42\" ratio=\"0.25\"");
+        assertThat(record.value(0))
+                .isEqualTo("1.235");
+    }
+
+    @Test
+    void shouldWriteNumbersThroughSlf4j() {
+        Logger logger = mock(Logger.class);
+
+        Logbook.instance(logger)
+                .duration(0.1 + 0.2)
+                .duration(12.3456, 3)
+                .httpStatus(201)
+                .info();
+
+        verify(logger)
+                .info("duration=\"{}\" duration=\"{}\" httpStatus=\"{}\"", new Object[]{"0.30000000000000004", "12.346", "201"});
+    }
+
+    @Test
+    void shouldRenderDoubleValuesWithShortestDigits() {
+        SplittableRandom random = new SplittableRandom(44);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextDouble() * 10_000;
+
+            assertThat(LogbookValues.toString(value))
+                    .isEqualTo(LogbookNumbers.toString(value));
+        }
+    }
+
+    private static void assertRoundTrip(double value) {
+        String text = LogbookNumbers.toString(value);
+
+        assertThat(Double.parseDouble(text))
+                .isEqualTo(value);
+        assertThat(text.length())
+                .isLessThanOrEqualTo(Double.toString(value).length());
+    }
+}
@@ -0,0 +1,110 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LogbookSettingsTest {
+
+    @AfterEach
+    void tearDown() {
+        LogbookSettings.apply(LogbookSettings.DEFAULTS);
+    }
+
+    @Test
+    void shouldStartWithDefaults() {
+        LogbookSettings settings = LogbookSettings.current();
+
+        assertThat(settings.redactor())
+                .isNull();
+        assertThat(settings.callerCapture())
+                .isFalse();
+        assertThat(settings.flattenMaxDepth())
+                .isEqualTo(Flattener.DEFAULT_MAX_DEPTH);
+        assertThat(settings.flattenMaxFields())
+                .isEqualTo(Flattener.DEFAULT_MAX_FIELDS);
+        assertThat(settings.maxKeys())
+                .isEqualTo(KeyGuard.UNLIMITED);
+        assertThat(settings.maxMapKeys())
+                .isEqualTo(KeyGuard.UNLIMITED);
+    }
+
+    @Test
+    void shouldSwapSnapshotOnChange() {
+        LogbookSettings before = LogbookSettings.current();
+        Redactor redactor = Redactor.builder().key("password").build();
+
+        Redactor.install(redactor);
+        CallerCapture.enable();
+        Flattener.limits(2, 8);
+
+        LogbookSettings after = LogbookSettings.current();
+        assertThat(after)
+                .isNotSameAs(before);
+        assertThat(after.redactor())
+                .isSameAs(redactor);
+        assertThat(after.callerCapture())
+                .isTrue();
+        assertThat(after.flattenMaxDepth())
+                .isEqualTo(2);
+        assertThat(after.flattenMaxFields())
+                .isEqualTo(8);
+        assertThat(before.redactor())
+                .isNull();
+    }
+
+    @Test
+    void shouldReplaceAllSettingsOnApply() {
+        Redactor.install(Redactor.builder().key("password").build());
+        CallerCapture.enable();
+
+        LogbookSettings.apply(LogbookSettings.builder().flattenLimits(3, 5).build());
+
+        assertThat(Redactor.active())
+                .isNull();
+        assertThat(CallerCapture.isEnabled())
+                .isFalse();
+        assertThat(Flattener.maxFields())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void shouldRenderRecordWithSnapshotOfLogTime() {
+        Logger logger = mock(Logger.class);
+        LogbookRecord record = new LogbookRecord(logger, Level.INFO, List.of(new Pair("password", "secret")), null);
+
+        Redactor.install(Redactor.builder().key("password").build());
+        Slf4jSink.INSTANCE.write(record);
+
+        verify(logger)
+                .info("password=\"{}\"", new Object[]{"secret"});
+    }
+
+    @Test
+    void shouldCopyIntoBuilder() {
+        LogbookSettings settings = LogbookSettings.builder().callerCapture(true).flattenLimits(3, 5).build();
+
+        LogbookSettings copy = settings.toBuilder().flattenLimits(6, 7).build();
+
+        assertThat(copy.callerCapture())
+                .isTrue();
+        assertThat(copy.flattenMaxDepth())
+                .isEqualTo(6);
+        assertThat(settings.flattenMaxDepth())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> LogbookSettings.builder().flattenLimits(1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,162 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogbookSinksTest {
+
+    private Logger logger;
+    private CapturingSink sink;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.LogbookSinksTest");
+        sink = new CapturingSink(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        Redactor.uninstall();
+        FlightRecorder.stop();
+    }
+
+    @Test
+    void shouldWriteToSlf4jWithoutSinks() {
+        Logbook.instance(logger).message("hello").info();
+
+        verify(logger)
+                .info("message=\"{}\"", new Object[]{"hello"});
+    }
+
+    @Test
+    void shouldWriteToInstalledSinksOnly() {
+        LogbookSinks.install(sink);
+
+        Logbook.instance(logger).message("hello {}", "world").add("count", 2).add("", "ignored").warn();
+
+        verify(logger, never())
+                .warn(anyString(), any(Object[].class));
+        assertThat(sink.records)
+                .hasSize(1);
+
+        LogbookRecord record = sink.records.get(0);
+        assertThat(record.level())
+                .isEqualTo(Level.WARN);
+        assertThat(record.loggerName())
+                .isEqualTo("logbook.LogbookSinksTest");
+        assertThat(record.size())
+                .isEqualTo(2);
+        assertThat(record.key(0))
+                .isEqualTo("message");
+        assertThat(record.value(0))
+                .isEqualTo("hello world");
+        assertThat(record.appendTo(new StringBuilder()))
+                .hasToString("message=\"hello world\" count=\"2\"");
+    }
+
+    @Test
+    void shouldSkipDisabledSinks() {
+        LogbookSinks.install(sink);
+
+        Logbook.instance(logger).message("debug").debug();
+
+        assertThat(sink.records)
+                .isEmpty();
+    }
+
+    @Test
+    void shouldKeepSlf4jAsOneSink() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        LogbookSinks.install(Slf4jSink.INSTANCE, sink);
+
+        Logbook.instance(logger).message("hello").info();
+
+        verify(logger)
+                .info("message=\"{}\"", new Object[]{"hello"});
+        assertThat(sink.records)
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldRedactRecordValues() {
+        Redactor.install(Redactor.builder().key("password").build());
+        LogbookSinks.install(sink);
+
+        Logbook.instance(logger).add("password", "secret").info();
+
+        assertThat(sink.records.get(0).value(0))
+                .isEqualTo("***");
+    }
+
+    @Test
+    void shouldUseSinkLevelsForFlightRecorder() {
+        FlightRecorder.start(4);
+        LogbookSinks.install(sink);
+
+        Logbook.instance(logger).message("debug").debug();
+        Logbook.instance(logger).message("error").error();
+
+        assertThat(sink.records)
+                .hasSize(2);
+        assertThat(sink.records.get(0).appendTo(new StringBuilder()).toString())
+                .startsWith("recordedLevel=\"DEBUG\" recordedTime=")
+                .endsWith("message=\"debug\"");
+    }
+
+    @Test
+    void shouldCloseSinksOnUninstall() {
+        LogbookSinks.install(sink);
+        LogbookSinks.uninstall();
+
+        assertThat(sink.closed)
+                .isTrue();
+    }
+
+    @Test
+    void shouldRequireSinks() {
+        assertThatThrownBy(LogbookSinks::install)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static class CapturingSink implements LogbookSink {
+        private final Level minimumLevel;
+        private final List<LogbookRecord> records = new CopyOnWriteArrayList<>();
+        private boolean closed;
+
+        private CapturingSink(Level minimumLevel) {
+            this.minimumLevel = minimumLevel;
+        }
+
+        @Override
+        public boolean isEnabled(Logger logger, Level level) {
+            return level.toInt() >= minimumLevel.toInt();
+        }
+
+        @Override
+        public void write(LogbookRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
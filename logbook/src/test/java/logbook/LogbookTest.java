@@ -45,6 +45,16 @@ class LogbookTest {
                 .isNotNull();
     }
 
+    @Test
+    void shouldCacheLoggerPerClass() throws NoSuchFieldException {
+        Logger logger = Logbook.logger(LogbookTest.class);
+
+        assertThat(Logbook.logger(LogbookTest.class))
+                .isSameAs(logger);
+        assertThat(getFieldValue(Logbook.instance(LogbookTest.class), "logger"))
+                .isSameAs(logger);
+    }
+
     @Test
     void shouldCreateLogbook() throws NoSuchFieldException {
         logbook = Logbook.instance(LogbookTest.class);
@@ -150,6 +160,15 @@ class LogbookTest {
                 .info("message=\"{}\"", new Object[]{"null"});
     }
 
+    @Test
+    void shouldPrintNullMessage() {
+        logbook.message(null)
+                .info();
+
+        verify(logger)
+                .info("message=\"{}\"", new Object[]{"null"});
+    }
+
     @Test
     void shouldAddQuotesWhenStringHaveWhiteSpace() {
         String message = String.format("%s %s", getRandomString(), getRandomString());
@@ -337,6 +356,15 @@ class LogbookTest {
                 .info("duration=\"{}\"", new Object[]{Double.toString(duration)});
     }
 
+    @Test
+    void shouldPrintDurationWithDecimals() {
+        logbook.duration(12.3456, 3)
+                .info();
+
+        verify(logger)
+                .info("duration=\"{}\"", new Object[]{"12.346"});
+    }
+
     @Test
     void shouldPrintDurationLong() {
         long duration = getRandomLong();
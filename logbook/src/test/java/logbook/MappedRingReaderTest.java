@@ -0,0 +1,121 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class MappedRingReaderTest {
+    private static final int EVENTS = 100_000;
+    private static final Pattern SEQUENCE = Pattern.compile("sequence=\"(\\d+)\"");
+
+    @TempDir
+    Path directory;
+
+    private MappedRingSink sink;
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingArrivesInTime() throws Exception {
+        Path file = directory.resolve("events.ring");
+        sink = MappedRingSink.builder(file).build();
+
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(reader.poll(Duration.ofMillis(20)))
+                    .isNull();
+        }
+    }
+
+    @Test
+    void shouldShipEventsToAnotherProcess() throws Exception {
+        Path file = directory.resolve("events.ring");
+        sink = MappedRingSink.builder(file).capacity(1 << 16).queueCapacity(EVENTS).build();
+        LogbookSinks.install(sink);
+        Logger logger = mock(Logger.class, withSettings().stubOnly());
+        when(logger.getName()).thenReturn("logbook.MappedRingReaderTest");
+
+        Process collector = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath(),
+                Collector.class.getName(), file.toString(), String.valueOf(EVENTS))
+                .redirectErrorStream(true)
+                .start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(collector.getInputStream(), StandardCharsets.UTF_8))) {
+            assertThat(output.readLine())
+                    .isEqualTo("ready");
+
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                Logbook.instance(logger).add("sequence", i).info();
+            }
+            String result = output.readLine();
+            long nanos = System.nanoTime() - start;
+
+            assertThat(result)
+                    .isEqualTo("received=" + EVENTS + " ordered=true");
+            assertThat(sink.dropped())
+                    .isZero();
+            assertThat(EVENTS * TimeUnit.SECONDS.toNanos(1) / nanos)
+                    .isGreaterThan(10_000);
+        } finally {
+            collector.destroy();
+            collector.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String classPath() throws URISyntaxException {
+        return Path.of(MappedRingReader.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator + Path.of(Collector.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator + System.getProperty("java.class.path");
+    }
+
+    /**
+     * Runs in its own JVM: reads the expected number of events and reports whether they arrived in order.
+     */
+    static final class Collector {
+        public static void main(String[] args) throws IOException {
+            int expected = Integer.parseInt(args[1]);
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+            long[] received = new long[1];
+            boolean[] ordered = {true};
+            try (MappedRingReader reader = MappedRingReader.open(Path.of(args[0]))) {
+                System.out.println("ready");
+                while (received[0] < expected && System.nanoTime() < deadline) {
+                    int count = reader.drain(event -> {
+                        Matcher matcher = SEQUENCE.matcher(StandardCharsets.UTF_8.decode(event));
+                        ordered[0] &= matcher.find() && Long.parseLong(matcher.group(1)) == received[0];
+                        received[0]++;
+                    });
+                    if (count == 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+            System.out.println("received=" + received[0] + " ordered=" + ordered[0]);
+        }
+    }
+}
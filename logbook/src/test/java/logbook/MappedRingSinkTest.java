@@ -0,0 +1,218 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class MappedRingSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private Logger logger;
+    private MappedRingSink sink;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class, withSettings().stubOnly());
+        when(logger.getName()).thenReturn("logbook.MappedRingSinkTest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    private Path install(MappedRingSink.Builder builder, Path file) throws IOException {
+        sink = builder.build();
+        LogbookSinks.install(sink);
+        return file;
+    }
+
+    private static String text(byte[] event) {
+        return new String(event, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldWriteLinesIntoRing() throws IOException {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file), file);
+
+        Logbook.instance(logger).message("hello").add("count", 2).info();
+        sink.flush();
+
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(text(reader.poll()))
+                    .endsWith(" INFO [" + Thread.currentThread().getName() + "] logbook.MappedRingSinkTest message=\"hello\" count=\"2\"\n");
+            assertThat(reader.poll())
+                    .isNull();
+        }
+    }
+
+    @Test
+    void shouldWrapAroundWhileConsumerReads() throws Exception {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file).capacity(MappedRingSink.MIN_CAPACITY).queueCapacity(20_000), file);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            Future<List<String>> consumed = executor.submit(() -> {
+                List<String> events = new ArrayList<>();
+                while (events.size() < 20_000) {
+                    reader.drain(event -> events.add(StandardCharsets.UTF_8.decode(event).toString()));
+                }
+                return events;
+            });
+
+            for (int i = 0; i < 20_000; i++) {
+                Logbook.instance(logger).add("sequence", i).info();
+            }
+
+            List<String> events = consumed.get(30, TimeUnit.SECONDS);
+            for (int i = 0; i < events.size(); i++) {
+                assertThat(events.get(i))
+                        .contains("sequence=\"" + i + "\"");
+            }
+            assertThat(sink.dropped())
+                    .isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldWrapLineLargerThanHalfTheRing() throws Exception {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file).capacity(MappedRingSink.MIN_CAPACITY), file);
+        String large = "x".repeat(MappedRingSink.MIN_CAPACITY * 3 / 4);
+
+        MappedRing ring = MappedRing.open(file);
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            while (ring.producerPosition() < MappedRingSink.MIN_CAPACITY
+                    || ring.index(ring.producerPosition()) - MappedRing.HEADER_BYTES < MappedRingSink.MIN_CAPACITY / 2) {
+                Logbook.instance(logger).add("sequence", 1).info();
+                sink.flush();
+                reader.poll();
+            }
+            Logbook.instance(logger).message(large).info();
+
+            assertThat(text(reader.poll(Duration.ofSeconds(10))))
+                    .contains("message=\"" + large + "\"");
+            assertThat(sink.dropped())
+                    .isZero();
+        } finally {
+            ring.close();
+        }
+    }
+
+    @Test
+    void shouldResumeAfterLastReadEvent() throws IOException {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file), file);
+        Logbook.instance(logger).add("sequence", 1).info();
+        Logbook.instance(logger).add("sequence", 2).info();
+        sink.flush();
+
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(text(reader.poll()))
+                    .contains("sequence=\"1\"");
+        }
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(text(reader.poll()))
+                    .contains("sequence=\"2\"");
+            assertThat(reader.backlog())
+                    .isZero();
+        }
+    }
+
+    @Test
+    void shouldKeepUnreadEventsWhenProducerRestarts() throws IOException {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file), file);
+        Logbook.instance(logger).add("sequence", 1).info();
+        sink.flush();
+        LogbookSinks.uninstall();
+        sink.close();
+
+        install(MappedRingSink.builder(file), file);
+        Logbook.instance(logger).add("sequence", 2).info();
+        sink.flush();
+
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(text(reader.poll()))
+                    .contains("sequence=\"1\"");
+            assertThat(text(reader.poll()))
+                    .contains("sequence=\"2\"");
+        }
+    }
+
+    @Test
+    void shouldDropLinesLargerThanRing() throws IOException {
+        Path file = directory.resolve("events.ring");
+        install(MappedRingSink.builder(file).capacity(MappedRingSink.MIN_CAPACITY), file);
+
+        Logbook.instance(logger).message("x".repeat(MappedRingSink.MIN_CAPACITY)).info();
+        Logbook.instance(logger).message("small").info();
+        sink.flush();
+
+        assertThat(sink.dropped())
+                .isEqualTo(1);
+        try (MappedRingReader reader = MappedRingReader.open(file)) {
+            assertThat(text(reader.poll()))
+                    .contains("message=\"small\"");
+        }
+    }
+
+    @Test
+    void shouldRefuseFileThatIsNoRing() throws IOException {
+        Path file = Files.writeString(directory.resolve("events.ring"), "not a ring");
+
+        assertThatThrownBy(() -> MappedRingReader.open(file))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> MappedRingSink.builder(file).build())
+                .isInstanceOf(IOException.class);
+        assertThat(Files.readString(file))
+                .isEqualTo("not a ring");
+    }
+
+    @Test
+    void shouldReplaceRingOfOtherCapacity() throws IOException {
+        Path file = directory.resolve("events.ring");
+        MappedRing.create(file, MappedRingSink.MIN_CAPACITY).close();
+
+        install(MappedRingSink.builder(file), file);
+        assertThat(Files.size(file))
+                .isEqualTo(MappedRing.HEADER_BYTES + MappedRingSink.DEFAULT_CAPACITY);
+    }
+
+    @Test
+    void shouldRejectInvalidCapacity() {
+        assertThatThrownBy(() -> MappedRingSink.builder(directory.resolve("events.ring")).capacity(5000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MappedRingSink.builder(directory.resolve("events.ring")).capacity(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,261 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemorySinkTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.MemorySinkTest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+    }
+
+    private MemorySink install(MemorySink.Builder builder) {
+        MemorySink sink = builder.build();
+        LogbookSinks.install(sink);
+        return sink;
+    }
+
+    private void log(int count) {
+        for (int i = 0; i < count; i++) {
+            Logbook logbook = Logbook.instance(logger).message("event " + i % 7).request("r" + i % 50);
+            if (i % 10 == 0) {
+                logbook.error();
+            } else {
+                logbook.info();
+            }
+        }
+    }
+
+    @Test
+    void shouldStoreStructuredEvents() {
+        MemorySink sink = install(MemorySink.builder());
+
+        Logbook.instance(logger).message("hello").add("count", 2).warn();
+
+        MemorySink.Event event = sink.events().get(0);
+        assertThat(event.level())
+                .isEqualTo(Level.WARN);
+        assertThat(event.loggerName())
+                .isEqualTo("logbook.MemorySinkTest");
+        assertThat(event.get("message"))
+                .isEqualTo("hello");
+        assertThat(event.get("count"))
+                .isEqualTo("2");
+        assertThat(event.get("missing"))
+                .isNull();
+        assertThat(event)
+                .hasToString("message=\"hello\" count=\"2\"");
+    }
+
+    @Test
+    void shouldQueryByKeyAndLevel() {
+        MemorySink sink = install(MemorySink.builder());
+        log(1000);
+
+        List<MemorySink.Event> errors = sink.query().where("request", "r10").level(Level.ERROR).list();
+
+        assertThat(errors)
+                .hasSize(20)
+                .allSatisfy(event -> {
+                    assertThat(event.get("request")).isEqualTo("r10");
+                    assertThat(event.level()).isEqualTo(Level.ERROR);
+                });
+        assertThat(sink.query().where("request", "r10").where("message", "event 3").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldMatchFullScanAfterEviction() {
+        MemorySink sink = install(MemorySink.builder().maxEvents(300));
+        log(1000);
+
+        for (String request : List.of("r0", "r7", "r49")) {
+            List<String> scanned = new ArrayList<>();
+            for (MemorySink.Event event : sink.events()) {
+                if (request.equals(event.get("request")) && event.level() == Level.INFO) {
+                    scanned.add(event.toString());
+                }
+            }
+
+            List<String> queried = new ArrayList<>();
+            sink.query().where("request", request).level(Level.INFO).list().forEach(event -> queried.add(event.toString()));
+            assertThat(queried)
+                    .isEqualTo(scanned);
+        }
+        assertThat(sink.size())
+                .isEqualTo(300);
+    }
+
+    @Test
+    void shouldReturnMostRecentMatchesWithLimit() {
+        MemorySink sink = install(MemorySink.builder());
+        log(100);
+
+        assertThat(sink.query().where("message", "event 3").limit(2).list())
+                .extracting(event -> event.get("request"))
+                .containsExactly("r37", "r44");
+        assertThat(sink.query().limit(1).list())
+                .extracting(event -> event.get("request"))
+                .containsExactly("r49");
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownKeysAndValues() {
+        MemorySink sink = install(MemorySink.builder());
+        log(10);
+
+        assertThat(sink.query().where("never.registered.key", "x").list())
+                .isEmpty();
+        assertThat(sink.query().where("request", "unknown").list())
+                .isEmpty();
+    }
+
+    @Test
+    void shouldEvictOldestEventsByBytes() {
+        MemorySink sink = install(MemorySink.builder().maxBytes(1000));
+
+        for (int i = 0; i < 100; i++) {
+            Logbook.instance(logger).message("hello " + i).info();
+        }
+
+        assertThat(sink.bytes())
+                .isLessThanOrEqualTo(1000);
+        assertThat(sink.events())
+                .last()
+                .hasToString("message=\"hello 99\"");
+        assertThat(sink.query().where("message", "hello 0").count())
+                .isZero();
+    }
+
+    @Test
+    void shouldDropIndexedKeysOfEvictedEvents() {
+        MemorySink sink = install(MemorySink.builder().maxEvents(10));
+
+        for (int i = 0; i < 1000; i++) {
+            Logbook.instance(logger).flatten("attributes", Map.of("key" + i, i)).info();
+        }
+
+        assertThat(sink.indexedKeys())
+                .isEqualTo(10);
+        sink.clear();
+        assertThat(sink.indexedKeys())
+                .isZero();
+    }
+
+    @Test
+    void shouldEvictEventWithRepeatedField() {
+        MemorySink sink = install(MemorySink.builder().maxEvents(1));
+
+        Logbook.instance(logger).add("k", "v").add("k", "v").info();
+        Logbook.instance(logger).message("next").info();
+
+        assertThat(sink.size())
+                .isEqualTo(1);
+        assertThat(sink.events())
+                .last()
+                .hasToString("message=\"next\"");
+        assertThat(sink.query().where("k", "v").count())
+                .isZero();
+    }
+
+    @Test
+    void shouldRespectMinimumLevel() {
+        MemorySink sink = install(MemorySink.builder().minimumLevel(Level.WARN));
+        log(20);
+
+        assertThat(sink.size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldClear() {
+        MemorySink sink = install(MemorySink.builder());
+        log(10);
+
+        sink.clear();
+
+        assertThat(sink.size())
+                .isZero();
+        assertThat(sink.bytes())
+                .isZero();
+        assertThat(sink.query().where("request", "r1").count())
+                .isZero();
+    }
+
+    @Test
+    void shouldAcceptConcurrentWritersAndReaders() throws Exception {
+        MemorySink sink = install(MemorySink.builder().maxEvents(500));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            futures.add(executor.submit(() -> log(2000)));
+        }
+        futures.add(executor.submit(() -> {
+            for (int i = 0; i < 200; i++) {
+                sink.query().where("request", "r10").level(Level.ERROR).list();
+            }
+        }));
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(sink.size())
+                .isEqualTo(500);
+        assertThat(sink.query().level(Level.ERROR).count() + sink.query().level(Level.INFO).count())
+                .isEqualTo(500);
+    }
+
+    @Test
+    void shouldIndexFlattenedLeaves() {
+        MemorySink sink = install(MemorySink.builder());
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", 42);
+        user.put("roles", List.of("admin"));
+
+        Logbook.instance(logger).flatten("user", user).info();
+        Logbook.instance(logger).flatten("user", Map.of("id", 7)).info();
+
+        List<MemorySink.Event> events = sink.query().where("user.id", "42").list();
+        assertThat(events)
+                .hasSize(1);
+        assertThat(events.get(0).get("user.roles.0"))
+                .isEqualTo("admin");
+        assertThat(events.get(0).toString())
+                .isEqualTo("user.id=\"42\" user.roles.0=\"admin\"");
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimits() {
+        assertThatThrownBy(() -> MemorySink.builder().maxEvents(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MemorySink.builder().maxBytes(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
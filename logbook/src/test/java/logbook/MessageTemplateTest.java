@@ -0,0 +1,127 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MessageTemplateTest {
+    private static final List<String> FORMATS = List.of(
+            "", "plain", "{}", "{} {}", "a {} b {} c", "{}{}{}", "{{}}", "{", "}", "}{", "\\{}", "\\\\{}",
+            "\\\\\\{}", "a \\{} b {}", "a \\\\{} b {}", "\\{}\\{}{}", "{}\\", "\\", "{\\}", "x{}}y{{}");
+
+    @AfterEach
+    void tearDown() {
+        MessageTemplate.clear();
+    }
+
+    @Test
+    void shouldRenderLikeMessageFormatter() {
+        for (String format : FORMATS) {
+            for (int count = 0; count <= 4; count++) {
+                assertSameAsMessageFormatter(format, values(count));
+            }
+        }
+    }
+
+    @Test
+    void shouldRenderRandomFormatsLikeMessageFormatter() {
+        Random random = new Random(42);
+        char[] alphabet = {'{', '}', '\\', 'a', ' '};
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder format = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                format.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            assertSameAsMessageFormatter(format.toString(), values(random.nextInt(5)));
+        }
+    }
+
+    @Test
+    void shouldNotExpandPlaceholdersInValues() {
+        assertThat(MessageTemplate.of("{} and {}").render(List.of("{}", "\\{}")))
+                .isEqualTo("{} and \\{}");
+    }
+
+    @Test
+    void shouldParseFormatOnce() {
+        MessageTemplate template = MessageTemplate.of("Order {} placed by {}");
+
+        assertThat(MessageTemplate.of("Order {} placed by {}"))
+                .isSameAs(template);
+        assertThat(template.placeholders())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictUnusedTemplatesAtLimit() {
+        MessageTemplate hot = MessageTemplate.of("hot {}");
+        MessageTemplate cold = MessageTemplate.of("cold {}");
+        for (int i = 0; i < MessageTemplate.MAX_CACHED * 3; i++) {
+            MessageTemplate.of("format " + i + " {}");
+            MessageTemplate.of("hot {}");
+        }
+
+        assertThat(MessageTemplate.cached())
+                .isEqualTo(MessageTemplate.MAX_CACHED);
+        assertThat(MessageTemplate.of("hot {}"))
+                .isSameAs(hot);
+        assertThat(MessageTemplate.of("cold {}"))
+                .isNotSameAs(cold);
+        assertThat(MessageTemplate.of("format 0 {}").render(List.of("value")))
+                .isEqualTo("format 0 value");
+    }
+
+    @Test
+    void shouldRenderRecordValuesWithTemplate() {
+        Pair message = new Pair(LogbookKey.MESSAGE.id(), "Order {} placed \\{}", new Object[]{"A-1", "ignored"});
+        LogbookRecord record = new LogbookRecord(mock(Logger.class), Level.INFO, List.of(message), null);
+
+        assertThat(record.value(0))
+                .isEqualTo(MessageFormatter.arrayFormat("Order {} placed \\{}", new Object[]{"A-1", "ignored"}).getMessage())
+                .isEqualTo("Order A-1 placed {}");
+    }
+
+    @Test
+    void shouldRenderSinkValueLikeSlf4jMessage() {
+        for (String format : FORMATS) {
+            for (int count = 0; count <= 4; count++) {
+                Object[] values = values(count).toArray();
+                Pair message = new Pair(LogbookKey.MESSAGE.id(), format, values);
+                StringBuilder slf4jFormat = new StringBuilder();
+                List<Object> arguments = new ArrayList<>();
+                Logbook.appendMessage(List.of(message), null, LogbookSettings.current(), slf4jFormat, arguments);
+
+                assertThat(slf4jFormat.toString())
+                        .isEqualTo("message=\"" + format + "\"");
+                assertThat(MessageFormatter.arrayFormat(slf4jFormat.toString(), arguments.toArray()).getMessage())
+                        .as("%s with %s values", format, count)
+                        .isEqualTo("message=\"" + LogbookRecord.render(message, LogbookSettings.current()) + "\"");
+            }
+        }
+    }
+
+    private static List<String> values(int count) {
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add("v" + i);
+        }
+        return values;
+    }
+
+    private static void assertSameAsMessageFormatter(String format, List<String> values) {
+        assertThat(MessageTemplate.of(format).render(values))
+                .as("%s with %s", format, values)
+                .isEqualTo(MessageFormatter.arrayFormat(format, values.toArray()).getMessage());
+    }
+}
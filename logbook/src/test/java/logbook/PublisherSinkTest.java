@@ -0,0 +1,378 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PublisherSinkTest {
+
+    private Logger logger;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.PublisherSinkTest");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        LogbookSinks.uninstall();
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private PublisherSink.Builder builder() {
+        return PublisherSink.builder().executor(executor);
+    }
+
+    private void log(int count) {
+        for (int i = 0; i < count; i++) {
+            Logbook.instance(logger).message("event").add("index", i).info();
+        }
+    }
+
+    @Test
+    void shouldDeliverEveryEventToConcurrentSubscribers() throws Exception {
+        PublisherSink sink = builder().bufferSize(100_000).build();
+        List<TestSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+            sink.subscribe(subscriber);
+            subscribers.add(subscriber);
+        }
+        LogbookSinks.install(sink);
+
+        ExecutorService loggers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(loggers.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    Logbook.instance(logger).add("thread", thread).add("index", i).info();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        loggers.shutdown();
+        sink.close();
+
+        for (TestSubscriber subscriber : subscribers) {
+            assertThat(subscriber.completed.await(10, TimeUnit.SECONDS))
+                    .isTrue();
+            assertThat(subscriber.records)
+                    .hasSize(4000);
+            for (int thread = 0; thread < 4; thread++) {
+                assertThat(subscriber.indexes(String.valueOf(thread)))
+                        .isSorted()
+                        .hasSize(1000);
+            }
+        }
+        assertThat(sink.dropped())
+                .isZero();
+    }
+
+    @Test
+    void shouldHonorDemand() {
+        PublisherSink sink = builder().build();
+        TestSubscriber subscriber = new TestSubscriber(2);
+        sink.subscribe(subscriber);
+        LogbookSinks.install(sink);
+
+        log(10);
+        sink.flush();
+
+        assertThat(subscriber.records)
+                .hasSize(2);
+
+        subscriber.subscription.request(3);
+        sink.flush();
+
+        assertThat(subscriber.records)
+                .hasSize(5);
+        assertThat(subscriber.records.get(4).value(1))
+                .isEqualTo("4");
+    }
+
+    @Test
+    void shouldNotDeliverWhileSubscriberIsSubscribing() throws Exception {
+        PublisherSink sink = builder().bufferSize(100_000).build();
+        LogbookSinks.install(sink);
+        ExecutorService loggers = Executors.newFixedThreadPool(4);
+        CountDownLatch logging = new CountDownLatch(4);
+        CountDownLatch stop = new CountDownLatch(1);
+        for (int t = 0; t < 4; t++) {
+            loggers.submit(() -> {
+                log(1);
+                logging.countDown();
+                while (stop.getCount() > 0) {
+                    log(1);
+                }
+            });
+        }
+
+        try {
+            assertThat(logging.await(10, TimeUnit.SECONDS))
+                    .isTrue();
+            for (int i = 0; i < 20; i++) {
+                SubscribingSubscriber subscriber = new SubscribingSubscriber();
+                sink.subscribe(subscriber);
+
+                assertThat(subscriber.delivered.await(10, TimeUnit.SECONDS))
+                        .isTrue();
+                subscriber.subscription.cancel();
+                assertThat(subscriber.overlapped)
+                        .isFalse();
+            }
+        } finally {
+            stop.countDown();
+            loggers.shutdown();
+            loggers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldDropForSlowSubscriberOnly() {
+        PublisherSink sink = builder().bufferSize(10).executor(Runnable::run).build();
+        TestSubscriber slow = new TestSubscriber(0);
+        TestSubscriber fast = new TestSubscriber(Long.MAX_VALUE);
+        sink.subscribe(slow);
+        sink.subscribe(fast);
+        LogbookSinks.install(sink);
+
+        log(100);
+        sink.flush();
+
+        assertThat(sink.dropped())
+                .isEqualTo(90);
+        assertThat(fast.records)
+                .hasSize(100);
+
+        slow.subscription.request(Long.MAX_VALUE);
+        sink.flush();
+
+        assertThat(slow.records)
+                .hasSize(10);
+    }
+
+    @Test
+    void shouldBufferUpToBufferSize() {
+        PublisherSink sink = builder().bufferSize(50).build();
+        TestSubscriber subscriber = new TestSubscriber(0);
+        sink.subscribe(subscriber);
+        LogbookSinks.install(sink);
+
+        log(100);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        sink.flush();
+
+        assertThat(subscriber.records)
+                .hasSize(50);
+        assertThat(sink.dropped())
+                .isEqualTo(50);
+    }
+
+    @Test
+    void shouldCancelSubscriberThatFallsBehind() throws InterruptedException {
+        PublisherSink sink = builder().bufferSize(10).overflow(PublisherSink.Overflow.CANCEL).executor(Runnable::run).build();
+        TestSubscriber slow = new TestSubscriber(0);
+        TestSubscriber fast = new TestSubscriber(Long.MAX_VALUE);
+        sink.subscribe(slow);
+        sink.subscribe(fast);
+        LogbookSinks.install(sink);
+
+        log(20);
+        sink.flush();
+
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(slow.error)
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(sink.subscribers())
+                .isEqualTo(1);
+        assertThat(fast.records)
+                .hasSize(20);
+    }
+
+    @Test
+    void shouldNotBlockOnBusySubscriber() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        PublisherSink sink = builder().bufferSize(10).build();
+        TestSubscriber busy = new TestSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(LogbookRecord item) {
+                super.onNext(item);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        sink.subscribe(busy);
+        LogbookSinks.install(sink);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> log(10_000));
+        release.countDown();
+        sink.flush();
+
+        assertThat(sink.dropped())
+                .isEqualTo(10_000 - 10);
+    }
+
+    @Test
+    void shouldCompleteAfterBufferedEvents() throws InterruptedException {
+        PublisherSink sink = builder().build();
+        TestSubscriber subscriber = new TestSubscriber(0);
+        sink.subscribe(subscriber);
+        LogbookSinks.install(sink);
+
+        log(3);
+        sink.close();
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(subscriber.records)
+                .hasSize(3);
+        assertThat(subscriber.error)
+                .isNull();
+    }
+
+    @Test
+    void shouldRejectNonPositiveDemand() throws InterruptedException {
+        PublisherSink sink = builder().build();
+        TestSubscriber subscriber = new TestSubscriber(0);
+        sink.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(subscriber.error)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldBeDisabledWithoutSubscribers() {
+        PublisherSink sink = builder().build();
+        TestSubscriber subscriber = new TestSubscriber(0);
+
+        assertThat(sink.isEnabled(logger, Level.INFO))
+                .isFalse();
+
+        sink.subscribe(subscriber);
+
+        assertThat(sink.isEnabled(logger, Level.INFO))
+                .isTrue();
+        assertThat(sink.isEnabled(logger, Level.DEBUG))
+                .isFalse();
+
+        subscriber.subscription.cancel();
+
+        assertThat(sink.isEnabled(logger, Level.INFO))
+                .isFalse();
+    }
+
+    /**
+     * Requests events first thing in {@code onSubscribe} and takes a while to return, so a publisher
+     * that delivers right away overlaps the two calls.
+     */
+    private static class SubscribingSubscriber implements Flow.Subscriber<LogbookRecord> {
+        private final CountDownLatch delivered = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean subscribing;
+        private volatile boolean overlapped;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscribing = true;
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            subscribing = false;
+        }
+
+        @Override
+        public void onNext(LogbookRecord item) {
+            overlapped |= subscribing;
+            delivered.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<LogbookRecord> {
+        private final long initialDemand;
+        private final List<LogbookRecord> records = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        private TestSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(LogbookRecord item) {
+            records.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private List<Integer> indexes(String thread) {
+            List<Integer> indexes = new ArrayList<>();
+            for (LogbookRecord record : records) {
+                if (record.value(0).equals(thread)) {
+                    indexes.add(Integer.parseInt(record.value(1)));
+                }
+            }
+            return indexes;
+        }
+    }
+}
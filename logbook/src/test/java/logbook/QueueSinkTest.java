@@ -0,0 +1,124 @@
+package logbook;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class QueueSinkTest {
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+
+    private LogbookRecord record(String message) {
+        return new LogbookRecord(mock(Logger.class), Level.INFO, List.of(new Pair("message", message)), null);
+    }
+
+    private QueueSink sink(boolean failFirstBatch) {
+        return sink(failFirstBatch, false);
+    }
+
+    private QueueSink sink(boolean failFirstBatch, boolean renderOnWriter) {
+        QueueSink sink = new QueueSink("test-writer", Level.INFO, 100, 10, renderOnWriter) {
+            private boolean failed = !failFirstBatch;
+
+            @Override
+            void writeBatch(ByteBuffer[] buffers, int count) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("boom");
+                }
+                for (int i = 0; i < count; i++) {
+                    lines.add(StandardCharsets.UTF_8.decode(buffers[i]).toString());
+                }
+            }
+
+            @Override
+            void closeOutput() {
+            }
+        };
+        sink.start();
+        return sink;
+    }
+
+    @Test
+    void shouldDropLinesWrittenAfterClose() {
+        QueueSink sink = sink(false);
+        sink.write(record("before"));
+        sink.close();
+
+        sink.write(record("after"));
+
+        assertThat(lines)
+                .hasSize(1);
+        assertThat(sink.dropped())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepWritingAfterRuntimeException() {
+        QueueSink sink = sink(true);
+
+        sink.write(record("lost"));
+        sink.flush();
+        sink.write(record("written"));
+        sink.flush();
+        sink.close();
+
+        assertThat(lines)
+                .hasSize(1);
+        assertThat(lines.get(0))
+                .contains("message=\"written\"");
+        assertThat(sink.dropped())
+                .isEqualTo(1);
+        assertThat(sink.errors())
+                .isEqualTo(1);
+        assertThat(sink.lastError())
+                .hasMessage("boom");
+    }
+
+    @Test
+    void shouldCallSuppliersOnWriterThreadWhenRenderingOnWriter() {
+        QueueSink sink = sink(false, true);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        LazyValue payload = new LazyValue(() -> {
+            threads.add(Thread.currentThread().getName());
+            return "lazy";
+        });
+
+        sink.write(new LogbookRecord(mock(Logger.class), Level.INFO, List.of(new Pair("payload", payload)), null));
+        sink.flush();
+        sink.close();
+
+        assertThat(threads)
+                .containsExactly("test-writer");
+        assertThat(lines.get(0))
+                .contains("payload=\"lazy\"");
+    }
+
+    @Test
+    void shouldDropRecordWhoseSupplierFailsOnWriter() {
+        QueueSink sink = sink(false, true);
+        LazyValue failing = new LazyValue(() -> {
+            throw new IllegalStateException("supplier");
+        });
+
+        sink.write(new LogbookRecord(mock(Logger.class), Level.INFO, List.of(new Pair("payload", failing)), null));
+        sink.write(record("written"));
+        sink.flush();
+        sink.close();
+
+        assertThat(lines)
+                .hasSize(1);
+        assertThat(sink.dropped())
+                .isEqualTo(1);
+        assertThat(sink.lastError())
+                .hasMessage("supplier");
+    }
+}
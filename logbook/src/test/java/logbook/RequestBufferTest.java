@@ -0,0 +1,192 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestBufferTest {
+
+    private static final String RECORDED = "recordedLevel=\"{}\" recordedTime=\"{}\" ";
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        when(logger.isErrorEnabled()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestBuffer.stop();
+    }
+
+    @Test
+    void shouldDiscardEventsOnSuccess() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).request("r-1").message("debug").debug();
+        Logbook.instance(logger).request("r-1").success().info();
+
+        verify(logger)
+                .info("request=\"{}\" status=\"{}\"", new Object[]{"r-1", "success"});
+        verify(logger, never())
+                .info(argThat((String format) -> format.startsWith(RECORDED)), any(Object[].class));
+        assertThat(RequestBuffer.active().size())
+                .isZero();
+    }
+
+    @Test
+    void shouldFlushEventsOnFail() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).request("r-1").message("debug").debug();
+        Logbook.instance(logger).request("r-2").message("other").debug();
+        Logbook.instance(logger).request("r-1").fail().info();
+
+        InOrder order = inOrder(logger);
+        order.verify(logger)
+                .info(eq(RECORDED + "request=\"{}\" message=\"{}\""), argThat((Object[] arguments) ->
+                        "DEBUG".equals(arguments[0]) && arguments[2].equals("r-1") && arguments[3].equals("debug")));
+        order.verify(logger)
+                .info("request=\"{}\" status=\"{}\"", new Object[]{"r-1", "fail"});
+        verify(logger, times(2))
+                .info(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldFlushEventsAtErrorWhenFailingLevelIsDisabled() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).request("r-1").message("detail").debug();
+        Logbook.instance(logger).request("r-1").fail().debug();
+
+        InOrder order = inOrder(logger);
+        order.verify(logger)
+                .error(eq(RECORDED + "request=\"{}\" message=\"{}\""), argThat((Object[] arguments) ->
+                        "DEBUG".equals(arguments[0]) && arguments[3].equals("detail")));
+        order.verify(logger)
+                .error("request=\"{}\" status=\"{}\"", new Object[]{"r-1", "fail"});
+    }
+
+    @Test
+    void shouldNotEvaluateLazyRequestId() {
+        RequestBuffer.start(10, 10);
+        AtomicBoolean evaluated = new AtomicBoolean();
+
+        Logbook.instance(logger).addLazy("request", () -> {
+            evaluated.set(true);
+            return "r-1";
+        }).message("detail").debug();
+
+        assertThat(evaluated)
+                .isFalse();
+        assertThat(RequestBuffer.active().size())
+                .isZero();
+    }
+
+    @Test
+    void shouldNotBufferEventsOfEndedRequest() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).request("r-1").success().info();
+        Logbook.instance(logger).request("r-1").message("late").debug();
+
+        assertThat(RequestBuffer.active().size())
+                .isZero();
+    }
+
+    @Test
+    void shouldFlushEventsOnErrorByTrack() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).track("t-1").message("trace").trace();
+        Logbook.instance(logger).track("t-1").message("error").error();
+
+        InOrder order = inOrder(logger);
+        order.verify(logger)
+                .error(eq(RECORDED + "track=\"{}\" message=\"{}\""), any(Object[].class));
+        order.verify(logger)
+                .error("track=\"{}\" message=\"{}\"", new Object[]{"t-1", "error"});
+    }
+
+    @Test
+    void shouldNotBufferEventsWithoutRequest() {
+        RequestBuffer.start(10, 10);
+
+        Logbook.instance(logger).message("debug").debug();
+
+        verify(logger)
+                .debug("message=\"{}\"", new Object[]{"debug"});
+        assertThat(RequestBuffer.active().size())
+                .isZero();
+    }
+
+    @Test
+    void shouldEvictOldestRequest() {
+        RequestBuffer.start(2, 10);
+
+        Logbook.instance(logger).request("r-1").message("debug").debug();
+        Logbook.instance(logger).request("r-2").message("debug").debug();
+        Logbook.instance(logger).request("r-3").message("debug").debug();
+        Logbook.instance(logger).request("r-1").fail().info();
+
+        verify(logger)
+                .info(anyString(), any(Object[].class));
+        assertThat(RequestBuffer.active().size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepLastEventsOfRequest() {
+        RequestBuffer.start(10, 2);
+
+        Logbook.instance(logger).request("r-1").message("first").debug();
+        Logbook.instance(logger).request("r-1").message("second").debug();
+        Logbook.instance(logger).request("r-1").message("third").debug();
+        Logbook.instance(logger).request("r-1").fail().info();
+
+        verify(logger, times(3))
+                .info(anyString(), any(Object[].class));
+        verify(logger, never())
+                .info(anyString(), argThat((Object[] arguments) -> arguments.length > 3 && "first".equals(arguments[3])));
+    }
+
+    @Test
+    void shouldBufferEventsFromManyThreads() throws InterruptedException {
+        RequestBuffer.start(10, 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> Logbook.instance(logger).request("r-1").message("debug").debug());
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS))
+                .isTrue();
+
+        Logbook.instance(logger).request("r-1").fail().info();
+
+        verify(logger, times(401))
+                .info(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,88 @@
+package logbook;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingFileReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private void gzip(String name, String content, boolean finish) throws IOException {
+        OutputStream output = new GZIPOutputStream(Files.newOutputStream(directory.resolve(name)), true);
+        output.write(content.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        if (finish) {
+            output.close();
+        }
+    }
+
+    private List<String> read(Path file) throws IOException {
+        try (BufferedReader reader = RollingFileReader.newBufferedReader(file)) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void shouldReadSegmentsInSequenceOrder() throws IOException {
+        gzip("app.log.10.gz", "10\n", true);
+        gzip("app.log.2.gz", "2\n", true);
+        Files.write(directory.resolve("app.log.11"), List.of("11"));
+        Files.write(directory.resolve("app.log"), List.of("active"));
+        Files.write(directory.resolve("app.log.old"), List.of("ignored"));
+        Files.write(directory.resolve("app.log.12.gz.tmp"), List.of("ignored"));
+
+        assertThat(read(directory.resolve("app.log")))
+                .containsExactly("2", "10", "11", "active");
+    }
+
+    @Test
+    void shouldPreferCompressedSegment() throws IOException {
+        Files.write(directory.resolve("app.log.1"), List.of("plain"));
+        gzip("app.log.1.gz", "compressed\n", true);
+
+        assertThat(RollingFileReader.segments(directory.resolve("app.log")))
+                .containsExactly(directory.resolve("app.log.1.gz").toAbsolutePath());
+    }
+
+    @Test
+    void shouldReadUnfinishedCompressedSegment() throws IOException {
+        gzip("app.log.gz", "first\nsecond\n", false);
+
+        assertThat(read(directory.resolve("app.log")))
+                .containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldReportTruncatedRotatedSegment() throws IOException {
+        gzip("app.log.1.gz", "first\n", false);
+        gzip("app.log.gz", "active\n", false);
+        List<Path> truncated = new ArrayList<>();
+
+        try (BufferedReader reader = RollingFileReader.newBufferedReader(directory.resolve("app.log"), truncated::add)) {
+            assertThat(reader.lines())
+                    .containsExactly("first", "active");
+        }
+        assertThat(truncated)
+                .containsExactly(directory.resolve("app.log.1.gz").toAbsolutePath());
+    }
+
+    @Test
+    void shouldReadNothingWithoutSegments() throws IOException {
+        assertThat(read(directory.resolve("app.log")))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,170 @@
+package logbook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RollingFileSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("app.log");
+        logger = mock(Logger.class);
+        when(logger.getName()).thenReturn("logbook.RollingFileSinkTest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+    }
+
+    private void log(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Logbook.instance(logger).add("line", i).info();
+        }
+    }
+
+    private List<String> read() throws IOException {
+        try (BufferedReader reader = RollingFileReader.newBufferedReader(file)) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private void assertLines(List<String> lines, int count) {
+        assertThat(lines)
+                .hasSize(count);
+        for (int i = 0; i < count; i++) {
+            assertThat(lines.get(i))
+                    .endsWith("line=\"" + i + "\"");
+        }
+    }
+
+    @Test
+    void shouldRotateBySizeAndCompressRotatedSegments() throws IOException {
+        RollingFileSink sink = RollingFileSink.builder(file).maxBytes(1024).build();
+        LogbookSinks.install(sink);
+
+        for (int i = 0; i < 100; i += 10) {
+            log(i, i + 10);
+            sink.flush();
+        }
+        LogbookSinks.uninstall();
+
+        assertThat(files())
+                .contains("app.log", "app.log.1.gz", "app.log.2.gz")
+                .noneMatch(name -> name.matches("app\\.log\\.\\d+") || name.endsWith(".tmp"));
+        assertLines(read(), 100);
+    }
+
+    @Test
+    void shouldWriteCompressedActiveSegment() throws IOException {
+        RollingFileSink sink = RollingFileSink.builder(file).maxBytes(1024).compressActive(true).build();
+        LogbookSinks.install(sink);
+
+        for (int i = 0; i < 100; i += 10) {
+            log(i, i + 10);
+            sink.flush();
+        }
+
+        assertThat(files())
+                .contains("app.log.gz", "app.log.1.gz")
+                .doesNotContain("app.log");
+        assertLines(read(), 100);
+
+        LogbookSinks.uninstall();
+        assertLines(read(), 100);
+    }
+
+    @Test
+    void shouldRotateByInterval() throws IOException, InterruptedException {
+        RollingFileSink sink = RollingFileSink.builder(file).interval(Duration.ofMillis(50)).build();
+        LogbookSinks.install(sink);
+
+        log(0, 1);
+        sink.flush();
+        Thread.sleep(100);
+        log(1, 2);
+        LogbookSinks.uninstall();
+
+        assertThat(files())
+                .containsExactly("app.log", "app.log.1.gz");
+        assertLines(read(), 2);
+    }
+
+    @Test
+    void shouldContinueSequenceAfterRestart() throws IOException {
+        LogbookSinks.install(RollingFileSink.builder(file).build());
+        log(0, 5);
+        LogbookSinks.uninstall();
+
+        LogbookSinks.install(RollingFileSink.builder(file).build());
+        log(5, 10);
+        LogbookSinks.uninstall();
+
+        assertThat(files())
+                .containsExactly("app.log", "app.log.1.gz");
+        assertLines(read(), 10);
+    }
+
+    @Test
+    void shouldCompressLeftoverSegmentsOnStart() throws IOException {
+        Files.write(directory.resolve("app.log.1"), List.of("line=\"0\""));
+
+        LogbookSinks.install(RollingFileSink.builder(file).build());
+        log(1, 2);
+        LogbookSinks.uninstall();
+
+        assertThat(files())
+                .containsExactly("app.log", "app.log.1.gz");
+        assertLines(read(), 2);
+    }
+
+    @Test
+    void shouldKeepWritingWhenRotationFails() throws IOException {
+        RollingFileSink sink = RollingFileSink.builder(file).maxBytes(1024).build();
+        LogbookSinks.install(sink);
+        Files.createDirectory(directory.resolve("app.log.1"));
+
+        log(0, 50);
+        sink.flush();
+        assertThat(sink.errors())
+                .isPositive();
+        assertThat(files())
+                .containsExactly("app.log", "app.log.1");
+
+        Files.delete(directory.resolve("app.log.1"));
+        log(50, 100);
+        LogbookSinks.uninstall();
+
+        assertThat(files())
+                .contains("app.log", "app.log.1.gz");
+        assertLines(read(), 100);
+    }
+}
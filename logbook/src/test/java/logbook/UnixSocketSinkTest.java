@@ -0,0 +1,255 @@
+package logbook;
+
+import logbook.testutil.UnixServerSockets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class UnixSocketSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private Path socket;
+    private Logger logger;
+    private UnixSocketSink sink;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(UnixSocketSink.isSupported(), "Unix domain sockets need Java 16 or later");
+        socket = directory.resolve("agent.sock");
+        logger = mock(Logger.class, withSettings().stubOnly());
+        when(logger.getName()).thenReturn("logbook.UnixSocketSinkTest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    private void install(UnixSocketSink.Builder builder) {
+        sink = builder.build();
+        LogbookSinks.install(sink);
+    }
+
+    private void log(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Logbook.instance(logger).add("sequence", i).info();
+        }
+    }
+
+    private static void assertSequence(List<String> lines, int from) {
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(lines.get(i))
+                    .contains("sequence=\"" + (from + i) + "\"");
+        }
+    }
+
+    @Test
+    void shouldStreamLinesInOrder() throws Exception {
+        try (Agent agent = Agent.reading(socket)) {
+            install(UnixSocketSink.builder(socket).queueCapacity(100_000));
+
+            long start = System.nanoTime();
+            log(0, 100_000);
+            sink.flush();
+            long nanos = System.nanoTime() - start;
+            LogbookSinks.uninstall();
+
+            List<String> lines = agent.lines();
+            assertThat(lines)
+                    .hasSize(100_000);
+            assertSequence(lines, 0);
+            assertThat(lines.get(0))
+                    .endsWith(" INFO [" + Thread.currentThread().getName() + "] logbook.UnixSocketSinkTest sequence=\"0\"");
+            assertThat(100_000 * TimeUnit.SECONDS.toNanos(1) / nanos)
+                    .isGreaterThan(10_000);
+        }
+    }
+
+    @Test
+    void shouldKeepLinesWhileAgentIsDown() throws Exception {
+        try (ServerSocketChannel server = UnixServerSockets.open()) {
+            server.bind(UnixSockets.address(socket));
+            install(UnixSocketSink.builder(socket));
+            server.accept().close();
+        }
+        Files.delete(socket);
+
+        log(0, 100);
+        sink.flush();
+        assertThat(sink.isConnected())
+                .isFalse();
+        assertThat(sink.pendingBytes())
+                .isPositive();
+
+        try (Agent agent = Agent.reading(socket)) {
+            log(100, 200);
+            sink.flush();
+            LogbookSinks.uninstall();
+
+            List<String> lines = agent.lines();
+            assertThat(lines)
+                    .hasSize(200);
+            assertSequence(lines, 0);
+            assertThat(sink.connects())
+                    .isEqualTo(2);
+            assertThat(sink.disconnects())
+                    .isEqualTo(1);
+            assertThat(sink.dropped())
+                    .isZero();
+        }
+    }
+
+    @Test
+    void shouldConnectWhenAgentStartsLater() throws Exception {
+        install(UnixSocketSink.builder(socket));
+        log(0, 10);
+
+        try (Agent agent = Agent.reading(socket)) {
+            sink.flush();
+            LogbookSinks.uninstall();
+
+            assertSequence(agent.lines(), 0);
+            assertThat(agent.lines())
+                    .hasSize(10);
+        }
+    }
+
+    @Test
+    void shouldDropNewestLinesWhenAgentIsSlow() throws Exception {
+        try (Agent agent = Agent.stalled(socket)) {
+            install(UnixSocketSink.builder(socket).maxPendingBytes(16 * 1024).queueCapacity(100_000));
+
+            long start = System.nanoTime();
+            log(0, 100_000);
+            long nanos = System.nanoTime() - start;
+            sink.flush();
+            agent.resume();
+            sink.flush();
+            LogbookSinks.uninstall();
+
+            List<String> lines = agent.lines();
+            assertSequence(lines, 0);
+            assertThat(sink.dropped())
+                    .isEqualTo(100_000 - lines.size());
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(nanos))
+                    .isLessThan(5);
+        }
+    }
+
+    @Test
+    void shouldDropOldestLinesWhenAgentIsSlow() throws Exception {
+        try (Agent agent = Agent.stalled(socket)) {
+            install(UnixSocketSink.builder(socket)
+                    .maxPendingBytes(16 * 1024)
+                    .overload(UnixSocketSink.Overload.DROP_OLDEST)
+                    .queueCapacity(100_000));
+
+            log(0, 100_000);
+            sink.flush();
+            agent.resume();
+            sink.flush();
+            LogbookSinks.uninstall();
+
+            List<String> lines = agent.lines();
+            assertThat(lines.get(lines.size() - 1))
+                    .contains("sequence=\"99999\"");
+            assertThat(sink.dropped())
+                    .isEqualTo(100_000 - lines.size());
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidPendingBytes() {
+        assertThatThrownBy(() -> UnixSocketSink.builder(socket).maxPendingBytes(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Stand-in for the local agent: accepts one connection and collects its lines until the sink
+     * closes it.
+     */
+    private static final class Agent implements AutoCloseable {
+        private final Path socket;
+        private final ServerSocketChannel server;
+        private final CountDownLatch resumed = new CountDownLatch(1);
+        private final CompletableFuture<List<String>> lines = new CompletableFuture<>();
+
+        private Agent(Path socket) throws IOException {
+            this.socket = socket;
+            this.server = UnixServerSockets.open();
+            server.bind(UnixSockets.address(socket));
+            Thread thread = new Thread(this::collect, "agent");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        static Agent reading(Path socket) throws IOException {
+            Agent agent = new Agent(socket);
+            agent.resume();
+            return agent;
+        }
+
+        /**
+         * Accepts the connection but reads nothing until resumed.
+         */
+        static Agent stalled(Path socket) throws IOException {
+            return new Agent(socket);
+        }
+
+        void resume() {
+            resumed.countDown();
+        }
+
+        List<String> lines() throws Exception {
+            return lines.get(30, TimeUnit.SECONDS);
+        }
+
+        private void collect() {
+            try (SocketChannel channel = server.accept();
+                 BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+                resumed.await();
+                List<String> received = new ArrayList<>();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    received.add(line);
+                }
+                lines.complete(received);
+            } catch (Exception e) {
+                lines.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            Files.deleteIfExists(socket);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package logbook.testutil;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * The agent side of Unix domain sockets for tests and benchmarks, looked up at runtime like the
+ * client side in {@code logbook.UnixSockets}, as both are built for Java 11.
+ */
+public final class UnixServerSockets {
+
+    private UnixServerSockets() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * An unbound Unix domain server socket.
+     */
+    public static ServerSocketChannel open() throws IOException {
+        try {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            return (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package logbook.processor;
+
+import logbook.Logbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated event versus the fluent chain. Logback has no appenders in this source set,
+ * so the score is the cost on the caller side up to the backend.
+ * Run with {@code ./gradlew :processor:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogbookEventBenchmark {
+    private static final Logger INFO_LOGGER = LoggerFactory.getLogger("benchmark.info");
+    private static final Logger DISABLED_LOGGER = LoggerFactory.getLogger("benchmark.disabled");
+
+    private final OrderPlaced enabledEvent = LogbookOrderPlaced.create(INFO_LOGGER);
+    private final OrderPlaced disabledEvent = LogbookOrderPlaced.create(DISABLED_LOGGER);
+    private final String orderId = "5f0c2a1e-8f6b-4c65-9d2f-8d1d6f0b4c11";
+    private long duration = 125;
+    private int httpStatus = 201;
+
+    @Benchmark
+    public void generatedEvent() {
+        enabledEvent.log(orderId, duration, httpStatus);
+    }
+
+    @Benchmark
+    public Logbook fluentChain() {
+        return Logbook.instance(INFO_LOGGER)
+                .add("orderId", orderId)
+                .duration(duration)
+                .httpStatus(httpStatus)
+                .info();
+    }
+
+    @Benchmark
+    public void generatedEventDisabled() {
+        disabledEvent.log(orderId, duration, httpStatus);
+    }
+
+    @Benchmark
+    public Logbook fluentChainDisabled() {
+        return Logbook.instance(DISABLED_LOGGER)
+                .add("orderId", orderId)
+                .duration(duration)
+                .httpStatus(httpStatus)
+                .info();
+    }
+}
@@ -0,0 +1,8 @@
+package logbook.processor;
+
+import logbook.LogbookEvent;
+
+@LogbookEvent
+public interface OrderPlaced {
+    void log(String orderId, long duration, int httpStatus);
+}
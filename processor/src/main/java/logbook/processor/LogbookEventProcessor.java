@@ -0,0 +1,368 @@
+package logbook.processor;
+
+import logbook.LogbookEvent;
+import org.slf4j.event.Level;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@SupportedAnnotationTypes("logbook.LogbookEvent")
+public class LogbookEventProcessor extends AbstractProcessor {
+    static final String CLASS_PREFIX = "Logbook";
+
+    private static final String LOGGER = "org.slf4j.Logger";
+    private static final String LEVEL = "org.slf4j.event.Level";
+    private static final String EVENT_TYPE = "logbook.LogbookEventType";
+    private static final String VALUES = "logbook.LogbookValues";
+    private static final String MESSAGE_KEY = "message";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(LogbookEvent.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                if (element.getEnclosingElement().getAnnotation(LogbookEvent.class) == null) {
+                    error(element, "@LogbookEvent methods must belong to a @LogbookEvent interface");
+                }
+                continue;
+            }
+
+            if (element.getKind() != ElementKind.INTERFACE) {
+                error(element, "@LogbookEvent can only be used on interfaces");
+                continue;
+            }
+
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                error(element, "Could not generate logbook event: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@LogbookEvent interfaces must not be generic");
+            return;
+        }
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+                methods.add(method);
+            }
+        }
+
+        boolean valid = true;
+        for (ExecutableElement method : methods) {
+            valid &= validate(type, method);
+        }
+        if (!valid) {
+            return;
+        }
+
+        String packageName = packageName(type);
+        String className = CLASS_PREFIX + nestedName(type);
+        String interfaceName = type.getQualifiedName().toString();
+        String visibility = type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append(visibility).append("final class ").append(className).append(" implements ").append(interfaceName).append(" {\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            if (isEnabledMethod(method)) {
+                continue;
+            }
+
+            LogbookEvent event = event(type, method);
+            List<String> keys = keys(method, event);
+            source.append("    private static final String FORMAT_").append(i).append(" = \"").append(escape(format(keys))).append("\";\n");
+            source.append("    private static final ").append(EVENT_TYPE).append(" EVENT_").append(i).append(" = ").append(EVENT_TYPE)
+                    .append(".of(").append(className).append(".class, \"").append(String.join("\", \"", keys)).append("\");\n");
+            if (!event.message().isEmpty()) {
+                source.append("    private static final String MESSAGE_").append(i).append(" = \"").append(escape(clean(event.message()))).append("\";\n");
+            }
+        }
+
+        source.append("\n")
+                .append("    private final ").append(LOGGER).append(" logger;\n\n")
+                .append("    private ").append(className).append("(").append(LOGGER).append(" logger) {\n")
+                .append("        this.logger = logger;\n")
+                .append("    }\n\n")
+                .append("    public static ").append(interfaceName).append(" create(").append(LOGGER).append(" logger) {\n")
+                .append("        return new ").append(className).append("(logger);\n")
+                .append("    }\n\n")
+                .append("    public static ").append(interfaceName).append(" create(Class<?> origin) {\n")
+                .append("        return new ").append(className).append("(logbook.Logbook.logger(origin));\n")
+                .append("    }\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            source.append("\n");
+            if (isEnabledMethod(method)) {
+                appendIsEnabled(source, event(type, method));
+            } else {
+                appendMethod(source, method, event(type, method), i);
+            }
+        }
+        source.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private boolean validate(TypeElement type, ExecutableElement method) {
+        if (isEnabledMethod(method)) {
+            return true;
+        }
+
+        if (method.getReturnType().getKind() != TypeKind.VOID) {
+            error(method, "@LogbookEvent methods must return void or be boolean isEnabled()");
+            return false;
+        }
+
+        for (VariableElement parameter : method.getParameters()) {
+            String key = cleanKey(parameter.getSimpleName().toString());
+            if (key.isEmpty() || key.equals(MESSAGE_KEY) && !event(type, method).message().isEmpty()) {
+                error(parameter, "Parameter name is not a valid logbook key");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEnabledMethod(ExecutableElement method) {
+        return method.getSimpleName().contentEquals("isEnabled")
+                && method.getParameters().isEmpty()
+                && method.getReturnType().getKind() == TypeKind.BOOLEAN;
+    }
+
+    private static LogbookEvent event(TypeElement type, ExecutableElement method) {
+        LogbookEvent event = method.getAnnotation(LogbookEvent.class);
+        return event != null ? event : type.getAnnotation(LogbookEvent.class);
+    }
+
+    private static List<String> keys(ExecutableElement method, LogbookEvent event) {
+        List<String> keys = new ArrayList<>();
+        if (!event.message().isEmpty()) {
+            keys.add(MESSAGE_KEY);
+        }
+
+        for (VariableElement parameter : method.getParameters()) {
+            keys.add(cleanKey(parameter.getSimpleName().toString()));
+        }
+        return keys;
+    }
+
+    private static String format(List<String> keys) {
+        StringBuilder format = new StringBuilder();
+        for (String key : keys) {
+            if (format.length() > 0) {
+                format.append(' ');
+            }
+            format.append(key).append("=\"{}\"");
+        }
+        return format.toString();
+    }
+
+    private void appendIsEnabled(StringBuilder source, LogbookEvent event) {
+        source.append("    @Override\n")
+                .append("    public boolean isEnabled() {\n")
+                .append("        return ").append(EVENT_TYPE).append(".isEnabled(logger, ").append(LEVEL).append(".").append(event.level()).append(");\n")
+                .append("    }\n");
+    }
+
+    private void appendMethod(StringBuilder source, ExecutableElement method, LogbookEvent event, int index) {
+        List<String> parameters = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        if (!event.message().isEmpty()) {
+            values.add("MESSAGE_" + index);
+            arguments.add("MESSAGE_" + index);
+        }
+
+        for (VariableElement parameter : method.getParameters()) {
+            String name = parameter.getSimpleName().toString();
+            parameters.add(parameter.asType() + " " + name);
+            values.add(typedValue(parameter.asType(), name));
+            arguments.add(valueExpression(parameter.asType(), name));
+        }
+
+        String level = LEVEL + "." + event.level();
+        source.append("    @Override\n")
+                .append("    public ").append(typeParameters(method)).append("void ").append(method.getSimpleName())
+                .append("(").append(String.join(", ", parameters)).append(") {\n")
+                .append("        if (!EVENT_").append(index).append(".isDirect()) {\n")
+                .append("            if (").append(EVENT_TYPE).append(".isEnabled(logger, ").append(level).append(")) {\n")
+                .append("                EVENT_").append(index).append(".values()");
+        for (int i = 0; i < values.size(); i++) {
+            source.append("\n                        .add(").append(i).append(", ").append(values.get(i)).append(")");
+        }
+        source.append("\n                        .log(logger, ").append(level).append(");\n")
+                .append("            }\n")
+                .append("            return;\n")
+                .append("        }\n\n")
+                .append("        if (!logger.").append(levelMethod("is", event.level(), "Enabled")).append("()) {\n")
+                .append("            return;\n")
+                .append("        }\n\n")
+                .append("        logger.").append(levelMethod("", event.level(), "")).append("(FORMAT_").append(index);
+
+        if (arguments.size() > 2) {
+            source.append(", new Object[]{").append(String.join(", ", arguments)).append("}");
+        } else {
+            for (String argument : arguments) {
+                source.append(", ").append(argument);
+            }
+        }
+        source.append(");\n")
+                .append("    }\n");
+    }
+
+    /**
+     * Copies the type parameters of a generic method with their bounds, e.g. {@code <T extends Number> }.
+     */
+    private static String typeParameters(ExecutableElement method) {
+        if (method.getTypeParameters().isEmpty()) {
+            return "";
+        }
+
+        List<String> parameters = new ArrayList<>();
+        for (TypeParameterElement parameter : method.getTypeParameters()) {
+            List<String> bounds = new ArrayList<>();
+            for (TypeMirror bound : parameter.getBounds()) {
+                if (!bound.toString().equals("java.lang.Object")) {
+                    bounds.add(bound.toString());
+                }
+            }
+            parameters.add(bounds.isEmpty() ? parameter.getSimpleName().toString()
+                    : parameter.getSimpleName() + " extends " + String.join(" & ", bounds));
+        }
+        return "<" + String.join(", ", parameters) + "> ";
+    }
+
+    /**
+     * The argument of the typed {@code add} call on the pipeline path; integral and double values
+     * stay unboxed, while float and char are rendered here since they would widen to a number.
+     */
+    private static String typedValue(TypeMirror type, String name) {
+        switch (type.getKind()) {
+            case FLOAT:
+                return "Float.toString(" + name + ")";
+            case CHAR:
+                return "String.valueOf(" + name + ")";
+            default:
+                return name;
+        }
+    }
+
+    private static String valueExpression(TypeMirror type, String name) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "String.valueOf(" + name + ")";
+            case BYTE:
+            case SHORT:
+            case INT:
+                return "Integer.toString(" + name + ")";
+            case LONG:
+                return "Long.toString(" + name + ")";
+            case FLOAT:
+                return "Float.toString(" + name + ")";
+            case DOUBLE:
+                return "logbook.LogbookNumbers.toString(" + name + ")";
+            case CHAR:
+                return VALUES + ".clean(String.valueOf(" + name + "))";
+            default:
+                if (type.toString().equals("java.lang.String")) {
+                    return VALUES + ".clean(" + name + ")";
+                }
+                return VALUES + ".toString(" + name + ")";
+        }
+    }
+
+    private static String levelMethod(String prefix, Level level, String suffix) {
+        String name = level.name().toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) {
+            return name + suffix;
+        }
+        return prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1) + suffix;
+    }
+
+    private String packageName(TypeElement type) {
+        PackageElement element = processingEnv.getElementUtils().getPackageOf(type);
+        return element.isUnnamed() ? "" : element.getQualifiedName().toString();
+    }
+
+    private static String nestedName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, ((TypeElement) enclosing).getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    static String cleanKey(String key) {
+        return key.replaceAll("[^a-zA-Z0-9_.]", "");
+    }
+
+    private static String clean(String value) {
+        return value.replace("'", "")
+                .replace("\"", "")
+                .replace("\n", " ")
+                .trim();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\%03o", (int) c));
+            } else if (c > 0x7e) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
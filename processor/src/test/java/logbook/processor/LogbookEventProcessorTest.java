@@ -0,0 +1,256 @@
+package logbook.processor;
+
+import logbook.LogbookSinks;
+import logbook.MemorySink;
+import logbook.Redactor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogbookEventProcessorTest {
+
+    private static final String ORDER_PLACED = String.join("\n",
+            "package test;",
+            "import logbook.LogbookEvent;",
+            "import org.slf4j.event.Level;",
+            "@LogbookEvent",
+            "public interface OrderPlaced {",
+            "    void log(String orderId, long duration, int httpStatus);",
+            "    @LogbookEvent(level = Level.ERROR, message = \"Order \\\"failed\\\" {}\")",
+            "    void failed(String orderId, Object[] items, char grade, double amount);",
+            "    boolean isEnabled();",
+            "}");
+
+    @TempDir
+    Path directory;
+
+    private Logger logger;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        diagnostics = new DiagnosticCollector<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LogbookSinks.uninstall();
+        Redactor.uninstall();
+    }
+
+    private boolean compile(String className, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        Files.createDirectories(directory);
+        List<String> options = List.of("-d", directory.toString(), "-s", directory.toString(),
+                "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(file));
+        task.setProcessors(List.of(new LogbookEventProcessor()));
+        return task.call();
+    }
+
+    private Object create(String className) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader());
+        Class<?> generated = loader.loadClass(className);
+        return generated.getMethod("create", Logger.class).invoke(null, logger);
+    }
+
+    private List<String> errors() {
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldGenerateImplementationWithPrecomputedFormat() throws Exception {
+        assertThat(compile("test.OrderPlaced", ORDER_PLACED))
+                .isTrue();
+
+        String source = new String(Files.readAllBytes(directory.resolve("test/LogbookOrderPlaced.java")), StandardCharsets.UTF_8);
+        assertThat(source)
+                .contains("\"orderId=\\\"{}\\\" duration=\\\"{}\\\" httpStatus=\\\"{}\\\"\"")
+                .contains("Long.toString(duration)")
+                .contains("Integer.toString(httpStatus)")
+                .contains(".add(1, duration)")
+                .contains(".add(2, httpStatus)")
+                .doesNotContain("new Object[]{orderId");
+    }
+
+    @Test
+    void shouldLogParametersAsKeyValues() throws Exception {
+        compile("test.OrderPlaced", ORDER_PLACED);
+        Object event = create("test.LogbookOrderPlaced");
+        when(logger.isInfoEnabled()).thenReturn(true);
+
+        Method log = event.getClass().getMethod("log", String.class, long.class, int.class);
+        log.invoke(event, "o-'1'", 25L, 500);
+
+        verify(logger)
+                .info("orderId=\"{}\" duration=\"{}\" httpStatus=\"{}\"", new Object[]{"o-1", "25", "500"});
+    }
+
+    @Test
+    void shouldUseMethodLevelAndMessage() throws Exception {
+        compile("test.OrderPlaced", ORDER_PLACED);
+        Object event = create("test.LogbookOrderPlaced");
+        when(logger.isErrorEnabled()).thenReturn(true);
+
+        Method failed = event.getClass().getMethod("failed", String.class, Object[].class, char.class, double.class);
+        failed.invoke(event, null, new Object[]{"a", 1}, '"', 3.5);
+
+        verify(logger)
+                .error("message=\"{}\" orderId=\"{}\" items=\"{}\" grade=\"{}\" amount=\"{}\"",
+                        new Object[]{"Order failed {}", "null", "[a, 1]", "", "3.5"});
+    }
+
+    @Test
+    void shouldNotLogWhenLevelIsDisabled() throws Exception {
+        compile("test.OrderPlaced", ORDER_PLACED);
+        Object event = create("test.LogbookOrderPlaced");
+
+        Method log = event.getClass().getMethod("log", String.class, long.class, int.class);
+        log.invoke(event, "o-1", 25L, 200);
+
+        verify(logger, never())
+                .info(anyString(), any(Object[].class));
+        assertThat(event.getClass().getMethod("isEnabled").invoke(event))
+                .isEqualTo(false);
+    }
+
+    @Test
+    void shouldWriteThroughInstalledSinksAndRedactor() throws Exception {
+        compile("test.OrderPlaced", ORDER_PLACED);
+        Object event = create("test.LogbookOrderPlaced");
+        MemorySink sink = MemorySink.builder().build();
+        LogbookSinks.install(sink);
+        Redactor.install(Redactor.builder().key("orderId").build());
+        when(logger.getName()).thenReturn("test.OrderPlaced");
+
+        Method log = event.getClass().getMethod("log", String.class, long.class, int.class);
+        log.invoke(event, "o-1", 25L, 500);
+
+        assertThat(sink.events())
+                .hasSize(1);
+        assertThat(sink.events().get(0).toString())
+                .endsWith("orderId=\"***\" duration=\"25\" httpStatus=\"500\"");
+        verify(logger, never())
+                .info(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldNotBuildEventWhenNoSinkIsEnabled() throws Exception {
+        compile("test.OrderPlaced", ORDER_PLACED);
+        Object event = create("test.LogbookOrderPlaced");
+        MemorySink sink = MemorySink.builder().minimumLevel(org.slf4j.event.Level.ERROR).build();
+        LogbookSinks.install(sink);
+
+        Method log = event.getClass().getMethod("log", String.class, long.class, int.class);
+        log.invoke(event, "o-1", 25L, 200);
+
+        assertThat(sink.events())
+                .isEmpty();
+        assertThat(event.getClass().getMethod("isEnabled").invoke(event))
+                .isEqualTo(false);
+    }
+
+    @Test
+    void shouldCopyTypeParametersOfGenericMethods() throws Exception {
+        boolean compiled = compile("test.Measured", String.join("\n",
+                "package test;",
+                "@logbook.LogbookEvent",
+                "public interface Measured {",
+                "    <T extends Number & Comparable<T>> void log(T value, java.util.List<? extends T> samples, double ratio, float weight, char grade);",
+                "}"));
+        assertThat(compiled)
+                .isTrue();
+        Object event = create("test.LogbookMeasured");
+        MemorySink sink = MemorySink.builder().build();
+        LogbookSinks.install(sink);
+        when(logger.getName()).thenReturn("test.Measured");
+
+        Method log = event.getClass().getMethod("log", Number.class, List.class, double.class, float.class, char.class);
+        log.invoke(event, 7, List.of(1, 2), 0.5, 1.1f, 'A');
+
+        assertThat(sink.events().get(0).toString())
+                .endsWith("value=\"7\" samples=\"[1, 2]\" ratio=\"0.5\" weight=\"1.1\" grade=\"A\"");
+    }
+
+    @Test
+    void shouldRejectGenericInterfaces() throws Exception {
+        boolean compiled = compile("test.Event", String.join("\n",
+                "package test;",
+                "@logbook.LogbookEvent",
+                "public interface Event<T> {",
+                "    void log(T value);",
+                "}"));
+
+        assertThat(compiled)
+                .isFalse();
+        assertThat(errors())
+                .containsExactly("@LogbookEvent interfaces must not be generic");
+    }
+
+    @Test
+    void shouldRejectClasses() throws Exception {
+        boolean compiled = compile("test.Event", String.join("\n",
+                "package test;",
+                "@logbook.LogbookEvent",
+                "public class Event {",
+                "}"));
+
+        assertThat(compiled)
+                .isFalse();
+        assertThat(errors())
+                .containsExactly("@LogbookEvent can only be used on interfaces");
+    }
+
+    @Test
+    void shouldRejectMethodsWithReturnValues() throws Exception {
+        boolean compiled = compile("test.Event", String.join("\n",
+                "package test;",
+                "@logbook.LogbookEvent",
+                "public interface Event {",
+                "    String log(String value);",
+                "}"));
+
+        assertThat(compiled)
+                .isFalse();
+        assertThat(errors())
+                .containsExactly("@LogbookEvent methods must return void or be boolean isEnabled()");
+    }
+}
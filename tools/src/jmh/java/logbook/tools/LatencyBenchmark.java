@@ -0,0 +1,88 @@
+package logbook.tools;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput of the latency report in GB/s is {@code gigabytes / score}; the regex scan
+ * stands for the ad-hoc script that reads lines, extracts fields and sorts durations.
+ * Run with {@code ./gradlew :tools:jmh -Pjmh.includes=LatencyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LatencyBenchmark {
+    private static final Pattern FIELD = Pattern.compile("([a-zA-Z0-9_.]+)=\"([^\"]*)\"");
+
+    @Param({"1", "4"})
+    public int gigabytes;
+
+    private Path file;
+    private LatencyAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = LogFiles.generate(gigabytes * (1L << 30));
+        analyzer = new LatencyAnalyzer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<List<String>, LatencySketch> latencyAnalyzer() throws IOException {
+        return analyzer.analyze(List.of(file));
+    }
+
+    @Benchmark
+    public Map<List<String>, Double> regexScan() throws IOException {
+        Map<List<String>, List<Double>> durations = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Map<String, String> fields = new HashMap<>();
+                Matcher matcher = FIELD.matcher(line);
+                while (matcher.find()) {
+                    fields.put(matcher.group(1), matcher.group(2));
+                }
+
+                String duration = fields.get("duration");
+                if (duration != null) {
+                    List<String> group = List.of(fields.getOrDefault("endpoint", ""),
+                            fields.getOrDefault("service", ""), fields.getOrDefault("httpStatus", ""));
+                    durations.computeIfAbsent(group, key -> new ArrayList<>()).add(Double.parseDouble(duration));
+                }
+            }
+        }
+
+        Map<List<String>, Double> p99 = new HashMap<>();
+        durations.forEach((group, values) -> {
+            values.sort(Double::compare);
+            p99.put(group, values.get((int) Math.floor(0.99 * (values.size() - 1))));
+        });
+        return p99;
+    }
+}
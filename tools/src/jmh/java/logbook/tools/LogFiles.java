@@ -0,0 +1,37 @@
+package logbook.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+final class LogFiles {
+    private static final String[] ENDPOINTS = {"/orders", "/users", "/payments", "/items"};
+    private static final String[] SERVICES = {"checkout", "catalog", "accounts"};
+    private static final int[] STATUSES = {200, 200, 200, 201, 404, 500, 503};
+
+    private LogFiles() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static Path generate(long size) throws IOException {
+        Path file = Files.createTempFile("logbook-benchmark", ".log");
+        long written = 0;
+        int line = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            while (written < size) {
+                String text = String.format(
+                        "2021-10-10 10:10:10.100 INFO  logbook.demo.Demo - endpoint=\"%s\" service=\"%s\" httpStatus=\"%d\" duration=\"%d\" request=\"%s\" message=\"processed order %d\"%n",
+                        ENDPOINTS[line % ENDPOINTS.length], SERVICES[line % SERVICES.length], STATUSES[line % STATUSES.length],
+                        line % 997, UUID.randomUUID(), line);
+                writer.write(text);
+                written += text.length();
+                line++;
+            }
+        }
+        return file;
+    }
+}
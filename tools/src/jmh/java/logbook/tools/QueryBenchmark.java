@@ -0,0 +1,70 @@
+package logbook.tools;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the query engine against the grep pipeline we use today.
+ * Run with {@code ./gradlew :tools:jmh -Pjmh.includes=QueryBenchmark}; the input size
+ * is controlled by the {@code gigabytes} parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryBenchmark {
+    private static final String EXPRESSION = "endpoint=\"/orders\" AND httpStatus>=500";
+    private static final String GREP_PIPELINE = "grep -F 'endpoint=\"/orders\"' %s | grep -E 'httpStatus=\"5[0-9]{2}\"' | wc -l";
+
+    @Param({"1", "4"})
+    public int gigabytes;
+
+    private Path file;
+    private Query query;
+    private QueryEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = LogFiles.generate(gigabytes * (1L << 30));
+        query = Query.parse(EXPRESSION);
+        engine = new QueryEngine();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long queryEngine() throws IOException {
+        return engine.count(query, List.of(file));
+    }
+
+    @Benchmark
+    public long grepPipeline() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("sh", "-c", String.format(GREP_PIPELINE, file))
+                .redirectErrorStream(true)
+                .start();
+
+        try (InputStream input = process.getInputStream()) {
+            String output = new String(input.readAllBytes(), StandardCharsets.US_ASCII).trim();
+            process.waitFor();
+            return Long.parseLong(output);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package logbook.tools;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) >>> 6));
+        this.words = new long[wordCount];
+        this.bits = wordCount * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / entries * LN2));
+    }
+
+    void add(long hash) {
+        long first = hash;
+        long second = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    static boolean mightContain(ByteBuffer buffer, int offset, int wordCount, int hashes, long hash) {
+        long bits = wordCount * 64L;
+        long first = hash;
+        long second = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            long word = buffer.getLong(offset + (int) (bit >>> 6) * Long.BYTES);
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long hash(ByteBuffer buffer, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= buffer.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long hash(byte[] bytes) {
+        return hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
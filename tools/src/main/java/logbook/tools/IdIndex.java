@@ -0,0 +1,162 @@
+package logbook.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class IdIndex {
+    public static final String SIDECAR_EXTENSION = ".idx";
+
+    /**
+     * Same names as LogbookKey.REQUEST, TRACK, TRANSACTION, SESSION and ID.
+     */
+    public static final List<String> DEFAULT_KEYS = List.of("request", "track", "transaction", "session", "id");
+
+    private static final int DEFAULT_RUN_CAPACITY = 1 << 20;
+    private static final int DEFAULT_MERGE_FAN_IN = 64;
+    private static final int DEFAULT_BLOCK_ENTRIES = 1 << 16;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final int LINE_BUFFER_SIZE = 8 << 10;
+
+    private final List<byte[]> keys;
+    private final IdIndexWriter writer;
+
+    public IdIndex() {
+        this(DEFAULT_KEYS);
+    }
+
+    public IdIndex(List<String> keys) {
+        this(keys, DEFAULT_RUN_CAPACITY);
+    }
+
+    IdIndex(List<String> keys, int runCapacity) {
+        this(keys, runCapacity, DEFAULT_MERGE_FAN_IN, DEFAULT_BLOCK_ENTRIES);
+    }
+
+    IdIndex(List<String> keys, int runCapacity, int mergeFanIn, int blockEntries) {
+        this.keys = keys.stream()
+                .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+        this.writer = new IdIndexWriter(this.keys, runCapacity, mergeFanIn, blockEntries, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    public static Path sidecar(Path log) {
+        return log.resolveSibling(log.getFileName() + SIDECAR_EXTENSION);
+    }
+
+    public boolean index(Path log) throws IOException {
+        Path sidecar = sidecar(log);
+        if (Files.exists(sidecar)) {
+            try (IdIndexReader reader = IdIndexReader.open(sidecar)) {
+                if (reader.isFresh(log)) {
+                    return false;
+                }
+            } catch (IOException e) {
+                // unreadable sidecar, rebuild it below
+            }
+        }
+
+        writer.write(log, sidecar);
+        return true;
+    }
+
+    public long lookup(String id, List<Path> logs, OutputStream output) throws IOException {
+        byte[] value = id.getBytes(StandardCharsets.UTF_8);
+        long hash = BloomFilter.hash(value);
+        long[] count = {0};
+
+        for (Path log : logs) {
+            index(log);
+            try (IdIndexReader reader = IdIndexReader.open(sidecar(log));
+                 FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+                if (!reader.mightContain(hash)) {
+                    continue;
+                }
+
+                LineReader lines = new LineReader(channel, value, output);
+                reader.offsets(hash, offset -> {
+                    if (lines.writeIfMatches(offset)) {
+                        count[0]++;
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return count[0];
+    }
+
+    private final class LineReader {
+        private final FileChannel channel;
+        private final byte[] value;
+        private final OutputStream output;
+        private final LineFields fields = new LineFields();
+        private ByteBuffer buffer = ByteBuffer.allocate(LINE_BUFFER_SIZE);
+
+        private LineReader(FileChannel channel, byte[] value, OutputStream output) {
+            this.channel = channel;
+            this.value = value;
+            this.output = output;
+        }
+
+        private boolean writeIfMatches(long offset) {
+            try {
+                int end = readLine(offset);
+                fields.parse(buffer, 0, end > 0 && buffer.get(end - 1) == '\r' ? end - 1 : end);
+                if (!matches()) {
+                    return false;
+                }
+
+                output.write(buffer.array(), 0, end);
+                output.write('\n');
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private boolean matches() {
+            for (byte[] key : keys) {
+                int index = fields.indexOf(key);
+                if (index >= 0 && fields.valueEquals(index, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int readLine(long offset) throws IOException {
+            buffer.clear();
+            int scanned = 0;
+            while (true) {
+                int read = channel.read(buffer, offset + buffer.position());
+                int end = buffer.position();
+                for (int i = scanned; i < end; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return i;
+                    }
+                }
+
+                if (read < 0) {
+                    return end;
+                }
+
+                scanned = end;
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+        }
+    }
+}
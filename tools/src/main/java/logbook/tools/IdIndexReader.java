@@ -0,0 +1,147 @@
+package logbook.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+import static logbook.tools.IdIndexWriter.ENTRY_SIZE;
+import static logbook.tools.IdIndexWriter.HEADER_SIZE;
+
+final class IdIndexReader implements Closeable {
+    private final FileChannel channel;
+    private final long logSize;
+    private final long logModified;
+    private final long entryCount;
+    private final long blockCount;
+    private final int hashes;
+    private final int wordCount;
+    private final long fencesStart;
+    private final long bloomsStart;
+    private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+    private final ByteBuffer fence = ByteBuffer.allocate(Long.BYTES);
+
+    private IdIndexReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.read(header, 0) != HEADER_SIZE) {
+            throw new IOException("Truncated index header");
+        }
+        header.flip();
+
+        if (header.getInt() != IdIndexWriter.MAGIC || header.getInt() != IdIndexWriter.VERSION) {
+            throw new IOException("Unsupported index file");
+        }
+
+        this.logSize = header.getLong();
+        this.logModified = header.getLong();
+        this.entryCount = header.getLong();
+        this.blockCount = header.getLong();
+        this.hashes = header.getInt();
+        this.wordCount = header.getInt();
+        this.fencesStart = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        this.bloomsStart = fencesStart + blockCount * Long.BYTES;
+        if (blockCount < 1 || channel.size() < bloomsStart + blockCount * wordCount * Long.BYTES) {
+            throw new IOException("Truncated index file");
+        }
+    }
+
+    static IdIndexReader open(Path sidecar) throws IOException {
+        FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ);
+        try {
+            return new IdIndexReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean isFresh(Path log) throws IOException {
+        return Files.size(log) == logSize && Files.getLastModifiedTime(log).toMillis() == logModified;
+    }
+
+    long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Checks the Bloom filter of the last block whose first hash is not above the hash, the only
+     * block that can hold the hash unless it also starts an earlier one.
+     */
+    boolean mightContain(long hash) throws IOException {
+        long low = 0;
+        long high = blockCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (readFence(middle) <= hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long block = Math.max(0, low - 1);
+
+        long size = (long) wordCount * Long.BYTES;
+        ByteBuffer bloom = channel.map(FileChannel.MapMode.READ_ONLY, bloomsStart + block * size, size);
+        return BloomFilter.mightContain(bloom, 0, wordCount, hashes, hash);
+    }
+
+    private long readFence(long block) throws IOException {
+        fence.clear();
+        long position = fencesStart + block * Long.BYTES;
+        while (fence.hasRemaining()) {
+            if (channel.read(fence, position + fence.position()) < 0) {
+                throw new IOException("Truncated index blocks");
+            }
+        }
+        return fence.getLong(0);
+    }
+
+    void offsets(long hash, LongConsumer offsets) throws IOException {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            readEntry(middle);
+            if (entry.getLong(0) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        long previous = -1;
+        for (long index = low; index < entryCount; index++) {
+            readEntry(index);
+            if (entry.getLong(0) != hash) {
+                break;
+            }
+
+            long offset = entry.getLong(Long.BYTES);
+            if (offset != previous) {
+                offsets.accept(offset);
+                previous = offset;
+            }
+        }
+    }
+
+    private void readEntry(long index) throws IOException {
+        entry.clear();
+        long position = HEADER_SIZE + index * ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            if (channel.read(entry, position + entry.position()) < 0) {
+                throw new IOException("Truncated index entries");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
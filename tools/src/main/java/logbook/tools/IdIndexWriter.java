@@ -0,0 +1,480 @@
+package logbook.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Writes a sidecar in three sections after the header: the entries sorted by hash, the first hash
+ * of every block of {@code blockEntries} entries, and one Bloom filter per block. Entries are
+ * sorted in runs of {@code runCapacity}, spilled to disk and merged at most {@code mergeFanIn}
+ * runs at a time, over several passes for large logs; the sections are written at offsets known
+ * from the entry count, so memory and open files stay the same whatever the size of the log.
+ */
+final class IdIndexWriter {
+    static final int MAGIC = 0x4c424958;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    static final int ENTRY_SIZE = 2 * Long.BYTES;
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final List<byte[]> keys;
+    private final int runCapacity;
+    private final int mergeFanIn;
+    private final int blockEntries;
+    private final double falsePositiveRate;
+
+    IdIndexWriter(List<byte[]> keys, int runCapacity, int mergeFanIn, int blockEntries, double falsePositiveRate) {
+        if (mergeFanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2");
+        }
+        this.keys = keys;
+        this.runCapacity = runCapacity;
+        this.mergeFanIn = mergeFanIn;
+        this.blockEntries = blockEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    void write(Path log, Path sidecar) throws IOException {
+        Path directory = sidecar.toAbsolutePath().getParent();
+        List<Path> spilled = new ArrayList<>();
+        List<Path> created = new ArrayList<>();
+        Run run = new Run(runCapacity);
+        long logSize;
+        long logModified;
+
+        try {
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+                logSize = channel.size();
+                logModified = Files.getLastModifiedTime(log).toMillis();
+                scan(channel, logSize, (hash, offset) -> {
+                    if (run.isFull()) {
+                        Path file = run.spill(directory);
+                        created.add(file);
+                        spilled.add(file);
+                    }
+                    run.add(hash, offset);
+                });
+            }
+
+            List<Path> runs = spilled;
+            while (runs.size() >= mergeFanIn) {
+                runs = mergePass(runs, directory, created);
+            }
+
+            Path temporary = Files.createTempFile(directory, sidecar.getFileName().toString(), ".tmp");
+            created.add(temporary);
+            run.sort();
+            List<Cursor> cursors = new ArrayList<>();
+            try {
+                for (Path file : runs) {
+                    cursors.add(new FileCursor(file));
+                }
+                cursors.add(run.cursor());
+                writeSidecar(temporary, cursors, logSize, logModified);
+            } finally {
+                close(cursors);
+            }
+            Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (Path file : created) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Merges the runs in groups of {@code mergeFanIn} into fewer, longer runs.
+     */
+    private List<Path> mergePass(List<Path> runs, Path directory, List<Path> created) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += mergeFanIn) {
+            List<Path> group = runs.subList(start, Math.min(start + mergeFanIn, runs.size()));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+
+            Path file = Files.createTempFile(directory, "logbook-index", ".run");
+            created.add(file);
+            List<Cursor> cursors = new ArrayList<>();
+            try {
+                for (Path run : group) {
+                    cursors.add(new FileCursor(run));
+                }
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), STREAM_BUFFER_SIZE))) {
+                    output.writeLong(remaining(cursors));
+                    merge(cursors, (hash, offset) -> {
+                        output.writeLong(hash);
+                        output.writeLong(offset);
+                    });
+                }
+            } finally {
+                close(cursors);
+            }
+            for (Path run : group) {
+                Files.deleteIfExists(run);
+            }
+            merged.add(file);
+        }
+        return merged;
+    }
+
+    private void scan(FileChannel channel, long size, EntryConsumer entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        LineFields fields = new LineFields();
+        long bufferOffset = 0;
+
+        while (bufferOffset + buffer.position() < size) {
+            if (!buffer.hasRemaining()) {
+                buffer = grow(buffer);
+            }
+
+            if (channel.read(buffer, bufferOffset + buffer.position()) < 0) {
+                break;
+            }
+
+            int end = buffer.position();
+            boolean lastRead = bufferOffset + end >= size;
+            int lineStart = 0;
+            for (int i = 0; i < end; i++) {
+                if (buffer.get(i) == '\n') {
+                    visit(fields, buffer, lineStart, i, bufferOffset, entries);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (lastRead && lineStart < end) {
+                visit(fields, buffer, lineStart, end, bufferOffset, entries);
+                lineStart = end;
+            }
+
+            buffer.limit(end);
+            buffer.position(lineStart);
+            buffer.compact();
+            bufferOffset += lineStart;
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private void visit(LineFields fields, ByteBuffer buffer, int start, int end, long bufferOffset, EntryConsumer entries) throws IOException {
+        int lineEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+        fields.parse(buffer, start, lineEnd);
+        for (byte[] key : keys) {
+            int index = fields.indexOf(key);
+            if (index >= 0 && fields.valueEnd(index) > fields.valueStart(index)) {
+                entries.accept(BloomFilter.hash(buffer, fields.valueStart(index), fields.valueEnd(index)), bufferOffset + start);
+            }
+        }
+    }
+
+    private void writeSidecar(Path file, List<Cursor> cursors, long logSize, long logModified) throws IOException {
+        long entryCount = remaining(cursors);
+        long blockCount = Math.max(1, (entryCount + blockEntries - 1) / blockEntries);
+        BloomFilter bloom = new BloomFilter(blockEntries, falsePositiveRate);
+        long fencesStart = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        long bloomsStart = fencesStart + blockCount * Long.BYTES;
+        long bloomSize = (long) bloom.words().length * Long.BYTES;
+        ByteBuffer fence = ByteBuffer.allocate(Long.BYTES);
+        ByteBuffer words = ByteBuffer.allocate((int) bloomSize);
+        long[] written = {0};
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel.position(HEADER_SIZE)), STREAM_BUFFER_SIZE))) {
+            merge(cursors, (hash, offset) -> {
+                long block = written[0] / blockEntries;
+                if (written[0] % blockEntries == 0) {
+                    fence.clear();
+                    fence.putLong(hash).flip();
+                    writeFully(channel, fence, fencesStart + block * Long.BYTES);
+                }
+                output.writeLong(hash);
+                output.writeLong(offset);
+                bloom.add(hash);
+                written[0]++;
+                if (written[0] % blockEntries == 0 || written[0] == entryCount) {
+                    writeBloom(channel, bloom, words, bloomsStart + block * bloomSize);
+                }
+            });
+            if (entryCount == 0) {
+                fence.clear();
+                fence.putLong(Long.MIN_VALUE).flip();
+                writeFully(channel, fence, fencesStart);
+                writeBloom(channel, bloom, words, bloomsStart);
+            }
+            output.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(logSize)
+                    .putLong(logModified)
+                    .putLong(entryCount)
+                    .putLong(blockCount)
+                    .putInt(bloom.hashes())
+                    .putInt(bloom.words().length)
+                    .flip();
+            writeFully(channel, header, 0);
+        }
+    }
+
+    private static void writeBloom(FileChannel channel, BloomFilter bloom, ByteBuffer words, long position) throws IOException {
+        words.clear();
+        words.asLongBuffer().put(bloom.words());
+        writeFully(channel, words, position);
+        bloom.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void merge(List<Cursor> cursors, EntryConsumer entries) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(IdIndexWriter::compare);
+        for (Cursor cursor : cursors) {
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            entries.accept(cursor.hash(), cursor.offset());
+            if (cursor.next()) {
+                queue.add(cursor);
+            } else {
+                cursor.close();
+            }
+        }
+    }
+
+    private static long remaining(List<Cursor> cursors) {
+        long remaining = 0;
+        for (Cursor cursor : cursors) {
+            remaining += cursor.remaining();
+        }
+        return remaining;
+    }
+
+    private static void close(List<Cursor> cursors) throws IOException {
+        for (Cursor cursor : cursors) {
+            cursor.close();
+        }
+    }
+
+    private static int compare(Cursor first, Cursor second) {
+        int compare = Long.compare(first.hash(), second.hash());
+        return compare != 0 ? compare : Long.compare(first.offset(), second.offset());
+    }
+
+    private interface EntryConsumer {
+        void accept(long hash, long offset) throws IOException;
+    }
+
+    private interface Cursor extends Closeable {
+        long remaining();
+
+        boolean next() throws IOException;
+
+        long hash();
+
+        long offset();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class Run {
+        private final long[] hashes;
+        private final long[] offsets;
+        private int size;
+
+        private Run(int capacity) {
+            this.hashes = new long[capacity];
+            this.offsets = new long[capacity];
+        }
+
+        private boolean isFull() {
+            return size == hashes.length;
+        }
+
+        private void add(long hash, long offset) {
+            hashes[size] = hash;
+            offsets[size] = offset;
+            size++;
+        }
+
+        private Path spill(Path directory) throws IOException {
+            sort();
+            Path file = Files.createTempFile(directory, "logbook-index", ".run");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), STREAM_BUFFER_SIZE))) {
+                output.writeLong(size);
+                for (int i = 0; i < size; i++) {
+                    output.writeLong(hashes[i]);
+                    output.writeLong(offsets[i]);
+                }
+            }
+            size = 0;
+            return file;
+        }
+
+        private void sort() {
+            sort(0, size - 1);
+        }
+
+        private void sort(int low, int high) {
+            while (high - low > INSERTION_SORT_THRESHOLD) {
+                int middle = low + (high - low) / 2;
+                long pivotHash = hashes[middle];
+                long pivotOffset = offsets[middle];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (compare(i, pivotHash, pivotOffset) < 0) {
+                        i++;
+                    }
+                    while (compare(j, pivotHash, pivotOffset) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+
+                if (j - low < high - i) {
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && compare(j - 1, hashes[j], offsets[j]) > 0; j--) {
+                    swap(j - 1, j);
+                }
+            }
+        }
+
+        private int compare(int index, long hash, long offset) {
+            int compare = Long.compare(hashes[index], hash);
+            return compare != 0 ? compare : Long.compare(offsets[index], offset);
+        }
+
+        private void swap(int first, int second) {
+            long hash = hashes[first];
+            hashes[first] = hashes[second];
+            hashes[second] = hash;
+            long offset = offsets[first];
+            offsets[first] = offsets[second];
+            offsets[second] = offset;
+        }
+
+        private Cursor cursor() {
+            return new Cursor() {
+                private int index = -1;
+
+                @Override
+                public long remaining() {
+                    return size;
+                }
+
+                @Override
+                public boolean next() {
+                    return ++index < size;
+                }
+
+                @Override
+                public long hash() {
+                    return hashes[index];
+                }
+
+                @Override
+                public long offset() {
+                    return offsets[index];
+                }
+
+                @Override
+                public void close() {
+                    // nothing to release
+                }
+            };
+        }
+    }
+
+    private static final class FileCursor implements Cursor {
+        private final DataInputStream input;
+        private final long size;
+        private long read;
+        private long hash;
+        private long offset;
+
+        private FileCursor(Path file) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), STREAM_BUFFER_SIZE));
+            this.size = input.readLong();
+        }
+
+        @Override
+        public long remaining() {
+            return size - read;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (read == size) {
+                return false;
+            }
+
+            try {
+                hash = input.readLong();
+                offset = input.readLong();
+            } catch (EOFException e) {
+                throw new IOException("Truncated index run", e);
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public long hash() {
+            return hash;
+        }
+
+        @Override
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
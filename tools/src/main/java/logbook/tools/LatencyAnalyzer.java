@@ -0,0 +1,183 @@
+package logbook.tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public final class LatencyAnalyzer {
+    /**
+     * Same names as LogbookKey.ENDPOINT, SERVICE and HTTP_STATUS.
+     */
+    public static final List<String> DEFAULT_GROUP_BY = List.of("endpoint", "service", "httpStatus");
+
+    /**
+     * Same name as LogbookKey.DURATION.
+     */
+    public static final String DEFAULT_DURATION_KEY = "duration";
+
+    private final ForkJoinPool pool;
+    private final List<byte[]> groupBy;
+    private final byte[] durationKey;
+    private final double relativeAccuracy;
+
+    public LatencyAnalyzer() {
+        this(DEFAULT_GROUP_BY);
+    }
+
+    public LatencyAnalyzer(List<String> groupBy) {
+        this(ForkJoinPool.commonPool(), groupBy, DEFAULT_DURATION_KEY, LatencySketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public LatencyAnalyzer(ForkJoinPool pool, List<String> groupBy, String durationKey, double relativeAccuracy) {
+        this.pool = pool;
+        this.groupBy = groupBy.stream()
+                .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+        this.durationKey = durationKey.getBytes(StandardCharsets.UTF_8);
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public Map<List<String>, LatencySketch> analyze(List<Path> files) throws IOException {
+        Map<GroupKey, LatencySketch> groups = new ParallelScan<>(pool, Partial::new, LatencyAnalyzer::merge).run(files);
+
+        Map<List<String>, LatencySketch> result = new LinkedHashMap<>();
+        groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> result.put(entry.getKey().values(groupBy.size()), entry.getValue()));
+        return result;
+    }
+
+    private static Map<GroupKey, LatencySketch> merge(Map<GroupKey, LatencySketch> left, Map<GroupKey, LatencySketch> right) {
+        Map<GroupKey, LatencySketch> larger = left.size() >= right.size() ? left : right;
+        Map<GroupKey, LatencySketch> smaller = larger == left ? right : left;
+        smaller.forEach((key, sketch) -> larger.merge(key, sketch, LatencySketch::merge));
+        return larger;
+    }
+
+    private final class Partial implements LineVisitor<Map<GroupKey, LatencySketch>> {
+        private final Map<GroupKey, LatencySketch> groups = new HashMap<>();
+        private final GroupKey probe = new GroupKey();
+
+        @Override
+        public void visit(LineFields fields) {
+            int duration = fields.indexOf(durationKey);
+            if (duration < 0) {
+                return;
+            }
+
+            double value = fields.valueAsNumber(duration);
+            if (Double.isNaN(value)) {
+                return;
+            }
+
+            probe.clear();
+            for (byte[] key : groupBy) {
+                int index = fields.indexOf(key);
+                if (index < 0) {
+                    probe.append(fields.buffer(), 0, 0);
+                } else {
+                    probe.append(fields.buffer(), fields.valueStart(index), fields.valueEnd(index));
+                }
+            }
+
+            LatencySketch sketch = groups.get(probe);
+            if (sketch == null) {
+                sketch = new LatencySketch(relativeAccuracy);
+                groups.put(probe.copy(), sketch);
+            }
+            sketch.add(value);
+        }
+
+        @Override
+        public Map<GroupKey, LatencySketch> result() {
+            return groups;
+        }
+    }
+
+    /**
+     * Group values joined with a 0 separator; the probe instance is reused for lookups
+     * so that grouping a line does not allocate once its group exists.
+     */
+    private static final class GroupKey implements Comparable<GroupKey> {
+        private static final byte SEPARATOR = 0;
+
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        private GroupKey() {
+            this.bytes = new byte[128];
+        }
+
+        private GroupKey(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.length = bytes.length;
+            this.hash = hash;
+        }
+
+        private void clear() {
+            length = 0;
+            hash = 1;
+        }
+
+        private void append(ByteBuffer buffer, int start, int end) {
+            int needed = length + end - start + 1;
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+            }
+
+            for (int i = start; i < end; i++) {
+                byte b = buffer.get(i);
+                bytes[length++] = b;
+                hash = 31 * hash + b;
+            }
+            bytes[length++] = SEPARATOR;
+            hash = 31 * hash + SEPARATOR;
+        }
+
+        private GroupKey copy() {
+            return new GroupKey(Arrays.copyOf(bytes, length), hash);
+        }
+
+        private List<String> values(int size) {
+            List<String> values = new ArrayList<>(size);
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == SEPARATOR) {
+                    values.add(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof GroupKey)) {
+                return false;
+            }
+
+            GroupKey key = (GroupKey) other;
+            return hash == key.hash && Arrays.equals(bytes, 0, length, key.bytes, 0, key.length);
+        }
+
+        @Override
+        public int compareTo(GroupKey other) {
+            return Arrays.compareUnsigned(bytes, 0, length, other.bytes, 0, other.length);
+        }
+    }
+}
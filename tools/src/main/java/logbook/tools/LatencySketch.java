@@ -0,0 +1,149 @@
+package logbook.tools;
+
+/**
+ * Log-bucketed quantile sketch: every quantile is within {@code relativeAccuracy}
+ * of the real value and two sketches with the same accuracy merge by adding buckets.
+ */
+public final class LatencySketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private static final double MIN_INDEXABLE_VALUE = 1e-9;
+    private static final int INITIAL_BUCKETS = 64;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long[] buckets = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public LatencySketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public LatencySketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value) || value < 0) {
+            return;
+        }
+
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureCapacity(index, index);
+            buckets[index - offset]++;
+        }
+
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public LatencySketch merge(LatencySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+
+        if (other.buckets.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.buckets.length - 1);
+            for (int i = 0; i < other.buckets.length; i++) {
+                buckets[other.offset + i - offset] += other.buckets[i];
+            }
+        }
+
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        if (quantile == 1) {
+            return max;
+        }
+
+        double rank = quantile * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) {
+            return min;
+        }
+
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                double value = 2 * Math.pow(gamma, i + offset) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private void ensureCapacity(int lowIndex, int highIndex) {
+        if (buckets.length == 0) {
+            buckets = new long[Math.max(INITIAL_BUCKETS, highIndex - lowIndex + 1)];
+            offset = lowIndex - (buckets.length - (highIndex - lowIndex + 1)) / 2;
+            return;
+        }
+
+        int currentHigh = offset + buckets.length - 1;
+        if (lowIndex >= offset && highIndex <= currentHigh) {
+            return;
+        }
+
+        int newLow = Math.min(offset, lowIndex);
+        int newHigh = Math.max(currentHigh, highIndex);
+        int length = newHigh - newLow + 1;
+        int grown = Math.max(length, buckets.length * 2);
+        int newOffset = lowIndex < offset ? newHigh - grown + 1 : newLow;
+
+        long[] resized = new long[grown];
+        System.arraycopy(buckets, 0, resized, offset - newOffset, buckets.length);
+        buckets = resized;
+        offset = newOffset;
+    }
+}
@@ -0,0 +1,199 @@
+package logbook.tools;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class LineFields {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte EQUALS = '=';
+    private static final byte QUOTE = '"';
+
+    private ByteBuffer buffer;
+    private int lineStart;
+    private int lineEnd;
+    private int size;
+    private int[] keyStarts = new int[INITIAL_CAPACITY];
+    private int[] keyEnds = new int[INITIAL_CAPACITY];
+    private int[] valueStarts = new int[INITIAL_CAPACITY];
+    private int[] valueEnds = new int[INITIAL_CAPACITY];
+
+    void parse(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.size = 0;
+
+        int position = start;
+        while (position < end - 1) {
+            if (buffer.get(position) != EQUALS || buffer.get(position + 1) != QUOTE) {
+                position++;
+                continue;
+            }
+
+            int keyStart = position;
+            while (keyStart > start && isKeyChar(buffer.get(keyStart - 1))) {
+                keyStart--;
+            }
+
+            int valueStart = position + 2;
+            int valueEnd = valueStart;
+            while (valueEnd < end && buffer.get(valueEnd) != QUOTE) {
+                valueEnd++;
+            }
+
+            if (keyStart < position) {
+                add(keyStart, position, valueStart, valueEnd);
+            }
+
+            position = valueEnd + 1;
+        }
+    }
+
+    private void add(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        if (size == keyStarts.length) {
+            int capacity = size * 2;
+            keyStarts = Arrays.copyOf(keyStarts, capacity);
+            keyEnds = Arrays.copyOf(keyEnds, capacity);
+            valueStarts = Arrays.copyOf(valueStarts, capacity);
+            valueEnds = Arrays.copyOf(valueEnds, capacity);
+        }
+
+        keyStarts[size] = keyStart;
+        keyEnds[size] = keyEnd;
+        valueStarts[size] = valueStart;
+        valueEnds[size] = valueEnd;
+        size++;
+    }
+
+    static boolean isKeyChar(byte b) {
+        return (b >= 'a' && b <= 'z')
+                || (b >= 'A' && b <= 'Z')
+                || (b >= '0' && b <= '9')
+                || b == '_'
+                || b == '.';
+    }
+
+    int size() {
+        return size;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    int lineEnd() {
+        return lineEnd;
+    }
+
+    int valueStart(int index) {
+        return valueStarts[index];
+    }
+
+    int valueEnd(int index) {
+        return valueEnds[index];
+    }
+
+    int indexOf(byte[] key) {
+        for (int i = 0; i < size; i++) {
+            if (equalsBytes(keyStarts[i], keyEnds[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean valueEquals(int index, byte[] value) {
+        return equalsBytes(valueStarts[index], valueEnds[index], value);
+    }
+
+    double valueAsNumber(int index) {
+        return parseNumber(buffer, valueStarts[index], valueEnds[index]);
+    }
+
+    private boolean equalsBytes(int start, int end, byte[] bytes) {
+        if (end - start != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static double parseNumber(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        boolean negative = false;
+
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) {
+                        scale--;
+                    }
+                } else if (!fraction) {
+                    scale++;
+                }
+                digits++;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        if (position < end && (buffer.get(position) == 'E' || buffer.get(position) == 'e')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; position < end; position++) {
+                byte b = buffer.get(position);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                exponent = Math.min(exponent * 10 + (b - '0'), 1000);
+                exponentDigits++;
+            }
+
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        if (position != end) {
+            return Double.NaN;
+        }
+
+        double value = scale == 0 ? mantissa : scale > 0 ? mantissa * Math.pow(10, scale) : mantissa / Math.pow(10, -scale);
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,7 @@
+package logbook.tools;
+
+interface LineVisitor<R> {
+    void visit(LineFields fields);
+
+    R result();
+}
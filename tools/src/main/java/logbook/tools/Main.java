@@ -0,0 +1,92 @@
+package logbook.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class Main {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: logbook-tools <command> [arguments]",
+            "",
+            "commands:",
+            "  query <expression> <file>...   print lines matching the expression",
+            "  count <expression> <file>...   count lines matching the expression",
+            "  index <file>...                build or refresh the id index of each file",
+            "  lookup <id> <file>...          print lines whose request, track, transaction, session or id is <id>",
+            "  latency [--by k1,k2] <file>... print duration percentiles grouped by keys",
+            "                                 (default: endpoint,service,httpStatus)",
+            "",
+            "expression example: endpoint=\"/orders\" AND httpStatus>=500");
+
+    private Main() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+        }
+
+        OutputStream output = new BufferedOutputStream(System.out, 1 << 16);
+        switch (args[0]) {
+            case "query":
+                new QueryEngine().search(query(args), paths(args, 2), output);
+                break;
+            case "count":
+                System.out.println(new QueryEngine().count(query(args), paths(args, 2)));
+                break;
+            case "index":
+                IdIndex index = new IdIndex();
+                for (Path file : paths(args, 1)) {
+                    System.out.println((index.index(file) ? "indexed " : "up to date ") + file);
+                }
+                break;
+            case "lookup":
+                new IdIndex().lookup(args[1], paths(args, 2), output);
+                break;
+            case "latency":
+                latency(args);
+                break;
+            default:
+                usage();
+        }
+        output.flush();
+    }
+
+    private static void latency(String[] args) throws IOException {
+        List<String> groupBy = LatencyAnalyzer.DEFAULT_GROUP_BY;
+        int from = 1;
+        if ("--by".equals(args[1]) && args.length > 3) {
+            groupBy = Arrays.asList(args[2].split(","));
+            from = 3;
+        }
+
+        Map<List<String>, LatencySketch> groups = new LatencyAnalyzer(groupBy).analyze(paths(args, from));
+        System.out.println(String.join("\t", groupBy) + "\tcount\tp50\tp90\tp99\tmax");
+        groups.forEach((values, sketch) -> System.out.printf(Locale.ROOT, "%s\t%d\t%.3f\t%.3f\t%.3f\t%.3f%n",
+                String.join("\t", values), sketch.count(), sketch.quantile(0.5), sketch.quantile(0.9),
+                sketch.quantile(0.99), sketch.max()));
+    }
+
+    private static Query query(String[] args) {
+        return Query.parse(args[1]);
+    }
+
+    private static void usage() {
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    private static List<Path> paths(String[] args, int from) {
+        return Arrays.stream(args, from, args.length)
+                .map(Paths::get)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,202 @@
+package logbook.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+final class ParallelScan<R> {
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+    static final int DEFAULT_SPLIT_SIZE = 8 << 20;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int ALIGN_BUFFER_SIZE = 8 << 10;
+
+    private final ForkJoinPool pool;
+    private final Supplier<? extends LineVisitor<R>> visitors;
+    private final BinaryOperator<R> merge;
+    private final int windowSize;
+    private final int splitSize;
+
+    ParallelScan(ForkJoinPool pool, Supplier<? extends LineVisitor<R>> visitors, BinaryOperator<R> merge) {
+        this(pool, visitors, merge, DEFAULT_WINDOW_SIZE, DEFAULT_SPLIT_SIZE);
+    }
+
+    ParallelScan(ForkJoinPool pool, Supplier<? extends LineVisitor<R>> visitors, BinaryOperator<R> merge, int windowSize, int splitSize) {
+        this.pool = pool;
+        this.visitors = visitors;
+        this.merge = merge;
+        this.windowSize = windowSize;
+        this.splitSize = splitSize;
+    }
+
+    /**
+     * Hands the result of every chunk, the split size extended to the next line end, to the
+     * consumer in file order. At most twice the pool parallelism chunks are scanned or waiting at a time, so
+     * results are streamed instead of held per window.
+     */
+    void run(List<Path> files, Consumer<R> results) throws IOException {
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<R>> inFlight = new ArrayDeque<>();
+        try {
+            for (Path file : files) {
+                for (Window window : windows(file)) {
+                    ByteBuffer buffer = map(window);
+                    int start = 0;
+                    while (start < buffer.limit()) {
+                        int end = start + splitSize >= buffer.limit()
+                                ? buffer.limit()
+                                : alignToLine(buffer, start + splitSize, buffer.limit());
+                        inFlight.add(pool.submit(new ChunkTask(buffer, start, end)));
+                        if (inFlight.size() >= maxInFlight) {
+                            results.accept(inFlight.poll().join());
+                        }
+                        start = end;
+                    }
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                results.accept(inFlight.poll().join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            inFlight.forEach(task -> task.cancel(false));
+        }
+    }
+
+    R run(List<Path> files) throws IOException {
+        List<R> total = new ArrayList<>(1);
+        run(files, result -> {
+            if (total.isEmpty()) {
+                total.add(result);
+            } else {
+                total.set(0, merge.apply(total.get(0), result));
+            }
+        });
+        return total.isEmpty() ? visitors.get().result() : total.get(0);
+    }
+
+    /**
+     * Windows of at most the window size that end after a line end, so every window can be
+     * mapped as one buffer.
+     */
+    private List<Window> windows(Path file) throws IOException {
+        List<Window> windows = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = start + windowSize >= size ? size : lastLineEnd(channel, start, start + windowSize);
+                if (end < 0) {
+                    throw new IOException(String.format("Line longer than %d bytes in %s", windowSize, file));
+                }
+                windows.add(new Window(file, start, end - start));
+                start = end;
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * The position after the last line end between {@code start} and {@code limit}, or -1 if
+     * there is none.
+     */
+    private static long lastLineEnd(FileChannel channel, long start, long limit) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+        long end = limit;
+        while (end > start) {
+            long from = Math.max(start, end - ALIGN_BUFFER_SIZE);
+            buffer.clear().limit((int) (end - from));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    throw new IOException("File shrank while it was scanned");
+                }
+            }
+
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEW_LINE) {
+                    return from + i + 1;
+                }
+            }
+            end = from;
+        }
+        return -1;
+    }
+
+    static int alignToLine(ByteBuffer buffer, int position, int end) {
+        for (int i = position - 1; i < end; i++) {
+            if (buffer.get(i) == NEW_LINE) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static final class Window {
+        private final Path file;
+        private final long offset;
+        private final long length;
+
+        private Window(Path file, long offset, long length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static ByteBuffer map(Window window) throws IOException {
+        try (FileChannel channel = FileChannel.open(window.file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, window.offset, window.length);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class ChunkTask extends RecursiveTask<R> {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        private ChunkTask(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected R compute() {
+            LineVisitor<R> visitor = visitors.get();
+            LineFields fields = new LineFields();
+            int position = start;
+            while (position < end) {
+                int newLine = position;
+                while (newLine < end && buffer.get(newLine) != NEW_LINE) {
+                    newLine++;
+                }
+
+                int lineEnd = newLine;
+                if (lineEnd > position && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+                    lineEnd--;
+                }
+
+                fields.parse(buffer, position, lineEnd);
+                visitor.visit(fields);
+                position = newLine + 1;
+            }
+            return visitor.result();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package logbook.tools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public final class Query {
+    private static final Query ALL = new Query("", fields -> true);
+
+    private final String expression;
+    private final Condition condition;
+
+    private Query(String expression, Condition condition) {
+        this.expression = expression;
+        this.condition = condition;
+    }
+
+    public static Query all() {
+        return ALL;
+    }
+
+    public static Query parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return ALL;
+        }
+
+        Parser parser = new Parser(expression);
+        Condition condition = parser.parseOr();
+        parser.skipSpaces();
+        if (!parser.isDone()) {
+            throw parser.error("unexpected input");
+        }
+        return new Query(expression, condition);
+    }
+
+    boolean matches(LineFields fields) {
+        return condition.test(fields);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    interface Condition {
+        boolean test(LineFields fields);
+    }
+
+    enum Operator {
+        EQUALS("="),
+        NOT_EQUALS("!="),
+        GREATER(">"),
+        GREATER_OR_EQUALS(">="),
+        LESS("<"),
+        LESS_OR_EQUALS("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean compare(double field, double value) {
+            switch (this) {
+                case EQUALS:
+                    return field == value;
+                case NOT_EQUALS:
+                    return field != value;
+                case GREATER:
+                    return field > value;
+                case GREATER_OR_EQUALS:
+                    return field >= value;
+                case LESS:
+                    return field < value;
+                default:
+                    return field <= value;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    static final class Comparison implements Condition {
+        private final byte[] key;
+        private final Operator operator;
+        private final byte[] text;
+        private final double number;
+
+        Comparison(String key, Operator operator, String value) {
+            this.key = key.getBytes(StandardCharsets.UTF_8);
+            this.operator = operator;
+            this.text = value.getBytes(StandardCharsets.UTF_8);
+            this.number = LineFields.parseNumber(ByteBuffer.wrap(text), 0, text.length);
+        }
+
+        @Override
+        public boolean test(LineFields fields) {
+            int index = fields.indexOf(key);
+            if (index < 0) {
+                return operator == Operator.NOT_EQUALS;
+            }
+
+            if (operator == Operator.EQUALS || operator == Operator.NOT_EQUALS) {
+                boolean equals = fields.valueEquals(index, text) || numberEquals(fields, index);
+                return operator == Operator.EQUALS ? equals : !equals;
+            }
+
+            if (Double.isNaN(number)) {
+                return false;
+            }
+
+            double field = fields.valueAsNumber(index);
+            return !Double.isNaN(field) && operator.compare(field, number);
+        }
+
+        private boolean numberEquals(LineFields fields, int index) {
+            return !Double.isNaN(number) && fields.valueAsNumber(index) == number;
+        }
+    }
+
+    private static final class Parser {
+        private final String expression;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression;
+        }
+
+        private Condition parseOr() {
+            Condition left = parseAnd();
+            while (keyword("OR")) {
+                Condition first = left;
+                Condition second = parseAnd();
+                left = fields -> first.test(fields) || second.test(fields);
+            }
+            return left;
+        }
+
+        private Condition parseAnd() {
+            Condition left = parseNot();
+            while (keyword("AND")) {
+                Condition first = left;
+                Condition second = parseNot();
+                left = fields -> first.test(fields) && second.test(fields);
+            }
+            return left;
+        }
+
+        private Condition parseNot() {
+            if (keyword("NOT")) {
+                Condition condition = parseNot();
+                return fields -> !condition.test(fields);
+            }
+
+            skipSpaces();
+            if (peek() == '(') {
+                position++;
+                Condition condition = parseOr();
+                skipSpaces();
+                if (peek() != ')') {
+                    throw error("expected ')'");
+                }
+                position++;
+                return condition;
+            }
+
+            return parseComparison();
+        }
+
+        private Condition parseComparison() {
+            skipSpaces();
+            int start = position;
+            while (!isDone() && LineFields.isKeyChar((byte) expression.charAt(position))) {
+                position++;
+            }
+
+            if (start == position) {
+                throw error("expected a key");
+            }
+
+            String key = expression.substring(start, position);
+            skipSpaces();
+            Operator operator = parseOperator();
+            skipSpaces();
+            return new Comparison(key, operator, parseValue());
+        }
+
+        private Operator parseOperator() {
+            if (expression.startsWith("!=", position)) {
+                position += 2;
+                return Operator.NOT_EQUALS;
+            } else if (expression.startsWith(">=", position)) {
+                position += 2;
+                return Operator.GREATER_OR_EQUALS;
+            } else if (expression.startsWith("<=", position)) {
+                position += 2;
+                return Operator.LESS_OR_EQUALS;
+            } else if (peek() == '=') {
+                position++;
+                return Operator.EQUALS;
+            } else if (peek() == '>') {
+                position++;
+                return Operator.GREATER;
+            } else if (peek() == '<') {
+                position++;
+                return Operator.LESS;
+            }
+
+            throw error("expected an operator");
+        }
+
+        private String parseValue() {
+            if (peek() == '"') {
+                int end = expression.indexOf('"', position + 1);
+                if (end < 0) {
+                    throw error("unterminated value");
+                }
+                String value = expression.substring(position + 1, end);
+                position = end + 1;
+                return value;
+            }
+
+            int start = position;
+            while (!isDone() && !Character.isWhitespace(peek()) && peek() != ')') {
+                position++;
+            }
+
+            if (start == position) {
+                throw error("expected a value");
+            }
+            return expression.substring(start, position);
+        }
+
+        private boolean keyword(String keyword) {
+            skipSpaces();
+            int end = position + keyword.length();
+            if (end > expression.length()
+                    || !expression.substring(position, end).toUpperCase(Locale.ROOT).equals(keyword)) {
+                return false;
+            }
+
+            if (end < expression.length() && !Character.isWhitespace(expression.charAt(end)) && expression.charAt(end) != '(') {
+                return false;
+            }
+
+            position = end;
+            return true;
+        }
+
+        private void skipSpaces() {
+            while (!isDone() && Character.isWhitespace(peek())) {
+                position++;
+            }
+        }
+
+        private char peek() {
+            return isDone() ? 0 : expression.charAt(position);
+        }
+
+        private boolean isDone() {
+            return position >= expression.length();
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format("Invalid query at %d: %s", position, message));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package logbook.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public final class QueryEngine {
+    private final ForkJoinPool pool;
+
+    public QueryEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public QueryEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public long count(Query query, List<Path> files) throws IOException {
+        return new ParallelScan<>(pool, () -> new Matches(query, false), Matches::merge)
+                .run(files)
+                .count;
+    }
+
+    public long search(Query query, List<Path> files, OutputStream output) throws IOException {
+        long[] count = {0};
+        new ParallelScan<>(pool, () -> new Matches(query, true), Matches::merge)
+                .run(files, matches -> {
+                    count[0] += matches.count;
+                    matches.writeTo(output);
+                });
+        return count[0];
+    }
+
+    private static final class Matches implements LineVisitor<Matches> {
+        private static final int CHUNK_SIZE = 64 << 10;
+
+        private final Query query;
+        private final boolean collect;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+        private byte[] chunk;
+        private int length;
+        private long count;
+
+        private Matches(Query query, boolean collect) {
+            this.query = query;
+            this.collect = collect;
+        }
+
+        @Override
+        public void visit(LineFields fields) {
+            if (!query.matches(fields)) {
+                return;
+            }
+
+            count++;
+            if (collect) {
+                copyLine(fields);
+            }
+        }
+
+        private void copyLine(LineFields fields) {
+            int lineLength = fields.lineEnd() - fields.lineStart() + 1;
+            if (chunk == null || length + lineLength > chunk.length) {
+                flushChunk();
+                chunk = new byte[Math.max(CHUNK_SIZE, lineLength)];
+            }
+
+            ByteBuffer buffer = fields.buffer();
+            for (int i = fields.lineStart(); i < fields.lineEnd(); i++) {
+                chunk[length++] = buffer.get(i);
+            }
+            chunk[length++] = '\n';
+        }
+
+        private void flushChunk() {
+            if (chunk != null && length > 0) {
+                chunks.add(chunk);
+                lengths.add(length);
+            }
+            chunk = null;
+            length = 0;
+        }
+
+        @Override
+        public Matches result() {
+            flushChunk();
+            return this;
+        }
+
+        private Matches merge(Matches other) {
+            count += other.count;
+            chunks.addAll(other.chunks);
+            lengths.addAll(other.lengths);
+            return this;
+        }
+
+        private void writeTo(OutputStream output) {
+            try {
+                for (int i = 0; i < chunks.size(); i++) {
+                    output.write(chunks.get(i), 0, lengths.get(i));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package logbook.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, int from, int size) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < from + size; i++) {
+            lines.add(line(i));
+        }
+        Path file = directory.resolve(name);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String line(int i) {
+        return String.format("INFO logbook - message=\"step %d\" request=\"r-%d\" track=\"t-%d\"", i, i / 3, i / 100);
+    }
+
+    @Test
+    void shouldLookUpLinesById() throws IOException {
+        Path file = write("app.log", 0, 1000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = new IdIndex(IdIndex.DEFAULT_KEYS, 64).lookup("r-10", List.of(file), output);
+
+        assertThat(count)
+                .isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .containsExactly(line(30), line(31), line(32));
+    }
+
+    @Test
+    void shouldMergeRunsInSeveralPassesAndSplitBloomFiltersIntoBlocks() throws IOException {
+        Path file = write("app.log", 0, 1000);
+        IdIndex index = new IdIndex(IdIndex.DEFAULT_KEYS, 16, 3, 100);
+
+        for (int request = 0; request < 334; request++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertThat(index.lookup("r-" + request, List.of(file), output))
+                    .isEqualTo(request < 333 ? 3 : 1);
+        }
+        try (IdIndexReader reader = IdIndexReader.open(IdIndex.sidecar(file))) {
+            assertThat(reader.entryCount())
+                    .isEqualTo(2000);
+            assertThat(reader.mightContain(BloomFilter.hash("missing".getBytes(StandardCharsets.UTF_8))))
+                    .isFalse();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files)
+                    .containsExactlyInAnyOrder(file, IdIndex.sidecar(file));
+        }
+    }
+
+    @Test
+    void shouldLookUpAcrossRotatedFilesInOrder() throws IOException {
+        Path rotated = write("app.log.1", 0, 300);
+        Path active = write("app.log", 300, 300);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = new IdIndex().lookup("t-2", List.of(rotated, active), output);
+
+        assertThat(count)
+                .isEqualTo(100);
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .startsWith(line(200))
+                .endsWith(line(299));
+    }
+
+    @Test
+    void shouldSkipFilesWithoutTheId() throws IOException {
+        Path file = write("app.log", 0, 1000);
+        IdIndex index = new IdIndex();
+        index.index(file);
+
+        try (IdIndexReader reader = IdIndexReader.open(IdIndex.sidecar(file))) {
+            assertThat(reader.mightContain(BloomFilter.hash("r-10".getBytes(StandardCharsets.UTF_8))))
+                    .isTrue();
+            assertThat(reader.mightContain(BloomFilter.hash("missing".getBytes(StandardCharsets.UTF_8))))
+                    .isFalse();
+            assertThat(reader.entryCount())
+                    .isEqualTo(2000);
+        }
+    }
+
+    @Test
+    void shouldReuseFreshIndexAndRebuildChangedOne() throws IOException {
+        Path file = write("app.log", 0, 10);
+        IdIndex index = new IdIndex();
+
+        assertThat(index.index(file))
+                .isTrue();
+        assertThat(index.index(file))
+                .isFalse();
+
+        Files.write(file, List.of(line(10)), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThat(index.index(file))
+                .isTrue();
+        assertThat(index.lookup("r-3", List.of(file), output))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotReportHashCollisionsOrPartialValues() throws IOException {
+        Path file = write("app.log", 0, 100);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThat(new IdIndex().lookup("r-1", List.of(file), output))
+                .isEqualTo(3);
+        assertThat(new IdIndex().lookup("step 1", List.of(file), output))
+                .isZero();
+    }
+}
@@ -0,0 +1,80 @@
+package logbook.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            lines.add(String.format("INFO logbook - endpoint=\"%s\" service=\"api\" httpStatus=\"%d\" duration=\"%d\"",
+                    i % 2 == 0 ? "/orders" : "/users", i % 10 == 0 ? 500 : 200, i));
+        }
+        lines.add("INFO logbook - endpoint=\"/orders\" message=\"no duration\"");
+        lines.add("INFO logbook - endpoint=\"/orders\" duration=\"n/a\"");
+
+        Path file = directory.resolve(name);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void shouldGroupDurationsByKeys() throws IOException {
+        Path file = write("app.log");
+
+        Map<List<String>, LatencySketch> groups = new LatencyAnalyzer().analyze(List.of(file));
+
+        assertThat(groups.keySet())
+                .containsExactly(
+                        List.of("/orders", "api", "200"),
+                        List.of("/orders", "api", "500"),
+                        List.of("/users", "api", "200"));
+
+        LatencySketch errors = groups.get(List.of("/orders", "api", "500"));
+        assertThat(errors.count())
+                .isEqualTo(100);
+        assertThat(errors.quantile(0.5))
+                .isCloseTo(500, within(10.0));
+    }
+
+    @Test
+    void shouldUseEmptyValueForMissingGroupKeys() throws IOException {
+        Path file = write("app.log");
+
+        Map<List<String>, LatencySketch> groups = new LatencyAnalyzer(List.of("endpoint", "region")).analyze(List.of(file));
+
+        assertThat(groups.keySet())
+                .containsExactly(List.of("/orders", ""), List.of("/users", ""));
+    }
+
+    @Test
+    void shouldMergePartialResultsFromSplitFiles() throws IOException {
+        Path first = write("app.log.1");
+        Path second = write("app.log");
+        LatencyAnalyzer analyzer = new LatencyAnalyzer(new ForkJoinPool(4), List.of("service"), "duration", 0.01);
+
+        Map<List<String>, LatencySketch> groups = analyzer.analyze(List.of(first, second));
+
+        LatencySketch sketch = groups.get(List.of("api"));
+        assertThat(sketch.count())
+                .isEqualTo(2000);
+        assertThat(sketch.quantile(0.99))
+                .isCloseTo(990, within(20.0));
+    }
+}
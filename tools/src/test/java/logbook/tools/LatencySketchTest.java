@@ -0,0 +1,102 @@
+package logbook.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencySketchTest {
+
+    private static double exactQuantile(double[] sorted, double quantile) {
+        return sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+    }
+
+    @Test
+    void shouldEstimateQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        LatencySketch sketch = new LatencySketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999}) {
+            double exact = exactQuantile(values, quantile);
+            assertThat(sketch.quantile(quantile))
+                    .isCloseTo(exact, within(exact * 0.02));
+        }
+        assertThat(sketch.count())
+                .isEqualTo(values.length);
+        assertThat(sketch.max())
+                .isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    void shouldMergeLikeASingleSketch() {
+        LatencySketch single = new LatencySketch();
+        LatencySketch low = new LatencySketch();
+        LatencySketch high = new LatencySketch();
+        for (int i = 1; i <= 10_000; i++) {
+            single.add(i);
+            (i % 2 == 0 ? low : high).add(i);
+        }
+
+        LatencySketch merged = low.merge(high);
+
+        for (double quantile : new double[]{0, 0.5, 0.99, 1}) {
+            assertThat(merged.quantile(quantile))
+                    .isEqualTo(single.quantile(quantile));
+        }
+        assertThat(merged.count())
+                .isEqualTo(single.count());
+        assertThat(merged.sum())
+                .isEqualTo(single.sum());
+    }
+
+    @Test
+    void shouldMergeDisjointRanges() {
+        LatencySketch small = new LatencySketch();
+        LatencySketch large = new LatencySketch();
+        small.add(0.001);
+        large.add(1_000_000);
+
+        LatencySketch merged = large.merge(small);
+
+        assertThat(merged.quantile(0))
+                .isEqualTo(0.001);
+        assertThat(merged.quantile(1))
+                .isEqualTo(1_000_000);
+    }
+
+    @Test
+    void shouldCountZerosAndIgnoreInvalidValues() {
+        LatencySketch sketch = new LatencySketch();
+        sketch.add(0);
+        sketch.add(-1);
+        sketch.add(Double.NaN);
+        sketch.add(10);
+
+        assertThat(sketch.count())
+                .isEqualTo(2);
+        assertThat(sketch.quantile(0))
+                .isZero();
+    }
+
+    @Test
+    void shouldReturnNaNWhenEmpty() {
+        assertThat(new LatencySketch().quantile(0.5))
+                .isNaN();
+    }
+
+    @Test
+    void shouldRejectSketchesWithDifferentAccuracy() {
+        assertThatThrownBy(() -> new LatencySketch(0.01).merge(new LatencySketch(0.02)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,181 @@
+package logbook.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, List<String> lines) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> lines(int size) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(String.format("INFO logbook - endpoint=\"%s\" httpStatus=\"%d\" request=\"%d\"",
+                    i % 2 == 0 ? "/orders" : "/users", i % 5 == 0 ? 500 : 200, i));
+        }
+        return lines;
+    }
+
+    @Test
+    void shouldCountMatchingLines() throws IOException {
+        Path file = write("app.log", lines(1000));
+
+        long count = new QueryEngine().count(Query.parse("endpoint=\"/orders\" AND httpStatus>=500"), List.of(file));
+
+        assertThat(count)
+                .isEqualTo(100);
+    }
+
+    @Test
+    void shouldPrintMatchingLinesInFileOrder() throws IOException {
+        Path first = write("app.log.1", lines(10));
+        Path second = write("app.log", lines(10));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = new QueryEngine().search(Query.parse("request=3 OR request=7"), List.of(first, second), output);
+
+        assertThat(count)
+                .isEqualTo(4);
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .containsExactly(
+                        lines(10).get(3),
+                        lines(10).get(7),
+                        lines(10).get(3),
+                        lines(10).get(7));
+    }
+
+    @Test
+    void shouldSplitAtLineBoundaries() throws IOException {
+        Path file = write("app.log", lines(5000));
+        ParallelScan<List<String>> scan = new ParallelScan<>(new ForkJoinPool(4), () -> new LineVisitor<>() {
+            private final List<String> requests = new ArrayList<>();
+
+            @Override
+            public void visit(LineFields fields) {
+                int index = fields.indexOf("request".getBytes(StandardCharsets.UTF_8));
+                StringBuilder value = new StringBuilder();
+                for (int i = fields.valueStart(index); i < fields.valueEnd(index); i++) {
+                    value.append((char) fields.buffer().get(i));
+                }
+                requests.add(value.toString());
+            }
+
+            @Override
+            public List<String> result() {
+                return requests;
+            }
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, 64 << 10, 4 << 10);
+
+        List<String> requests = scan.run(List.of(file));
+
+        assertThat(requests)
+                .hasSize(5000);
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(requests.get(i))
+                    .isEqualTo(String.valueOf(i));
+        }
+    }
+
+    @Test
+    void shouldStreamChunkResultsInFileOrder() throws IOException {
+        Path file = write("app.log", lines(5000));
+        ParallelScan<Long> scan = new ParallelScan<>(new ForkJoinPool(4), () -> new LineVisitor<>() {
+            private long first = -1;
+
+            @Override
+            public void visit(LineFields fields) {
+                if (first < 0) {
+                    first = fields.lineStart();
+                }
+            }
+
+            @Override
+            public Long result() {
+                return first;
+            }
+        }, Math::min, 1 << 20, 4 << 10);
+
+        List<Long> starts = new ArrayList<>();
+        scan.run(List.of(file), starts::add);
+
+        assertThat(starts.size())
+                .isGreaterThan(Files.size(file) / (8 << 10));
+        assertThat(starts)
+                .isSorted();
+    }
+
+    @Test
+    void shouldSplitWindowsAtLineEnds() throws IOException {
+        Path file = write("app.log", lines(1000));
+        ParallelScan<Long> scan = new ParallelScan<>(new ForkJoinPool(4), () -> new LineVisitor<>() {
+            private long count;
+
+            @Override
+            public void visit(LineFields fields) {
+                count++;
+            }
+
+            @Override
+            public Long result() {
+                return count;
+            }
+        }, Long::sum, 256, 64);
+
+        assertThat(scan.run(List.of(file)))
+                .isEqualTo(1000);
+    }
+
+    @Test
+    void shouldRejectLineLongerThanWindow() throws IOException {
+        Path file = write("app.log", List.of("short", "x".repeat(300), "short"));
+        ParallelScan<Long> scan = new ParallelScan<>(new ForkJoinPool(1), () -> new LineVisitor<>() {
+            @Override
+            public void visit(LineFields fields) {
+            }
+
+            @Override
+            public Long result() {
+                return 0L;
+            }
+        }, Long::sum, 256, 64);
+
+        assertThatThrownBy(() -> scan.run(List.of(file)))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Line longer than 256 bytes");
+    }
+
+    @Test
+    void shouldHandleEmptyFilesAndMissingLastNewLine() throws IOException {
+        Path empty = write("empty.log", List.of());
+        Path file = directory.resolve("last.log");
+        Files.write(file, "endpoint=\"/orders\"".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new QueryEngine().search(Query.all(), List.of(empty, file), output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .isEqualTo("endpoint=\"/orders\"\n");
+    }
+}
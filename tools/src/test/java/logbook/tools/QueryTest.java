@@ -0,0 +1,101 @@
+package logbook.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryTest {
+
+    private static LineFields fields(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        LineFields fields = new LineFields();
+        fields.parse(ByteBuffer.wrap(bytes), 0, bytes.length);
+        return fields;
+    }
+
+    @Test
+    void shouldMatchEqualsAndNumericComparison() {
+        Query query = Query.parse("endpoint=\"/orders\" AND httpStatus>=500");
+
+        assertThat(query.matches(fields("endpoint=\"/orders\" httpStatus=\"503\"")))
+                .isTrue();
+        assertThat(query.matches(fields("endpoint=\"/orders\" httpStatus=\"200\"")))
+                .isFalse();
+        assertThat(query.matches(fields("endpoint=\"/users\" httpStatus=\"500\"")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldMatchOrAndNot() {
+        Query query = Query.parse("NOT status=\"success\" OR (duration<10 AND service=api)");
+
+        assertThat(query.matches(fields("status=\"fail\"")))
+                .isTrue();
+        assertThat(query.matches(fields("status=\"success\" duration=\"5.5\" service=\"api\"")))
+                .isTrue();
+        assertThat(query.matches(fields("status=\"success\" duration=\"50\" service=\"api\"")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldMatchNumbersWithDifferentText() {
+        Query query = Query.parse("duration=1");
+
+        assertThat(query.matches(fields("duration=\"1.0\"")))
+                .isTrue();
+    }
+
+    @Test
+    void shouldTreatMissingFieldAsNotEqual() {
+        assertThat(Query.parse("track!=abc").matches(fields("message=\"hello\"")))
+                .isTrue();
+        assertThat(Query.parse("track=abc").matches(fields("message=\"hello\"")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldNotCompareNonNumericValues() {
+        assertThat(Query.parse("httpStatus>400").matches(fields("httpStatus=\"unknown\"")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldIgnoreTextAroundFields() {
+        Query query = Query.parse("request=\"abc\"");
+
+        assertThat(query.matches(fields("2021-10-10 INFO logbook.Demo - message=\"x = 1\" request=\"abc\"")))
+                .isTrue();
+    }
+
+    @Test
+    void shouldMatchEverythingWhenExpressionIsBlank() {
+        assertThat(Query.parse(" ").matches(fields("anything")))
+                .isTrue();
+    }
+
+    @Test
+    void shouldFailWhenExpressionIsInvalid() {
+        assertThatThrownBy(() -> Query.parse("endpoint"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Query.parse("(endpoint=a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Query.parse("endpoint=\"a"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldParseNumbers() {
+        byte[] bytes = "-12.5e2".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(LineFields.parseNumber(ByteBuffer.wrap(bytes), 0, bytes.length))
+                .isEqualTo(-1250.0);
+        assertThat(LineFields.parseNumber(ByteBuffer.wrap(bytes), 0, 2))
+                .isEqualTo(-1.0);
+        assertThat(LineFields.parseNumber(ByteBuffer.wrap(bytes), 4, 5))
+                .isNaN();
+    }
+}